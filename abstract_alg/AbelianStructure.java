@@ -0,0 +1,515 @@
+package abstract_alg;
+/* NAME: AbelianStructure.java
+ * DATE: October 2026
+ * COMMENTS: The decomposition of a finitely generated abelian group into cyclic groups,
+ * e.g. Z_4 x Z_6 = Z_2 x Z_12, both ways it is usually written:
+ *  - invariant factors: Z^r x Z_d1 x ... x Z_dk with 1 < d1 | d2 | ... | dk, unique for
+ *    each group, so that two abelian groups are isomorphic exactly when they have the same
+ *    free rank r and the same invariant factors;
+ *  - elementary divisors: the prime powers the d's split into (Z_12 = Z_4 x Z_3).
+ * The group is given by a relation matrix: one column per generator, one row per relation
+ * (row (a1, ..., an) says that a1 x1 + ... + an xn = 0), so that it is Z^n modulo the
+ * rows.  The decomposition is read off the Smith normal form of the matrix - the
+ * diagonal matrix it becomes under invertible integer row and column operations, whose
+ * diagonal entries are the invariant factors (and zeros, or missing rows, for the free
+ * part).  That takes a polynomial number of operations in the size of the matrix,
+ * however big the group is: Z_(10^18) x Z_(10^18) is as quick as Z_2 x Z_2.  The
+ * elimination is done on longs, with every step checked for overflow, since the entries
+ * can grow part way through; if one overflows, the whole thing is done again on
+ * BigIntegers.
+ * A matrix can come from:
+ *  - orders of cyclic groups (cyclic, directProduct), and quotients of them (quotient:
+ *    Z_n / <k> = Z_gcd(n, k));
+ *  - a presentation, such as <a, b | a^4, b^6, [a, b]>, whose abelianization G/[G, G]
+ *    this is (ofPresentation): each relator gives the row of its exponent sums, and the
+ *    group itself never has to be enumerated - it may even be infinite;
+ *  - a finite abelian Group object (of, e.g. a ZmodN or a FactorGroup such as Z_n / <k>):
+ *    each generator in turn is raised to powers until it lands in the subgroup of the ones
+ *    before it, which gives a relation, so this one does take time proportional to the
+ *    order of the group. */
+
+import java.math.BigInteger;
+import java.util.*;
+
+public class AbelianStructure {
+  private static final int SMALL_PRIMES = 1000; // factors below this are found by trial division
+
+  private final int freeRank;
+  private final BigInteger[] invariants; // d1 | d2 | ... | dk, all > 1
+  private BigInteger[][] elementary; // {p, p^e} pairs; null until first needed
+
+  /* The abelian group Z^n modulo the rows of the matrix, n being the number of columns. */
+  public AbelianStructure(long[][] relations) {
+    this(relations, width(relations));
+  }
+
+  /* The same, for generators that no relation mentions (columns past the end of every
+   * row, or when there are no relations at all). */
+  public AbelianStructure(long[][] relations, int generators) {
+    this(generators, smithDiagonal(relations, generators));
+  }
+
+  /* The same, for a matrix whose entries don't fit in longs. */
+  public AbelianStructure(BigInteger[][] relations, int generators) {
+    this(generators, smithDiagonal(big(relations, generators)));
+  }
+
+  private AbelianStructure(int generators, BigInteger[] diagonal) {
+    this.freeRank = generators - diagonal.length;
+    ArrayList<BigInteger> factors = new ArrayList<BigInteger>();
+    for (BigInteger d : diagonal) {
+      if (!d.equals(BigInteger.ONE))
+        factors.add(d);
+    }
+    this.invariants = factors.toArray(new BigInteger[0]);
+  }
+
+  /* Z_n. */
+  public static AbelianStructure cyclic(long n) {
+    return directProduct(n);
+  }
+
+  /* Z_n1 x Z_n2 x ..., where an order of 0 stands for Z. */
+  public static AbelianStructure directProduct(long... orders) {
+    long[][] relations = new long[orders.length][orders.length];
+    for (int i = 0; i < orders.length; i++) {
+      if (orders[i] < 0)
+        throw new IllegalArgumentException("A cyclic group can't have order " + orders[i] + ".");
+      relations[i][i] = orders[i];
+    }
+    return new AbelianStructure(relations, orders.length);
+  }
+
+  /* Z_n / <k1, k2, ...>. */
+  public static AbelianStructure quotient(long n, long... subgroupGenerators) {
+    long[][] relations = new long[1 + subgroupGenerators.length][];
+    relations[0] = new long[] {n};
+    for (int i = 0; i < subgroupGenerators.length; i++)
+      relations[i+1] = new long[] {subgroupGenerators[i]};
+    return new AbelianStructure(relations, 1);
+  }
+
+  /* The abelianization of the group with the given presentation (written as for
+   * CosetEnumerator), from the exponent sums of its relators. */
+  public static AbelianStructure ofPresentation(String presentation) {
+    CosetEnumerator parsed = new CosetEnumerator(presentation);
+    int generators = parsed.getGeneratorNames().length;
+    int[][] words = parsed.getRelatorWords();
+    long[][] relations = new long[words.length][generators];
+    for (int i = 0; i < words.length; i++) {
+      for (int column : words[i])
+        relations[i][column / 2] += (column % 2 == 0) ? 1 : -1; // 2g is generator g, 2g+1 its inverse
+    }
+    return new AbelianStructure(relations, generators);
+  }
+
+  /* The structure of a finite abelian group, from its generators (see the comments at the
+   * top). */
+  public static AbelianStructure of(Group g) {
+    if (g instanceof ZmodN)
+      return cyclic(g.getGroupOrder());
+    if (!g.isAbelian())
+      throw new IllegalArgumentException(g.groupName() + " is not abelian.");
+
+    ArrayList<GroupElement> gens = new ArrayList<GroupElement>(g.getGenerators());
+    int n = gens.size();
+    // every element reached so far, with exponents that give it from the generators:
+    HashMap<Object, long[]> exponents = new HashMap<Object, long[]>();
+    ArrayList<GroupElement> reached = new ArrayList<GroupElement>();
+    ArrayList<long[]> reachedExponents = new ArrayList<long[]>();
+    exponents.put(g.hashKey(g.getIdentity()), new long[n]);
+    reached.add(g.getIdentity());
+    reachedExponents.add(new long[n]);
+    long[][] relations = new long[n][];
+
+    for (int i = 0; i < n; i++) {
+      GroupElement x = gens.get(i), power = x;
+      int m = 1;
+      while (!exponents.containsKey(g.hashKey(power))) { // m is the least with x^m in <x_0, ..., x_(i-1)>
+        power = g.operate(power, x);
+        m++;
+      }
+      relations[i] = exponents.get(g.hashKey(power)).clone();
+      for (int j = 0; j < n; j++)
+        relations[i][j] = -relations[i][j];
+      relations[i][i] += m;
+
+      // <x_0, ..., x_i> is everything reached so far times x^0, ..., x^(m-1):
+      int before = reached.size();
+      for (int k = 0; k < before; k++) {
+        GroupElement y = reached.get(k);
+        for (int j = 1; j < m; j++) {
+          y = g.operate(y, x);
+          long[] e = reachedExponents.get(k).clone();
+          e[i] = j;
+          exponents.put(g.hashKey(y), e);
+          reached.add(y);
+          reachedExponents.add(e);
+        }
+      }
+    }
+    return new AbelianStructure(relations, n);
+  }
+
+  /* The number of copies of Z. */
+  public int getFreeRank() {
+    return freeRank;
+  }
+
+  /* d1 | d2 | ... | dk, each greater than 1. */
+  public BigInteger[] getInvariantFactors() {
+    return invariants.clone();
+  }
+
+  /* The prime powers, grouped by prime in increasing order, and increasing for each. */
+  public BigInteger[] getElementaryDivisors() {
+    BigInteger[][] e = elementaryDivisors();
+    BigInteger[] powers = new BigInteger[e.length];
+    for (int i = 0; i < e.length; i++)
+      powers[i] = e[i][1];
+    return powers;
+  }
+
+  public boolean isFinite() {
+    return freeRank == 0;
+  }
+
+  public boolean isCyclic() {
+    return freeRank + invariants.length <= 1;
+  }
+
+  /* The number of elements, for a finite group. */
+  public BigInteger getOrder() {
+    if (!isFinite())
+      throw new IllegalStateException(this + " is infinite.");
+    BigInteger order = BigInteger.ONE;
+    for (BigInteger d : invariants)
+      order = order.multiply(d);
+    return order;
+  }
+
+  /* The exponent (the lcm of the element orders), for a finite group. */
+  public BigInteger getExponent() {
+    if (!isFinite())
+      throw new IllegalStateException(this + " is infinite.");
+    return (invariants.length == 0) ? BigInteger.ONE : invariants[invariants.length-1];
+  }
+
+  public boolean isIsomorphicTo(AbelianStructure other) {
+    return freeRank == other.freeRank && Arrays.equals(invariants, other.invariants);
+  }
+
+  public boolean equals(Object o) {
+    return (o instanceof AbelianStructure) && isIsomorphicTo((AbelianStructure)o);
+  }
+
+  public int hashCode() {
+    return 31*freeRank + Arrays.hashCode(invariants);
+  }
+
+  /* E.g. "Z x Z2 x Z12", or "1" for the trivial group. */
+  public String toString() {
+    StringJoiner s = new StringJoiner(" x ");
+    for (int i = 0; i < freeRank; i++)
+      s.add("Z");
+    for (BigInteger d : invariants)
+      s.add("Z" + d);
+    return (s.length() == 0) ? "1" : s.toString();
+  }
+
+  /* E.g. "Z x Z2 x Z4 x Z3", or "1" for the trivial group. */
+  public String elementaryDivisorsToString() {
+    StringJoiner s = new StringJoiner(" x ");
+    for (int i = 0; i < freeRank; i++)
+      s.add("Z");
+    for (BigInteger q : getElementaryDivisors())
+      s.add("Z" + q);
+    return (s.length() == 0) ? "1" : s.toString();
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* The diagonal, on longs if nothing overflows and on BigIntegers if it does. */
+  private static BigInteger[] smithDiagonal(long[][] relations, int generators) {
+    long[][] a = new long[relations.length][generators];
+    for (int i = 0; i < relations.length; i++) {
+      checkWidth(relations[i].length, generators, i);
+      System.arraycopy(relations[i], 0, a[i], 0, relations[i].length);
+    }
+    try {
+      return smithDiagonal(a);
+    }
+    catch (ArithmeticException overflow) {
+      BigInteger[][] b = new BigInteger[relations.length][];
+      for (int i = 0; i < relations.length; i++) {
+        b[i] = new BigInteger[relations[i].length];
+        for (int j = 0; j < relations[i].length; j++)
+          b[i][j] = BigInteger.valueOf(relations[i][j]);
+      }
+      return smithDiagonal(big(b, generators));
+    }
+  }
+
+  /* The nonzero diagonal entries of the Smith normal form, d1 | d2 | ..., each positive.
+   * For each t in turn, the smallest nonzero entry left is moved to (t, t) and used to
+   * clear its row and column by subtracting multiples; a remainder that isn't zero is
+   * smaller than the pivot, so becomes the next pivot, and this goes on until both are
+   * clear.  If some entry left isn't a multiple of the pivot, its row is added to row t
+   * and the clearing starts again (with a smaller pivot, the gcd).  Throws an
+   * ArithmeticException if anything overflows. */
+  private static BigInteger[] smithDiagonal(long[][] a) {
+    int rows = a.length, cols = (rows == 0) ? 0 : a[0].length;
+    ArrayList<BigInteger> diagonal = new ArrayList<BigInteger>();
+    for (int t = 0; t < Math.min(rows, cols); t++) {
+      if (!movePivot(a, t))
+        break;
+      while (true) {
+        boolean clear = true;
+        for (int i = t+1; i < rows; i++) {
+          long q = a[i][t] / a[t][t];
+          if (q != 0) {
+            for (int j = t; j < cols; j++)
+              a[i][j] = Math.subtractExact(a[i][j], Math.multiplyExact(q, a[t][j]));
+          }
+          clear &= (a[i][t] == 0);
+        }
+        for (int j = t+1; j < cols; j++) {
+          long q = a[t][j] / a[t][t];
+          if (q != 0) {
+            for (int i = t; i < rows; i++)
+              a[i][j] = Math.subtractExact(a[i][j], Math.multiplyExact(q, a[i][t]));
+          }
+          clear &= (a[t][j] == 0);
+        }
+        if (!clear) {
+          movePivot(a, t);
+          continue;
+        }
+        int bad = indivisibleRow(a, t);
+        if (bad < 0)
+          break;
+        for (int j = t; j < cols; j++)
+          a[t][j] = Math.addExact(a[t][j], a[bad][j]);
+      }
+      diagonal.add(BigInteger.valueOf(a[t][t]).abs());
+    }
+    return diagonal.toArray(new BigInteger[0]);
+  }
+
+  /* Moves the smallest nonzero entry in rows and columns from t on to (t, t); false if
+   * they're all zero. */
+  private static boolean movePivot(long[][] a, int t) {
+    int rows = a.length, cols = a[0].length, bestI = -1, bestJ = -1;
+    for (int i = t; i < rows; i++) {
+      for (int j = t; j < cols; j++) {
+        if (a[i][j] != 0 && (bestI < 0 || Math.abs(a[i][j]) < Math.abs(a[bestI][bestJ]))) {
+          if (a[i][j] == Long.MIN_VALUE)
+            throw new ArithmeticException("long overflow"); // (it has no absolute value)
+          bestI = i;
+          bestJ = j;
+        }
+      }
+    }
+    if (bestI < 0)
+      return false;
+    long[] row = a[t];
+    a[t] = a[bestI];
+    a[bestI] = row;
+    for (long[] r : a) {
+      long x = r[t];
+      r[t] = r[bestJ];
+      r[bestJ] = x;
+    }
+    return true;
+  }
+
+  /* A row below t with an entry (past column t) that isn't a multiple of a[t][t], or -1. */
+  private static int indivisibleRow(long[][] a, int t) {
+    for (int i = t+1; i < a.length; i++) {
+      for (int j = t+1; j < a[i].length; j++) {
+        if (a[i][j] % a[t][t] != 0)
+          return i;
+      }
+    }
+    return -1;
+  }
+
+  /* The same, on BigIntegers. */
+  private static BigInteger[] smithDiagonal(BigInteger[][] a) {
+    int rows = a.length, cols = (rows == 0) ? 0 : a[0].length;
+    ArrayList<BigInteger> diagonal = new ArrayList<BigInteger>();
+    for (int t = 0; t < Math.min(rows, cols); t++) {
+      if (!movePivot(a, t))
+        break;
+      while (true) {
+        boolean clear = true;
+        for (int i = t+1; i < rows; i++) {
+          BigInteger q = a[i][t].divide(a[t][t]);
+          if (q.signum() != 0) {
+            for (int j = t; j < cols; j++)
+              a[i][j] = a[i][j].subtract(q.multiply(a[t][j]));
+          }
+          clear &= (a[i][t].signum() == 0);
+        }
+        for (int j = t+1; j < cols; j++) {
+          BigInteger q = a[t][j].divide(a[t][t]);
+          if (q.signum() != 0) {
+            for (int i = t; i < rows; i++)
+              a[i][j] = a[i][j].subtract(q.multiply(a[i][t]));
+          }
+          clear &= (a[t][j].signum() == 0);
+        }
+        if (!clear) {
+          movePivot(a, t);
+          continue;
+        }
+        int bad = indivisibleRow(a, t);
+        if (bad < 0)
+          break;
+        for (int j = t; j < cols; j++)
+          a[t][j] = a[t][j].add(a[bad][j]);
+      }
+      diagonal.add(a[t][t].abs());
+    }
+    return diagonal.toArray(new BigInteger[0]);
+  }
+
+  private static boolean movePivot(BigInteger[][] a, int t) {
+    int rows = a.length, cols = a[0].length, bestI = -1, bestJ = -1;
+    for (int i = t; i < rows; i++) {
+      for (int j = t; j < cols; j++) {
+        if (a[i][j].signum() != 0 && (bestI < 0 || a[i][j].abs().compareTo(a[bestI][bestJ].abs()) < 0)) {
+          bestI = i;
+          bestJ = j;
+        }
+      }
+    }
+    if (bestI < 0)
+      return false;
+    BigInteger[] row = a[t];
+    a[t] = a[bestI];
+    a[bestI] = row;
+    for (BigInteger[] r : a) {
+      BigInteger x = r[t];
+      r[t] = r[bestJ];
+      r[bestJ] = x;
+    }
+    return true;
+  }
+
+  private static int indivisibleRow(BigInteger[][] a, int t) {
+    for (int i = t+1; i < a.length; i++) {
+      for (int j = t+1; j < a[i].length; j++) {
+        if (a[i][j].remainder(a[t][t]).signum() != 0)
+          return i;
+      }
+    }
+    return -1;
+  }
+
+  /* The invariant factors split into prime powers, as {p, p^e} pairs sorted by p and then
+   * by p^e. */
+  private synchronized BigInteger[][] elementaryDivisors() {
+    if (elementary == null) {
+      ArrayList<BigInteger[]> pairs = new ArrayList<BigInteger[]>();
+      for (BigInteger d : invariants) {
+        TreeMap<BigInteger, Integer> primes = new TreeMap<BigInteger, Integer>();
+        factor(d, primes);
+        for (Map.Entry<BigInteger, Integer> p : primes.entrySet())
+          pairs.add(new BigInteger[] {p.getKey(), p.getKey().pow(p.getValue())});
+      }
+      pairs.sort((x, y) -> (x[0].equals(y[0])) ? x[1].compareTo(y[1]) : x[0].compareTo(y[0]));
+      elementary = pairs.toArray(new BigInteger[0][]);
+    }
+    return elementary;
+  }
+
+  /* Adds the prime factors of n (> 0), with their multiplicities, to primes: trial
+   * division by the small primes, then Pollard's rho (Brent's version) on what's left. */
+  private static void factor(BigInteger n, TreeMap<BigInteger, Integer> primes) {
+    for (int p = 2; p < SMALL_PRIMES && n.compareTo(BigInteger.ONE) > 0; p++) {
+      BigInteger bp = BigInteger.valueOf(p);
+      while (n.mod(bp).signum() == 0) {
+        primes.merge(bp, 1, Integer::sum);
+        n = n.divide(bp);
+      }
+    }
+    ArrayDeque<BigInteger> left = new ArrayDeque<BigInteger>();
+    if (n.compareTo(BigInteger.ONE) > 0)
+      left.push(n);
+    while (!left.isEmpty()) {
+      BigInteger m = left.pop();
+      if (m.isProbablePrime(64)) {
+        primes.merge(m, 1, Integer::sum);
+        continue;
+      }
+      BigInteger d = rho(m);
+      left.push(d);
+      left.push(m.divide(d));
+    }
+  }
+
+  /* A proper factor of the composite odd n. */
+  private static BigInteger rho(BigInteger n) {
+    for (long c = 1; ; c++) {
+      BigInteger bc = BigInteger.valueOf(c), y = BigInteger.TWO, x = y, g = BigInteger.ONE, q = BigInteger.ONE, ys = y;
+      for (long r = 1; g.equals(BigInteger.ONE); r *= 2) {
+        x = y;
+        for (long i = 0; i < r; i++)
+          y = y.multiply(y).add(bc).mod(n);
+        for (long k = 0; k < r && g.equals(BigInteger.ONE); k += 128) {
+          ys = y;
+          for (long i = 0; i < Math.min(128, r - k); i++) {
+            y = y.multiply(y).add(bc).mod(n);
+            q = q.multiply(x.subtract(y).abs()).mod(n);
+          }
+          g = q.gcd(n);
+        }
+      }
+      if (g.equals(n)) { // the batch overshot: step through it one at a time
+        do {
+          ys = ys.multiply(ys).add(bc).mod(n);
+          g = x.subtract(ys).abs().gcd(n);
+        } while (g.equals(BigInteger.ONE));
+      }
+      if (!g.equals(n))
+        return g;
+    }
+  }
+
+  private static int width(long[][] relations) {
+    int width = 0;
+    for (long[] row : relations)
+      width = Math.max(width, row.length);
+    return width;
+  }
+
+  /* A copy of the relations, padded with zeros to the full width. */
+  private static BigInteger[][] big(BigInteger[][] relations, int generators) {
+    BigInteger[][] a = new BigInteger[relations.length][generators];
+    for (int i = 0; i < relations.length; i++) {
+      checkWidth(relations[i].length, generators, i);
+      Arrays.fill(a[i], BigInteger.ZERO);
+      System.arraycopy(relations[i], 0, a[i], 0, relations[i].length);
+    }
+    return a;
+  }
+
+  private static void checkWidth(int length, int generators, int i) {
+    if (length > generators)
+      throw new IllegalArgumentException("Relation " + i + " has " + length + " entries, but there are only " + generators
+                                           + " generators.");
+  }
+
+  public static void main(String[] args) {
+//    System.out.println(directProduct(4, 6).isIsomorphicTo(directProduct(2, 12))); // true
+//    System.out.println(directProduct(4, 6)); // Z2 x Z12
+//    System.out.println(directProduct(4, 6).elementaryDivisorsToString()); // Z2 x Z4 x Z3
+//    System.out.println(quotient(24, 9)); // Z3
+//    System.out.println(ofPresentation("<a, b | a^4, b^6, [a, b]>")); // Z2 x Z12
+//    System.out.println(ofPresentation("<x, y | x^2, y^3, (xy)^5>")); // 1: A5 is perfect
+//    System.out.println(directProduct(1000000000000000000L, 999999999999999999L)); // Z999999999999999999000000000000000000
+  }
+}
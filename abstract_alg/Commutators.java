@@ -0,0 +1,132 @@
+package abstract_alg;
+/* NAME: Commutators.java
+ * DATE: October 2026
+ * COMMENTS: The commutator calculus behind Group.commutatorSubgroup, derivedSeries and
+ * lowerCentralSeries, done on positions in the members list.  A subgroup is a bitset of
+ * positions together with a list of its elements and of a few generators; it is only ever
+ * grown by adding a generator and multiplying everything by the generators until nothing
+ * new turns up, so each generator added at least doubles it and there are never more
+ * than log2 |G| of them.  [A, B], for A and B normal in G, is the normal closure in G of
+ * the commutators [a, b] = a^-1 b^-1 a b of the generators of A and of B - not of all the
+ * pairs of elements - and the normal closure is grown by conjugating its generators by
+ * those of G until every conjugate is already inside.  Comparing two nested subgroups is
+ * comparing their sizes, so the series know at once when they've stopped going down. */
+
+import java.util.*;
+
+final class Commutators {
+  private final Group group;
+  private final ArrayList<GroupElement> elements;
+  private final int[] inverses; // -1 until worked out
+  private final Subgroup whole;
+
+  Commutators(Group group) {
+    this.group = group;
+    elements = new ArrayList<GroupElement>(group.getMembers());
+    inverses = new int[elements.size()];
+    Arrays.fill(inverses, -1);
+    whole = new Subgroup();
+    for (GroupElement g : group.getGenerators())
+      whole.add(group.indexOf(g));
+  }
+
+  Subgroup whole() {
+    return whole;
+  }
+
+  /* [a, b], for subgroups a and b that are normal in the whole group. */
+  Subgroup commutator(Subgroup a, Subgroup b) {
+    Subgroup c = new Subgroup();
+    for (int x : a.generators) {
+      for (int y : b.generators)
+        c.add(product(product(inverse(x), inverse(y)), product(x, y)));
+    }
+    return normalClosure(c);
+  }
+
+  /* The derived series G > [G, G] > ..., or the lower central series G > [G, G] >
+   * [[G, G], G] > ..., down to where it stops getting smaller. */
+  LinkedList<Subgroup> series(boolean derived) {
+    LinkedList<Subgroup> series = new LinkedList<Subgroup>();
+    Subgroup current = whole;
+    series.add(current);
+    while (true) {
+      Subgroup next = commutator(current, derived ? current : whole);
+      if (next.size() == current.size())
+        return series;
+      series.add(next);
+      current = next;
+    }
+  }
+
+  LinkedList<GroupElement> list(Subgroup s) {
+    LinkedList<GroupElement> list = new LinkedList<GroupElement>();
+    for (int i = 0; i < s.size; i++)
+      list.add(elements.get(s.positions[i]));
+    return list;
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* Adds the conjugates of s's generators by the whole group's generators to s until it
+   * is normal. */
+  private Subgroup normalClosure(Subgroup s) {
+    for (int k = 0; k < s.generators.size(); k++) {
+      int x = s.generators.get(k);
+      for (int g : whole.generators)
+        s.add(product(inverse(g), product(x, g)));
+    }
+    return s;
+  }
+
+  private int product(int x, int y) {
+    return group.indexOf(group.operate(elements.get(x), elements.get(y)));
+  }
+
+  private int inverse(int x) {
+    if (inverses[x] < 0) {
+      int y = group.indexOf(group.getInverse(elements.get(x)));
+      inverses[x] = y;
+      inverses[y] = x;
+    }
+    return inverses[x];
+  }
+
+  final class Subgroup {
+    private final BitSet members = new BitSet(elements.size());
+    private int[] positions = new int[16];
+    private int size;
+    private final ArrayList<Integer> generators = new ArrayList<Integer>();
+
+    private Subgroup() {
+      put(group.indexOf(group.getIdentity()));
+    }
+
+    int size() {
+      return size;
+    }
+
+    /* Grows the subgroup to take in x, if it isn't in already. */
+    private void add(int x) {
+      if (members.get(x))
+        return;
+      generators.add(x);
+      for (int head = 0; head < size; head++) {
+        for (int g : generators) {
+          int y = product(positions[head], g);
+          if (!members.get(y))
+            put(y);
+        }
+      }
+    }
+
+    private void put(int x) {
+      if (size == positions.length)
+        positions = Arrays.copyOf(positions, 2*size);
+      positions[size++] = x;
+      members.set(x);
+    }
+  }
+}
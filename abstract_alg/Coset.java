@@ -42,6 +42,16 @@ public class Coset extends GroupElement {
     return primaryRep;
   }
   
+  /* Returns the group this is a coset in. */
+  public Group getContextGroup() {
+    return contextGroup;
+  }
+  
+  /* Walks through the members of the coset without copying them (unlike getElements). */
+  public Iterator<GroupElement> iterator() {
+    return Collections.unmodifiableList(cosetMembers).iterator();
+  }
+  
   public int getSize() {
     return cosetMembers.size();
   }
@@ -60,25 +70,25 @@ public class Coset extends GroupElement {
   }
   
   public String toString() {
-    String s = ((primaryRep.toString().equalsIgnoreCase("identity")) ?
+    StringBuilder s = new StringBuilder((primaryRep.toString().equalsIgnoreCase("identity")) ?
                   "The coset generated by the identity: " :
                   "The coset generated by " + primaryRep.toString() + ": ");
     if (cosetMembers.size() <= 20) {
-    for (int i = 0; i < cosetMembers.size(); i++)
-      s+=cosetMembers.get(i).toString()+", ";
+    for (GroupElement member : cosetMembers)
+      s.append(member.toString()).append(", ");
     
     return (s.substring(0, s.length()-2));
     }
     else {
-      s+=cosetMembers.get(0).toString()+", "+cosetMembers.get(1).toString()+", ..., "
-        +cosetMembers.get(getSize()-2).toString()+", "+cosetMembers.get(getSize()-1).toString();
-      return s;
+      s.append(cosetMembers.get(0).toString()).append(", ").append(cosetMembers.get(1).toString()).append(", ..., ")
+        .append(cosetMembers.get(getSize()-2).toString()).append(", ").append(cosetMembers.get(getSize()-1).toString());
+      return s.toString();
     }
   }
   
   private void generateCoset(LinkedList<GroupElement> identity) {
-    for (int i = 0; i < identity.size(); i++)
-      cosetMembers = contextGroup.addInOrder(cosetMembers, (contextGroup.operate(primaryRep, identity.get(i))));
+    for (GroupElement h : identity) // (not get(i), which is quadratic on a LinkedList)
+      cosetMembers = contextGroup.addInOrder(cosetMembers, (contextGroup.operate(primaryRep, h)));
   }
   
   public static void main(String[] args) {
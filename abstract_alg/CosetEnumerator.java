@@ -0,0 +1,838 @@
+package abstract_alg;
+/* NAME: CosetEnumerator.java
+ * DATE: October 2026
+ * COMMENTS: Todd-Coxeter coset enumeration: given a finite presentation of a group G, such
+ * as <a, b | a^5, b^2, (ab)^2> for the dihedral group of order 10 or <x, y | x^2, y^3,
+ * (xy)^5> for A_5, and words generating a subgroup H, this works out the right cosets Hw
+ * of H in G and how the generators permute them - if there are finitely many; if not, it
+ * runs until it reaches its memory limit.  With H trivial (the default) the cosets are the
+ * elements of G, so a presentation becomes a concrete group: toTableGroup() gives its
+ * multiplication table, getPermutationGenerators() the permutations of the cosets.
+ *
+ * Presentations are written <generators | relators>, or with the mathematical angle
+ * brackets U+27E8 and U+27E9 in place of < and >.
+ * Generators are a letter followed by any digits (x1, x2, ...), so ab is a times b.  A
+ * relator is a word, or a relation u = v; words are built from generators, (words),
+ * commutators [u, v] = u^-1 v^-1 u v and powers w^k, k possibly negative.
+ *
+ * The coset table is one flat int array, a row of two columns per generator (one for g
+ * and one for g^-1) per coset, 0 where not yet known, so a coset costs 8 bytes per
+ * generator plus 8 for the union-find array that records coincidences.  Two strategies:
+ *  - HLT (Haselgrove, Leech, Trotter): scan each relator from each coset in turn, defining
+ *    new cosets to fill whatever gaps remain.  Fast and simple, but prone to defining many
+ *    more cosets than it ends up with;
+ *  - FELSCH: define one coset at a time, at the first gap in the table, and follow up each
+ *    new entry by scanning every cyclic conjugate of every relator that it could complete
+ *    (the entries waiting to be followed up are kept on a deduction stack).  Slower, but
+ *    defines far fewer cosets.
+ * When two cosets turn out to be the same, the larger is merged into the smaller and its
+ * row folded in, which may show up more coincidences, all handled from one queue.  Once
+ * the table has grown to the memory limit, the dead cosets are squeezed out (after a
+ * "lookahead" pass that scans every coset without defining anything, in the hope of
+ * finding more of them); if that doesn't free up enough room, the enumeration gives up.
+ * At the default limit of 256 MB, a two-generator presentation can have over 10^7 cosets
+ * live at once. */
+
+import java.util.*;
+
+public class CosetEnumerator {
+  public enum Strategy { HLT, FELSCH }
+
+  public static final long DEFAULT_MEMORY_LIMIT = 256L * 1024 * 1024; // bytes for the coset table and its bookkeeping
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int DEDUCTION_LIMIT = 1 << 16; // past this many, deductions are dropped and every coset rescanned
+  private static final int MIN_FREED = 32; // a lookahead has to free up at least 1/MIN_FREED of the table to carry on
+
+  private final String presentation;
+  private final String[] names;
+  private final int[][] relators; // words of columns: 2g is generator g, 2g+1 its inverse
+  private final int[][] subgroup;
+  private final int columns;
+  private Strategy strategy = Strategy.HLT;
+  private long memoryLimit = DEFAULT_MEMORY_LIMIT;
+
+  // the working table: row c (cosets are numbered from 1) starts at table[c*columns]
+  private int[] table;
+  private int[] parent; // parent[c] == c for live cosets, and smaller for merged ones
+  private int[] queue; // merged cosets whose rows still have to be folded in
+  private int queueHead, queueTail;
+  private int capacity, maxCapacity, next, live;
+  private int[] deductions; // (coset, column) pairs
+  private int deductionCount;
+  private boolean deductionsLost;
+  private int[][][] conjugates; // for FELSCH: the cyclic conjugates of the relators, by first letter
+  private long defined;
+  private int mostLive;
+
+  // the result: cosets renumbered 0, ..., index-1 in breadth-first order from H itself
+  private int index = -1;
+  private int[] result;
+  private int[] treeParent, treeColumn;
+
+  /* An enumeration of the cosets of the subgroup generated by the given words (none for
+   * the trivial subgroup) in the group with the given presentation. */
+  public CosetEnumerator(String presentation, String... subgroupWords) {
+    Parser parser = new Parser(presentation);
+    this.presentation = presentation.trim();
+    this.names = parser.names;
+    this.relators = parser.relators;
+    this.columns = 2*names.length;
+    this.subgroup = new int[subgroupWords.length][];
+    for (int i = 0; i < subgroupWords.length; i++)
+      subgroup[i] = new Parser(names, subgroupWords[i]).word;
+  }
+
+  private CosetEnumerator(CosetEnumerator g) {
+    this.presentation = g.presentation;
+    this.names = g.names;
+    this.relators = g.relators;
+    this.columns = g.columns;
+    this.subgroup = new int[0][];
+    this.strategy = g.strategy;
+    this.memoryLimit = g.memoryLimit;
+  }
+
+  public void setStrategy(Strategy strategy) {
+    this.strategy = strategy;
+  }
+
+  /* The most memory, in bytes, that the coset table may take up. */
+  public void setMemoryLimit(long bytes) {
+    if (bytes < 1024)
+      throw new IllegalArgumentException("A memory limit of " + bytes + " bytes is too small to enumerate anything.");
+    this.memoryLimit = bytes;
+  }
+
+  public String[] getGeneratorNames() {
+    return names.clone();
+  }
+
+  /* The relators as parsed: column 2g is generator g and 2g+1 its inverse.  Not to be
+   * changed. */
+  int[][] getRelatorWords() {
+    return relators;
+  }
+
+  /* Runs the enumeration, and returns the index of H in G, or -1 if the memory limit was
+   * reached first (which is all that can happen if the index is infinite). */
+  public int enumerate() {
+    int bytesPerCoset = 4*columns + 8;
+    maxCapacity = (int)Math.min(memoryLimit / bytesPerCoset, (Integer.MAX_VALUE - 8) / Math.max(columns, 1));
+    capacity = Math.min(INITIAL_CAPACITY, maxCapacity);
+    table = new int[capacity*columns];
+    parent = new int[capacity];
+    queue = new int[capacity];
+    deductions = new int[2*DEDUCTION_LIMIT];
+    deductionCount = 0;
+    deductionsLost = false;
+    parent[1] = 1;
+    next = 2;
+    live = 1;
+    defined = 1;
+    mostLive = 1;
+    index = -1;
+    result = null;
+    conjugates = null;
+
+    boolean done;
+    if (strategy == Strategy.FELSCH) {
+      makeConjugates();
+      done = runFelsch();
+    }
+    else
+      done = runHLT();
+    if (done)
+      finish();
+    table = null;
+    parent = null;
+    queue = null;
+    deductions = null;
+    return index;
+  }
+
+  /* The index found by the last enumerate(), or -1. */
+  public int getIndex() {
+    return index;
+  }
+
+  /* How many cosets the last enumeration defined, all told, and the most that were alive
+   * at once - the measures of how hard it had to work. */
+  public long getCosetsDefined() {
+    return defined;
+  }
+
+  public int getMostCosetsLive() {
+    return mostLive;
+  }
+
+  /* The action of each generator on the cosets 0, ..., index-1 (coset 0 being H):
+   * actions[g][c] is the coset c*g.  Null if the enumeration hasn't finished. */
+  public int[][] getGeneratorActions() {
+    if (result == null)
+      return null;
+    int[][] actions = new int[names.length][index];
+    for (int g = 0; g < names.length; g++) {
+      for (int c = 0; c < index; c++)
+        actions[g][c] = result[c*columns + 2*g];
+    }
+    return actions;
+  }
+
+  /* The generators as permutations of the cosets, numbered 1, ..., index.  Cosets are
+   * right cosets, acted on from the right, so the word uv acts as u and then v, which is
+   * operate(v, u) in PermutationGroup.  Null if the enumeration hasn't finished. */
+  public LinkedList<Permutation> getPermutationGenerators() {
+    int[][] actions = getGeneratorActions();
+    if (actions == null)
+      return null;
+    LinkedList<Permutation> perms = new LinkedList<Permutation>();
+    for (int[] action : actions) {
+      int[] images = new int[index];
+      for (int c = 0; c < index; c++)
+        images[c] = action[c] + 1;
+      perms.add(new Permutation(images));
+    }
+    return perms;
+  }
+
+  /* A word (in the generators) for a representative of each coset, e.g. "e", "a", "b",
+   * "a^-1", "a^2", "ab", ...: the shortest, or near enough.  Null if the enumeration
+   * hasn't finished. */
+  public String[] getCosetRepresentatives() {
+    if (result == null)
+      return null;
+    String[] words = new String[index];
+    int[] length = new int[index];
+    for (int c = 1; c < index; c++)
+      length[c] = length[treeParent[c]] + 1;
+    words[0] = "e";
+    for (int c = 1; c < index; c++) {
+      int[] letters = new int[length[c]];
+      for (int d = c, i = letters.length-1; d != 0; d = treeParent[d], i--)
+        letters[i] = treeColumn[d];
+      StringBuilder s = new StringBuilder();
+      for (int i = 0; i < letters.length; ) {
+        int run = 1;
+        while (i + run < letters.length && letters[i + run] == letters[i])
+          run++;
+        s.append(names[letters[i]/2]);
+        if (letters[i] % 2 == 1)
+          s.append("^-").append(run);
+        else if (run > 1)
+          s.append('^').append(run);
+        i += run;
+      }
+      words[c] = s.toString();
+    }
+    return words;
+  }
+
+  /* The group itself as a TableGroup, its elements named by the words of
+   * getCosetRepresentatives().  If H isn't trivial, the cosets of the trivial subgroup are
+   * enumerated first.  Null if that enumeration runs out of memory. */
+  public TableGroup toTableGroup() {
+    CosetEnumerator elements = this;
+    if (subgroup.length > 0 || result == null) {
+      elements = new CosetEnumerator(this);
+      if (elements.enumerate() < 0)
+        return null;
+    }
+    int n = elements.index;
+    if (n > TableGroup.MAX_ORDER)
+      throw new IllegalStateException("The group has " + n + " elements, more than a TableGroup can hold.");
+
+    // element i is the representative w_i of coset i, so i*j is coset 0 w_i w_j, i.e. coset
+    // i times w_j; w_j is w_(treeParent j) followed by one more letter:
+    int cols = elements.columns;
+    int[] products = new int[n*n];
+    for (int i = 0; i < n; i++)
+      products[i*n] = i;
+    for (int j = 1; j < n; j++) {
+      int p = elements.treeParent[j], col = elements.treeColumn[j];
+      for (int i = 0; i < n; i++)
+        products[i*n + j] = elements.result[products[i*n + p]*cols + col];
+    }
+    return new TableGroup(presentation, n, products, elements.getCosetRepresentatives());
+  }
+
+  public String toString() {
+    String status = (index < 0) ? "not enumerated" : ("index " + index);
+    return "Coset enumeration (" + strategy + ") of " + subgroup.length + " subgroup generator(s) in " + presentation + ": " + status;
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* HLT: every relator from every coset in turn, filling gaps as they come. */
+  private boolean runHLT() {
+    for (int[] w : subgroup) {
+      if (!scanAndFill(1, w))
+        return false;
+    }
+    int a = 1;
+    while (a < next) {
+      if (parent[a] != a) {
+        a++;
+        continue;
+      }
+      boolean room = true;
+      for (int r = 0; r < relators.length && room && parent[a] == a; r++)
+        room = scanAndFill(a, relators[r]);
+      for (int x = 0; x < columns && room && parent[a] == a; x++) {
+        if (table[a*columns + x] == 0)
+          room = define(a, x) != 0;
+      }
+      if (room)
+        a++;
+      else if ((a = makeRoom(a, true)) < 0)
+        return false;
+    }
+    return true;
+  }
+
+  /* Felsch: fill the first gap in the table, then follow up every deduction. */
+  private boolean runFelsch() {
+    for (int[] w : subgroup) {
+      if (!scanAndFill(1, w))
+        return false;
+    }
+    if (columns == 0)
+      return true;
+    int c = 1, x = 0;
+    while (true) {
+      processDeductions();
+      // find the first gap, from where the last one was
+      while (c < next && (parent[c] != c || table[c*columns + x] != 0)) {
+        if (++x == columns || parent[c] != c) {
+          x = 0;
+          c++;
+        }
+      }
+      if (c == next) {
+        // coincidences can (briefly) open gaps behind us; make sure there are none
+        c = firstGap();
+        if (c == next)
+          return true;
+        x = 0;
+        continue;
+      }
+      if (define(c, x) == 0) {
+        if ((c = makeRoom(c, false)) < 0)
+          return false;
+        x = 0;
+      }
+    }
+  }
+
+  private int firstGap() {
+    for (int c = 1; c < next; c++) {
+      if (parent[c] != c)
+        continue;
+      for (int x = 0; x < columns; x++) {
+        if (table[c*columns + x] == 0)
+          return c;
+      }
+    }
+    return next;
+  }
+
+  /* Follows up every entry on the deduction stack by scanning the relators it might
+   * complete; if the stack overflowed, scans everything instead. */
+  private void processDeductions() {
+    while (deductionCount > 0 || deductionsLost) {
+      if (deductionsLost) {
+        deductionsLost = false;
+        deductionCount = 0;
+        for (int c = 1; c < next; c++) {
+          for (int r = 0; r < relators.length && parent[c] == c; r++)
+            scan(c, relators[r]);
+        }
+        for (int[] w : subgroup)
+          scan(1, w);
+        continue;
+      }
+      deductionCount--;
+      int c = deductions[2*deductionCount], x = deductions[2*deductionCount + 1];
+      if (parent[c] != c)
+        continue;
+      for (int[] w : conjugates[x]) {
+        if (parent[c] != c)
+          break;
+        scan(c, w);
+      }
+      int d = (parent[c] == c) ? table[c*columns + x] : 0;
+      if (d != 0) {
+        d = rep(d);
+        for (int[] w : conjugates[x ^ 1]) {
+          if (parent[d] != d)
+            break;
+          scan(d, w);
+        }
+      }
+      for (int[] w : subgroup)
+        scan(1, w);
+    }
+  }
+
+  /* Scans w from coset a, forwards and backwards, defining new cosets to close any gap
+   * wider than one letter.  Returns false if the table is full. */
+  private boolean scanAndFill(int a, int[] w) {
+    int f = a, i = 0, b = a, j = w.length-1;
+    while (true) {
+      while (i <= j && table[f*columns + w[i]] != 0)
+        f = table[f*columns + w[i++]];
+      if (i > j) {
+        if (f != a)
+          coincidence(f, a);
+        return true;
+      }
+      while (j >= i && table[b*columns + (w[j] ^ 1)] != 0)
+        b = table[b*columns + (w[j--] ^ 1)];
+      if (j < i) {
+        coincidence(f, b);
+        return true;
+      }
+      if (i == j) {
+        deduce(f, w[i], b);
+        return true;
+      }
+      if (define(f, w[i]) == 0)
+        return false;
+    }
+  }
+
+  /* Scans w from coset a without defining anything; a gap of exactly one letter gives a
+   * deduction, and a scan that closes up may give a coincidence. */
+  private void scan(int a, int[] w) {
+    int f = a, i = 0, b = a, j = w.length-1;
+    while (i <= j && table[f*columns + w[i]] != 0)
+      f = table[f*columns + w[i++]];
+    if (i > j) {
+      if (f != a)
+        coincidence(f, a);
+      return;
+    }
+    while (j >= i && table[b*columns + (w[j] ^ 1)] != 0)
+      b = table[b*columns + (w[j--] ^ 1)];
+    if (j < i)
+      coincidence(f, b);
+    else if (i == j)
+      deduce(f, w[i], b);
+  }
+
+  private void deduce(int f, int x, int b) {
+    table[f*columns + x] = b;
+    table[b*columns + (x ^ 1)] = f;
+    pushDeduction(f, x);
+  }
+
+  /* A new coset c*x, or 0 if the table can't grow any more. */
+  private int define(int c, int x) {
+    if (next == capacity && !grow())
+      return 0;
+    int d = next++;
+    Arrays.fill(table, d*columns, (d+1)*columns, 0);
+    parent[d] = d;
+    live++;
+    defined++;
+    mostLive = Math.max(mostLive, live);
+    table[c*columns + x] = d;
+    table[d*columns + (x ^ 1)] = c;
+    pushDeduction(c, x);
+    return d;
+  }
+
+  private void pushDeduction(int c, int x) {
+    if (conjugates == null)
+      return;
+    if (deductionCount == DEDUCTION_LIMIT)
+      deductionsLost = true;
+    else {
+      deductions[2*deductionCount] = c;
+      deductions[2*deductionCount + 1] = x;
+      deductionCount++;
+    }
+  }
+
+  private boolean grow() {
+    int newCapacity = (int)Math.min(2L*capacity, maxCapacity);
+    if (newCapacity <= capacity)
+      return false;
+    table = Arrays.copyOf(table, newCapacity*columns);
+    parent = Arrays.copyOf(parent, newCapacity);
+    queue = Arrays.copyOf(queue, newCapacity);
+    capacity = newCapacity;
+    return true;
+  }
+
+  /* The table is full: look for coincidences (if asked to), squeeze out the dead cosets,
+   * and return the new number of coset a (or of the first live coset after it), or -1 if
+   * too little room was freed to be worth going on. */
+  private int makeRoom(int a, boolean lookahead) {
+    if (lookahead) {
+      for (int c = 1; c < next; c++) {
+        for (int r = 0; r < relators.length && parent[c] == c; r++)
+          scan(c, relators[r]);
+      }
+    }
+    while (a < next && parent[a] != a)
+      a++;
+    int[] number = compact();
+    if (capacity - next < capacity / MIN_FREED)
+      return -1;
+    return (a < number.length) ? number[a] : next;
+  }
+
+  /* Renumbers the live cosets 1, 2, ... in their present order, and returns the map from
+   * old numbers to new.  Pending deductions are dropped, to be made up by a full scan. */
+  private int[] compact() {
+    int[] number = new int[next];
+    int count = 1;
+    for (int c = 1; c < next; c++) {
+      if (parent[c] == c)
+        number[c] = count++;
+    }
+    for (int c = 1; c < next; c++) {
+      if (parent[c] != c)
+        continue;
+      int from = c*columns, to = number[c]*columns; // to <= from, so nothing unread is overwritten
+      for (int x = 0; x < columns; x++) {
+        int e = table[from + x];
+        table[to + x] = (e == 0) ? 0 : number[rep(e)];
+      }
+    }
+    for (int c = 1; c < count; c++)
+      parent[c] = c;
+    next = count;
+    if (deductionCount > 0) {
+      deductionCount = 0;
+      deductionsLost = true;
+    }
+    return number;
+  }
+
+  /* Cosets a and b are the same: merge them, and everything that follows from it. */
+  private void coincidence(int a, int b) {
+    queueHead = queueTail = 0;
+    merge(a, b);
+    while (queueHead < queueTail) {
+      int e = queue[queueHead++];
+      for (int x = 0; x < columns; x++) {
+        int f = table[e*columns + x];
+        if (f == 0)
+          continue;
+        if (table[f*columns + (x ^ 1)] == e)
+          table[f*columns + (x ^ 1)] = 0;
+        int mu = rep(e), nu = rep(f);
+        int muX = table[mu*columns + x];
+        if (muX != 0)
+          merge(nu, muX);
+        else {
+          int nuX = table[nu*columns + (x ^ 1)];
+          if (nuX != 0)
+            merge(mu, nuX);
+          else {
+            table[mu*columns + x] = nu;
+            table[nu*columns + (x ^ 1)] = mu;
+            pushDeduction(mu, x);
+          }
+        }
+      }
+    }
+  }
+
+  /* The larger of the two cosets' representatives goes into the smaller. */
+  private void merge(int k, int l) {
+    int phi = rep(k), psi = rep(l);
+    if (phi == psi)
+      return;
+    int mu = Math.min(phi, psi), nu = Math.max(phi, psi);
+    parent[nu] = mu;
+    live--;
+    queue[queueTail++] = nu;
+  }
+
+  private int rep(int c) {
+    int root = c;
+    while (parent[root] != root)
+      root = parent[root];
+    while (parent[c] != root) {
+      int up = parent[c];
+      parent[c] = root;
+      c = up;
+    }
+    return root;
+  }
+
+  /* Renumbers the finished table 0, ..., index-1 in breadth-first order from coset 1,
+   * recording the tree that gives each coset's representative. */
+  private void finish() {
+    index = live;
+    int[] number = new int[next];
+    Arrays.fill(number, -1);
+    int[] order = new int[index];
+    treeParent = new int[index];
+    treeColumn = new int[index];
+    int count = 0;
+    order[count++] = 1;
+    number[1] = 0;
+    for (int head = 0; head < count; head++) {
+      int c = order[head];
+      for (int x = 0; x < columns; x++) {
+        int d = rep(table[c*columns + x]);
+        if (number[d] < 0) {
+          number[d] = count;
+          treeParent[count] = head;
+          treeColumn[count] = x;
+          order[count++] = d;
+        }
+      }
+    }
+    result = new int[index*columns];
+    for (int k = 0; k < index; k++) {
+      for (int x = 0; x < columns; x++)
+        result[k*columns + x] = number[rep(table[order[k]*columns + x])];
+    }
+  }
+
+  /* Every cyclic conjugate of every relator and of its inverse, without repeats, sorted by
+   * their first letter. */
+  private void makeConjugates() {
+    ArrayList<LinkedHashSet<List<Integer>>> byLetter = new ArrayList<LinkedHashSet<List<Integer>>>();
+    for (int x = 0; x < columns; x++)
+      byLetter.add(new LinkedHashSet<List<Integer>>());
+    for (int[] r : relators) {
+      int[] inverse = inverseWord(r);
+      for (int[] w : new int[][] {r, inverse}) {
+        for (int s = 0; s < w.length; s++) {
+          ArrayList<Integer> rotation = new ArrayList<Integer>(w.length);
+          for (int k = 0; k < w.length; k++)
+            rotation.add(w[(s + k) % w.length]);
+          byLetter.get(rotation.get(0)).add(rotation);
+        }
+      }
+    }
+    conjugates = new int[columns][][];
+    for (int x = 0; x < columns; x++) {
+      conjugates[x] = new int[byLetter.get(x).size()][];
+      int k = 0;
+      for (List<Integer> w : byLetter.get(x)) {
+        conjugates[x][k] = new int[w.size()];
+        for (int i = 0; i < w.size(); i++)
+          conjugates[x][k][i] = w.get(i);
+        k++;
+      }
+    }
+  }
+
+  private static int[] inverseWord(int[] w) {
+    int[] inverse = new int[w.length];
+    for (int i = 0; i < w.length; i++)
+      inverse[i] = w[w.length-1-i] ^ 1;
+    return inverse;
+  }
+
+  /* Reads presentations and words, as described at the top, into words of columns. */
+  private static final class Parser {
+    private final String text;
+    private int pos;
+    private String[] names;
+    private int[][] relators;
+    private int[] word;
+
+    /* A whole presentation. */
+    private Parser(String text) {
+      this.text = text;
+      expect('<', '\u27e8');
+      ArrayList<String> gens = new ArrayList<String>();
+      skipSpace();
+      if (peek() != '|') {
+        gens.add(name());
+        while (accept(','))
+          gens.add(name());
+      }
+      expect('|', '|');
+      names = gens.toArray(new String[0]);
+      if (new HashSet<String>(gens).size() != gens.size())
+        throw error("a generator is listed twice");
+
+      ArrayList<int[]> rels = new ArrayList<int[]>();
+      skipSpace();
+      if (peek() != '>' && peek() != '\u27e9') {
+        do {
+          int[] r = relation();
+          if (r.length > 0)
+            rels.add(r);
+        } while (accept(','));
+      }
+      expect('>', '\u27e9');
+      skipSpace();
+      if (pos < text.length())
+        throw error("unexpected text after the presentation");
+      relators = rels.toArray(new int[0][]);
+    }
+
+    /* A single word in the given generators. */
+    private Parser(String[] names, String text) {
+      this.text = text;
+      this.names = names;
+      word = freeReduce(word());
+      skipSpace();
+      if (pos < text.length())
+        throw error("unexpected text after the word");
+    }
+
+    /* u or u = v, as the cyclically reduced relator u v^-1. */
+    private int[] relation() {
+      int[] u = word();
+      if (accept('='))
+        u = concat(u, inverseWord(word()));
+      u = freeReduce(u);
+      int start = 0, end = u.length;
+      while (end - start > 1 && u[start] == (u[end-1] ^ 1)) {
+        start++;
+        end--;
+      }
+      return Arrays.copyOfRange(u, start, end);
+    }
+
+    private int[] word() {
+      int[] w = new int[0];
+      while (true) {
+        skipSpace();
+        if (pos == text.length())
+          return w;
+        char c = text.charAt(pos);
+        if (c == '*')
+          pos++;
+        else if (c == '1' && !Character.isDigit(charAt(pos+1)))
+          pos++; // the identity
+        else if (Character.isLetter(c) || c == '(' || c == '[')
+          w = concat(w, factor());
+        else
+          return w;
+      }
+    }
+
+    private int[] factor() {
+      int[] atom;
+      if (accept('(')) {
+        atom = word();
+        expect(')', ')');
+      }
+      else if (accept('[')) {
+        int[] u = word();
+        expect(',', ',');
+        int[] v = word();
+        expect(']', ']');
+        atom = concat(concat(inverseWord(u), inverseWord(v)), concat(u, v));
+      }
+      else {
+        String name = name();
+        int g = Arrays.asList(names).indexOf(name);
+        if (g < 0)
+          throw error("\"" + name + "\" is not a generator");
+        atom = new int[] {2*g};
+      }
+      while (accept('^'))
+        atom = power(atom, integer());
+      return atom;
+    }
+
+    private static int[] power(int[] w, int k) {
+      int[] base = (k < 0) ? inverseWord(w) : w;
+      int[] p = new int[base.length * Math.abs(k)];
+      for (int i = 0; i < Math.abs(k); i++)
+        System.arraycopy(base, 0, p, i*base.length, base.length);
+      return p;
+    }
+
+    private String name() {
+      skipSpace();
+      int start = pos;
+      if (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+        pos++;
+        while (pos < text.length() && Character.isDigit(text.charAt(pos)))
+          pos++;
+      }
+      if (pos == start)
+        throw error("expected a generator");
+      return text.substring(start, pos);
+    }
+
+    private int integer() {
+      skipSpace();
+      int start = pos;
+      if (pos < text.length() && (text.charAt(pos) == '-' || text.charAt(pos) == '+'))
+        pos++;
+      while (pos < text.length() && Character.isDigit(text.charAt(pos)))
+        pos++;
+      try {
+        return Integer.parseInt(text.substring(start, pos));
+      }
+      catch (NumberFormatException e) {
+        pos = start;
+        throw error("expected a whole number");
+      }
+    }
+
+    private static int[] freeReduce(int[] w) {
+      int[] stack = new int[w.length];
+      int top = 0;
+      for (int x : w) {
+        if (top > 0 && stack[top-1] == (x ^ 1))
+          top--;
+        else
+          stack[top++] = x;
+      }
+      return Arrays.copyOf(stack, top);
+    }
+
+    private static int[] concat(int[] u, int[] v) {
+      int[] w = Arrays.copyOf(u, u.length + v.length);
+      System.arraycopy(v, 0, w, u.length, v.length);
+      return w;
+    }
+
+    private char charAt(int i) {
+      return (i < text.length()) ? text.charAt(i) : '\0';
+    }
+
+    private char peek() {
+      return charAt(pos);
+    }
+
+    private void skipSpace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+        pos++;
+    }
+
+    private boolean accept(char c) {
+      skipSpace();
+      if (peek() != c)
+        return false;
+      pos++;
+      return true;
+    }
+
+    private void expect(char c, char alternative) {
+      if (!accept(c) && !accept(alternative))
+        throw error("expected '" + c + "'");
+    }
+
+    private IllegalArgumentException error(String what) {
+      return new IllegalArgumentException("Can't read \"" + text + "\": " + what + " at position " + pos + ".");
+    }
+  }
+
+  public static void main(String[] args) {
+//    CosetEnumerator a5 = new CosetEnumerator("<x, y | x^2, y^3, (xy)^5>");
+//    System.out.println(a5.enumerate()); // 60
+//    System.out.println(new CosetEnumerator("<x, y | x^2, y^3, (xy)^5>", "y").enumerate()); // 20
+//    System.out.println(a5.toTableGroup().getGroupOrder()); // 60
+//    CosetEnumerator d10 = new CosetEnumerator("<a, b | a^5, b^2, (ab)^2>");
+//    d10.setStrategy(CosetEnumerator.Strategy.FELSCH);
+//    System.out.println(d10.enumerate() + " " + d10.getPermutationGenerators()); // 10 ...
+  }
+}
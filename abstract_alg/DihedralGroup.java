@@ -24,7 +24,7 @@ public class DihedralGroup extends Group {
   // LL<GroupElement> members, int dimension, Hashtable<Integer, LL<GroupElement>> membersByOrder, LL<int> allOrders
   // methods inherited from Group:
   // - equals, getIdentity, computeElementOrder, generateSubgroup, StoreElementsByOrder, getElementsByOrder,
-  //   orderedElementsToString, isNormal, getMembers, and protected helpers:
+  //   orderedElementsToString, isNormal, factorGroup, getMembers, and protected helpers:
   //     - findIndex, subgroupEquals, contains, isPrime, and two versions of addInOrder (overwritten here)
   
   private int order;
@@ -41,24 +41,40 @@ public class DihedralGroup extends Group {
    * to be the first rotation element.
    */
   public DihedralGroup(int n){
+    this(n, true);
+  }
+  
+  /** 
+   * A dihedral group whose members are only listed when something needs them (see
+   * Group.leaveMembersImplicit); until then the elements are made one at a time by
+   * elementIterator.
+   */
+  public static DihedralGroup implicit(int n) {
+    return new DihedralGroup(n, false);
+  }
+  
+  private DihedralGroup(int n, boolean listMembers) {
     super(n);
-    
     order = 2*n;
     identity = new Dihedral("rotation", 0.0);
+    if (!listMembers) {
+      leaveMembersImplicit();
+      return;
+    }
+    GroupEvents.Construction event = new GroupEvents.Construction();
+    long operatesBefore = beginEvent(event);
+    
     rotations = new Dihedral[n];
     for (int i = 0; i < n; i++) {
-      double degree = i*(FULL_ROTATION/(double)dimension);
-      rotations[i] = new Dihedral("rotation", degree);
-      rotations[i].setOrder(computeElementOrder(rotations[i]));
+      rotations[i] = element(i);
       members.add(rotations[i]);
     }
     reflections = new Dihedral[n];
     for (int i = 0; i < n; i++) {
-      double degree = i*(HALF_ROTATION/(double)dimension);
-      reflections[i] = new Dihedral("reflection", degree);
-      reflections[i].setOrder(computeElementOrder(reflections[i]));
+      reflections[i] = element(n+i);
       members.add(reflections[i]);
     }
+    commitEvent(event, operatesBefore);
   }
   
   /** 
@@ -72,10 +88,12 @@ public class DihedralGroup extends Group {
    * toString for DihedralGroup
    */
   public String toString() {
-    String s = "Dihedral Group ";
-    s += "(D_" + dimension + "): ";
-    for (int i = 0; i < 2*dimension; i++){
-      s +=members.get(i) + ", ";
+    StringBuilder s = new StringBuilder("Dihedral Group ");
+    s.append("(D_").append(dimension).append("): ");
+    if (isImplicit())
+      return s.append(order).append(" elements, not listed").toString();
+    for (GroupElement member : members){
+      s.append(member).append(", ");
     }
     return s.substring(0, s.length()-2);
   }
@@ -105,6 +123,8 @@ public class DihedralGroup extends Group {
                          "Please enter two dihedral elements in order to operate.");
       return new Dihedral ("rotation", -1);
     }
+    countOperate();
+    countAllocated(1);
     Dihedral elt1 = (Dihedral)element1;
     Dihedral elt2 = (Dihedral)element2;
     
@@ -147,10 +167,71 @@ public class DihedralGroup extends Group {
     if (elt.isReflection()) return elt; //reflection case
     else { //rotation case
       double rotateToIdentity = mod((FULL_ROTATION - elt.getDegree()), FULL_ROTATION);
+      countAllocated(1);
       return new Dihedral("rotation", rotateToIdentity);
     }
   }
   
+  /* Dihedral elements are hashed by which rotation or reflection they are: rotation k
+   * (through k*360/n degrees) gets the key k, and reflection k (over the axis at
+   * k*180/n degrees) gets n+k.  Rounding to the nearest k soaks up the roundoff
+   * that the degrees pick up along the way (see the note at the top). */
+  protected Object hashKey(GroupElement element) {
+    Dihedral d = (Dihedral)element;
+    if (d.isRotation())
+      return (int)mod(Math.round(d.getDegree()*dimension/FULL_ROTATION), dimension);
+    else
+      return dimension + (int)mod(Math.round(d.getDegree()*dimension/HALF_ROTATION), dimension);
+  }
+  
+  /** 
+   * The rotation by 360/n degrees and the reflection over the 0 degree axis, which
+   * generate the group; for an implicit group that saves listing the members to find
+   * out.
+   */
+  public LinkedList<GroupElement> getGenerators() {
+    if (!isImplicit())
+      return super.getGenerators();
+    LinkedList<GroupElement> gens = new LinkedList<GroupElement>();
+    if (dimension > 1)
+      gens.add(element(1));
+    gens.add(element(dimension));
+    return gens;
+  }
+  
+  /** 
+   * For an implicit group, the rotations and then the reflections, in the same order
+   * as the members list, each made as it is reached.
+   */
+  public Iterator<GroupElement> elementIterator() {
+    if (!isImplicit())
+      return super.elementIterator();
+    return new Iterator<GroupElement>() {
+      private int next = 0;
+      
+      public boolean hasNext() {
+        return next < order;
+      }
+      
+      public GroupElement next() {
+        if (next >= order)
+          throw new NoSuchElementException();
+        return element(next++);
+      }
+    };
+  }
+  
+  /** 
+   * Element i of the members list, with its order: rotation i (through i*360/n
+   * degrees) for i < n, and reflection i-n (over the axis at (i-n)*180/n degrees) after.
+   */
+  private Dihedral element(int i) {
+    Dihedral d = (i < dimension) ? new Dihedral("rotation", i*(FULL_ROTATION/(double)dimension))
+                                 : new Dihedral("reflection", (i-dimension)*(HALF_ROTATION/(double)dimension));
+    d.setOrder(computeElementOrder(d));
+    return d;
+  }
+  
   /** 
    * Private helper method to compute amodb.
    */
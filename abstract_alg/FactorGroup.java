@@ -12,7 +12,7 @@ public class FactorGroup extends Group {
   // LL<GroupElement> members, int dimension, Hashtable<Integer, LL<GroupElement>> membersByOrder, LL<int> allOrders
   // methods inherited from Group:
   // - equals, getIdentity, computeElementOrder, generateSubgroup, StoreElementsByOrder, getElementsByOrder,
-  //   orderedElementsToString, isNormal, getMembers, and protected helpers:
+  //   orderedElementsToString, isNormal, factorGroup, getMembers, and protected helpers:
   //     - findIndex, subgroupEquals, contains, isPrime, and two versions of addInOrder
   
   private Group context;
@@ -26,6 +26,8 @@ public class FactorGroup extends Group {
    * divided by the number of elements in the factoring subgroup. */
   public FactorGroup(Group group, LinkedList<GroupElement> subgroup) {
     super(group.getGroupOrder()/subgroup.size());
+    GroupMetrics m = group.metrics; // construction is timed against the context group
+    long start = (m == null) ? 0 : System.nanoTime();
     
     context = group;
     this.subgroup = subgroup;
@@ -33,27 +35,65 @@ public class FactorGroup extends Group {
     identity = new Coset(context, subgroup, subgroup.get(0));
     
     modOut();
+    
+    if (m != null) {
+      m.factorGroupConstructions.increment();
+      m.factorGroupNanos.add(System.nanoTime() - start);
+    }
   }
     
     /* Generates the members of the factor group by finding all cosets
-     * of the "identity" subgroup in the original context group. */
+     * of the "identity" subgroup in the original context group.  The elements already
+     * in some coset are marked off by their position in the context group (see
+     * Group.indexOf), so each element costs one lookup instead of a search through
+     * the cosets so far. */
   private void modOut() {
+    // this is where all the work of building a factor group happens, and the operate
+    // calls that matter are the context group's, so the event is filed under it:
+    GroupEvents.CosetEnumeration event = new GroupEvents.CosetEnumeration();
+    long operatesBefore = context.beginEvent(event);
     members.add(identity);
+    BitSet covered = new BitSet(fullgroup.size());
+    cover(covered, (Coset)identity);
     
-    for (int i = 1; i < fullgroup.size(); i++) {
-      Coset nextPotential = new Coset(context, subgroup, fullgroup.get(i));
-      if (contains(members, nextPotential))
+    int i = 0;
+    for (GroupElement e : fullgroup) {
+      context.checkpoint(i++, fullgroup.size());
+      int index = context.indexOf(e);
+      if (index >= 0 && covered.get(index))
+        continue;
+      Coset nextPotential = new Coset(context, subgroup, e);
+      if (index < 0 && contains(members, nextPotential)) // (an element indexOf can't place: compare the cosets)
         continue;
-      else
-        members.add(nextPotential);
+      members.add(nextPotential);
+      cover(covered, nextPotential);
     }
+    event.subgroupSize = subgroup.size();
+    context.commitEvent(event, operatesBefore);
   }
   
   public int getGroupOrder() {
     return dimension;
   }
   
+  /* Marks off the positions in the context group of the coset's elements. */
+  private void cover(BitSet covered, Coset coset) {
+    Iterator<GroupElement> it = coset.iterator();
+    while (it.hasNext()) {
+      int index = context.indexOf(it.next());
+      if (index >= 0)
+        covered.set(index);
+    }
+  }
+  
+  /* Every coset carries its own list of |subgroup| elements of the context group. */
+  protected long estimateElementBytes() {
+    return 64 + context.estimateListBytes(subgroup.size());
+  }
+  
   public GroupElement operate(GroupElement e1, GroupElement e2) {
+    countOperate();
+    countAllocated(1);
     Coset coset1 = (Coset)e1;
     Coset coset2 = (Coset)e2;
     
@@ -69,18 +109,44 @@ public class FactorGroup extends Group {
     
     GroupElement pr = c.getPrimaryRep();
     GroupElement prInverse = context.getInverse(pr);
+    countAllocated(1);
     
     return (new Coset(context, subgroup, prInverse));
   }
   
   public String toString() {
-    String s = "The factor group of " + subgroup.toString() + " in "
-      + context.groupName() +" contains:";
+    StringBuilder s = new StringBuilder("The factor group of " + subgroup.toString() + " in "
+      + context.groupName() +" contains:");
     
-    for (int i = 0; i < members.size(); i++)
-      s+="\n"+members.get(i).toString();
+    for (GroupElement member : members)
+      s.append('\n').append(member.toString());
     
-    return s;
+    return s.toString();
+  }
+  
+  /* A coset is hashed by the smallest position, in the context group's members list,
+   * of any of its elements - the same whichever representative it was built from. */
+  protected Object hashKey(GroupElement e) {
+    Iterator<GroupElement> it = ((Coset)e).iterator();
+    int smallest = Integer.MAX_VALUE;
+    
+    while (it.hasNext()) {
+      int index = context.indexOf(it.next());
+      if (index >= 0 && index < smallest)
+        smallest = index;
+    }
+    
+    return smallest;
+  }
+  
+  /* Returns the group that was factored. */
+  public Group getContextGroup() {
+    return context;
+  }
+  
+  /* Returns (a copy of) the subgroup that was factored out. */
+  public LinkedList<GroupElement> getSubgroup() {
+    return new LinkedList<GroupElement>(subgroup);
   }
   
   public String groupName() {
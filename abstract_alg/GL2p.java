@@ -0,0 +1,345 @@
+package abstract_alg;
+/* NAME: GL2p.java
+ * DATE: October 2026
+ * COMMENTS: The general linear group GL(2, p): the invertible 2x2 matrices over the
+ * integers mod a prime p, under matrix multiplication (SL2p is its subgroup of matrices
+ * of determinant 1).  It has (p^2 - 1)(p^2 - p) elements - 480 for p = 5, but about 10^12
+ * for p = 1000 - so nothing here lists them unless asked to:
+ *  - an element is a Matrix2x2, whose entries are packed into one long, and the
+ *    arithmetic works on the packed values with plain long multiplication and remainders
+ *    (products of entries are below 2^32), with inverses mod p looked up in a table made
+ *    once; multiply, inverse and power allocate nothing, and operate only the wrapper;
+ *  - the order of an element comes from its characteristic polynomial t^2 - tr t + det:
+ *    a matrix whose eigenvalues lie in Z_p (a nonzero square discriminant) has order
+ *    dividing p - 1; one with a repeated eigenvalue that isn't a scalar matrix, dividing
+ *    p(p - 1); and one whose eigenvalues lie only in the field of p^2 elements, dividing
+ *    p^2 - 1.  The order is then found by dividing the primes out of that bound, as in
+ *    Group.computeElementOrder, at O(log p) products a prime - instead of multiplying up
+ *    to an order that can be nearly a million;
+ *  - elementIterator produces the elements one at a time: a nonzero first row (a, b),
+ *    then the second rows giving each determinant, which lie on a line
+ *    (c, d) = det (c0, d0) + t (a, b) for one fixed (c0, d0) with a d0 - b c0 = 1;
+ *  - the generators are known in advance (see getGenerators);
+ *  - the members list, which most of the generic Group algorithms work from, is only
+ *    filled in the first time one of them asks for it (see Group.leaveMembersImplicit),
+ *    and then only if there are no more than LIST_LIMIT elements.
+ * p can be any prime below 2^16, though above 46337 an element's order can be more than an
+ * int holds (see order(long)). */
+
+import java.math.BigInteger;
+import java.util.*;
+
+public class GL2p extends Group {
+  public static final int MAX_PRIME = 65521; // the largest prime below 2^16
+  public static final long LIST_LIMIT = 1 << 20;
+  private static final long IDENTITY = Matrix2x2.pack(1, 0, 0, 1);
+  private final String NOT_A_MATRIX_ERROR = "ERROR: Please input only Matrix2x2s to methods in GL2p and SL2p.";
+
+  protected final int p;
+  private final boolean special; // only determinant 1, i.e. SL(2, p)
+  private final int[] inverses; // inverses[x] = 1/x mod p, for x = 1, ..., p-1
+  private final long[] splitPrimes, unipotentPrimes, irreduciblePrimes; // the primes dividing p-1, p(p-1), p^2-1
+
+  public GL2p(int p) {
+    this(p, false);
+  }
+
+  /* GL(2, p), or SL(2, p) if special (see SL2p). */
+  GL2p(int p, boolean special) {
+    super(p);
+    if (p < 2 || p > MAX_PRIME || !isPrimeNumber(p))
+      throw new IllegalArgumentException(p + " is not a prime below 2^16.");
+    this.p = p;
+    this.special = special;
+    inverses = new int[p];
+    inverses[1] = 1;
+    for (int x = 2; x < p; x++)
+      inverses[x] = (int)(p - (long)(p/x) * inverses[p%x] % p);
+
+    splitPrimes = primeFactors(p-1, new long[0]);
+    unipotentPrimes = primeFactors(p, splitPrimes);
+    irreduciblePrimes = primeFactors(p+1, splitPrimes);
+    identity = new Matrix2x2(IDENTITY);
+    leaveMembersImplicit();
+    setListingBudget(estimateListBytes(LIST_LIMIT));
+  }
+
+  /* The number of elements, which for p > 215 doesn't fit in an int, and for GL(2, p)
+   * with p > 55108 doesn't fit in a long either (an ArithmeticException; see
+   * getExactGroupOrder). */
+  public long getLongGroupOrder() {
+    long q = p;
+    return special ? q*(q*q - 1) : Math.multiplyExact(q*q - 1, q*q - q);
+  }
+
+  public BigInteger getExactGroupOrder() {
+    BigInteger q = BigInteger.valueOf(p), q2 = q.multiply(q);
+    return special ? q.multiply(q2.subtract(BigInteger.ONE)) : q2.subtract(BigInteger.ONE).multiply(q2.subtract(q));
+  }
+
+  /* The number of elements, or -1 if there are more than an int can hold (see
+   * getLongGroupOrder). */
+  public int getGroupOrder() {
+    BigInteger order = getExactGroupOrder();
+    return (order.bitLength() < 32) ? order.intValue() : -1;
+  }
+
+  public int getPrime() {
+    return p;
+  }
+
+  /* Multiplies two matrices. */
+  public GroupElement operate(GroupElement e1, GroupElement e2) {
+    if (!isMatrix(e1, e2)) {
+      System.out.println(NOT_A_MATRIX_ERROR);
+      return null;
+    }
+
+    countOperate();
+    countAllocated(1);
+    return new Matrix2x2(multiply(((Matrix2x2)e1).packedValue(), ((Matrix2x2)e2).packedValue()));
+  }
+
+  /* The inverse of [[a, b], [c, d]] is [[d, -b], [-c, a]] divided by the determinant. */
+  public GroupElement getInverse(GroupElement e) {
+    if (!isMatrix(e)) {
+      System.out.println(NOT_A_MATRIX_ERROR);
+      return null;
+    }
+
+    countAllocated(1);
+    return new Matrix2x2(inverse(((Matrix2x2)e).packedValue()));
+  }
+
+  public GroupElement power(GroupElement e, long k) {
+    if (!isMatrix(e)) {
+      System.out.println(NOT_A_MATRIX_ERROR);
+      return null;
+    }
+
+    countAllocated(1);
+    return new Matrix2x2(power(((Matrix2x2)e).packedValue(), k));
+  }
+
+  /* The order of a matrix, from its characteristic polynomial (see order(long)).
+   * Throws an ArithmeticException if it is more than an int holds. */
+  public int computeElementOrder(GroupElement e) {
+    if (!isMatrix(e)) {
+      System.out.println(NOT_A_MATRIX_ERROR);
+      return -1;
+    }
+
+    countElementOrder();
+    return Math.toIntExact(order(((Matrix2x2)e).packedValue()));
+  }
+
+  /* The product xy of two packed matrices. */
+  public long multiply(long x, long y) {
+    long a = x & 0xffff, b = (x >>> 16) & 0xffff, c = (x >>> 32) & 0xffff, d = x >>> 48;
+    long e = y & 0xffff, f = (y >>> 16) & 0xffff, g = (y >>> 32) & 0xffff, h = y >>> 48;
+    return Matrix2x2.pack((a*e + b*g) % p, (a*f + b*h) % p, (c*e + d*g) % p, (c*f + d*h) % p);
+  }
+
+  public long inverse(long x) {
+    long a = x & 0xffff, b = (x >>> 16) & 0xffff, c = (x >>> 32) & 0xffff, d = x >>> 48;
+    long scale = inverses[(int)det(x)];
+    return Matrix2x2.pack(d*scale % p, (p-b)*scale % p, (p-c)*scale % p, a*scale % p);
+  }
+
+  /* x^k (k may be negative), by repeated squaring. */
+  public long power(long x, long k) {
+    long base = (k < 0) ? inverse(x) : x;
+    k = Math.abs(k);
+    long result = IDENTITY;
+    while (k > 0) {
+      if ((k & 1) == 1)
+        result = multiply(result, base);
+      k >>= 1;
+      if (k > 0)
+        base = multiply(base, base);
+    }
+    return result;
+  }
+
+  public long det(long x) {
+    long a = x & 0xffff, b = (x >>> 16) & 0xffff, c = (x >>> 32) & 0xffff, d = x >>> 48;
+    return ((a*d - b*c) % p + p) % p;
+  }
+
+  public long trace(long x) {
+    return ((x & 0xffff) + (x >>> 48)) % p;
+  }
+
+  /* The order of a packed matrix: the characteristic polynomial says which of p - 1,
+   * p(p - 1) and p^2 - 1 it divides, and the primes are divided out of that. */
+  public long order(long x) {
+    long tr = trace(x), discriminant = ((tr*tr - 4*det(x)) % p + p) % p;
+    long bound;
+    long[] primes;
+    if (((x >>> 16) & 0xffffffffL) == 0 && (x & 0xffff) == (x >>> 48)) {
+      bound = p-1; // a scalar matrix: the order of the scalar
+      primes = splitPrimes;
+    }
+    else if (discriminant == 0) {
+      bound = (long)p*(p-1); // lambda(I + N) with N != 0 but N^2 = 0, so (I + N)^p = I
+      primes = unipotentPrimes;
+    }
+    else if (p != 2 && modPow(discriminant, (p-1)/2) == 1) {
+      bound = p-1; // diagonalizable over Z_p
+      primes = splitPrimes;
+    }
+    else {
+      bound = (long)p*p - 1; // eigenvalues conjugate in the field of p^2 elements
+      primes = irreduciblePrimes;
+    }
+
+    for (long q : primes) {
+      while (bound % q == 0 && power(x, bound/q) == IDENTITY)
+        bound /= q;
+    }
+    return bound;
+  }
+
+  /* Whether a packed value is an element of this group: entries below p, and an
+   * invertible (or, for SL(2, p), determinant 1) matrix. */
+  public boolean isElement(long x) {
+    for (int k = 0; k < 4; k++) {
+      if (Matrix2x2.entry(x, k) >= p)
+        return false;
+    }
+    return special ? det(x) == 1 : det(x) != 0;
+  }
+
+  /* [[1, 1], [0, 1]] and [[1, 0], [1, 1]], which generate SL(2, p), and for GL(2, p)
+   * also diag(w, 1) for a primitive root w mod p, which takes the determinant
+   * everywhere. */
+  public LinkedList<GroupElement> getGenerators() {
+    LinkedList<GroupElement> gens = new LinkedList<GroupElement>();
+    gens.add(new Matrix2x2(1, 1, 0, 1));
+    gens.add(new Matrix2x2(1, 0, 1, 1));
+    if (!special && p > 2)
+      gens.add(new Matrix2x2(primitiveRoot(), 0, 0, 1));
+    return gens;
+  }
+
+  /* The elements one at a time, without ever holding more than one of them: the n-th
+   * is worked out from n alone. */
+  public Iterator<GroupElement> elementIterator() {
+    return new Iterator<GroupElement>() {
+      private long next = 0;
+      private final long order = getExactGroupOrder().min(BigInteger.valueOf(Long.MAX_VALUE)).longValue(); // (enough for anyone to iterate)
+
+      public boolean hasNext() {
+        return next < order;
+      }
+
+      public GroupElement next() {
+        if (next >= order)
+          throw new NoSuchElementException();
+        return new Matrix2x2(element(next++));
+      }
+    };
+  }
+
+  public String toString() {
+    return groupName() + ", the " + (special ? "2x2 matrices of determinant 1" : "invertible 2x2 matrices")
+      + " over Z" + p + ", has " + getExactGroupOrder() + " elements.";
+  }
+
+  public String groupName() {
+    return (special ? "SL" : "GL") + "(2, " + p + ")";
+  }
+
+  /* Matrices are hashed by their packed value. */
+  protected Object hashKey(GroupElement e) {
+    return Long.valueOf(((Matrix2x2)e).packedValue());
+  }
+
+  /* A Matrix2x2 is one long. */
+  protected long estimateElementBytes() {
+    return 24;
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* The n-th element, for 0 <= n < order: first row number n / (deltas p) + 1 (rows
+   * taken as a + b p), then determinant and t from the remainder. */
+  private long element(long n) {
+    long deltas = special ? 1 : p-1;
+    long row = n / (deltas*p) + 1, rest = n % (deltas*p);
+    long delta = rest / p + 1, t = rest % p;
+    long a = row % p, b = row / p;
+    long c0 = (a != 0) ? 0 : p - inverses[(int)b];
+    long d0 = (a != 0) ? inverses[(int)a] : 0;
+    return Matrix2x2.pack(a, b, (delta*c0 + t*a) % p, (delta*d0 + t*b) % p);
+  }
+
+  private long modPow(long base, long exponent) {
+    long result = 1;
+    base %= p;
+    while (exponent > 0) {
+      if ((exponent & 1) == 1)
+        result = result * base % p;
+      base = base * base % p;
+      exponent >>= 1;
+    }
+    return result;
+  }
+
+  /* The smallest w whose powers are every nonzero residue mod p. */
+  private int primitiveRoot() {
+    for (int w = 2; ; w++) {
+      boolean primitive = true;
+      for (long q : splitPrimes)
+        primitive &= modPow(w, (p-1)/q) != 1;
+      if (primitive)
+        return w;
+    }
+  }
+
+  private boolean isMatrix(GroupElement ... args) {
+    for (GroupElement e : args) {
+      if (!(e instanceof Matrix2x2))
+        return false;
+    }
+    return true;
+  }
+
+  /* The distinct primes dividing n, together with those already in known. */
+  private static long[] primeFactors(long n, long[] known) {
+    TreeSet<Long> primes = new TreeSet<Long>();
+    for (long q : known)
+      primes.add(q);
+    for (long q = 2; q*q <= n; q++) {
+      if (n % q == 0) {
+        primes.add(q);
+        while (n % q == 0)
+          n /= q;
+      }
+    }
+    if (n > 1)
+      primes.add(n);
+    long[] all = new long[primes.size()];
+    int i = 0;
+    for (long q : primes)
+      all[i++] = q;
+    return all;
+  }
+
+  private static boolean isPrimeNumber(int n) {
+    for (int q = 2; q*q <= n; q++) {
+      if (n % q == 0)
+        return false;
+    }
+    return n >= 2;
+  }
+
+  public static void main(String[] args) {
+//    GL2p gl = new GL2p(5);
+//    System.out.println(gl); // 480 elements
+//    System.out.println(gl.computeElementOrder(new Matrix2x2(0, 1, 1, 1))); // 20: the eigenvalue 3 twice, and 3 has order 4
+//    System.out.println(new GL2p(997).getLongGroupOrder()); // 987061872096
+  }
+}
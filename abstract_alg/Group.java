@@ -13,7 +13,11 @@ package abstract_alg;
  * MODIFIED: June 2, 2014 by Emma Bahlke.
  * */
 
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class Group {
   protected GroupElement identity;
@@ -22,15 +26,39 @@ public abstract class Group {
   protected LinkedList<GroupElement> members;
   protected Hashtable<Integer, LinkedList<GroupElement>> membersByOrder;
   protected LinkedList<Integer> allOrders; // for all possible *element* orders
+  private ResultCache resultCache; // remembers subgroups, normality checks and factor groups
+  protected GroupMetrics metrics; // null unless instrumentation has been switched on (see enableMetrics)
+  private volatile LongAdder operateTally; // operate calls while a flight recorder event is open; otherwise null
+  private int openEvents; // flight recorder events begun and not yet committed, guarded by eventLock
+  private final Object eventLock = new Object();
+  // built on first use, and volatile so that another thread sees them only once they're complete:
+  private volatile long[] orderPrimes; // the distinct prime factors of getGroupOrder()
+  private volatile HashMap<Object, Integer> memberIndices; // hashKey -> position in members
+  private volatile LinkedList<GroupElement> generators; // a generating set
+  private volatile boolean implicit; // the members haven't been listed yet (see leaveMembersImplicit)
+  private long listingBudget = Long.MAX_VALUE; // the most memory listing them may take, in bytes
   
   public Group(int n) {
    dimension = n;
    members = new LinkedList<GroupElement>();
+   resultCache = new ResultCache();
   }
   
   /* This will return the number of elements in the group. */
   public abstract int getGroupOrder();
   
+  /* The number of elements, for groups with more than an int can hold; those overwrite
+   * this, and throw an ArithmeticException if it is more than a long can hold too. */
+  public long getLongGroupOrder() {
+    return getGroupOrder();
+  }
+  
+  /* The number of elements, however many there are.  Groups whose order can outgrow a
+   * long overwrite this. */
+  public BigInteger getExactGroupOrder() {
+    return BigInteger.valueOf(getLongGroupOrder());
+  }
+  
   /* Returns the identity. */
   public GroupElement getIdentity() {
     return identity;
@@ -45,17 +73,51 @@ public abstract class Group {
   public abstract GroupElement getInverse(GroupElement e);
   
   /* Computes the order of an element, i.e. how many times we need
-   * to operate the element with itself before returning the identity. */
+   * to operate the element with itself before returning the identity.
+   * Rather than counting up to it, we use the fact that the order of e divides
+   * the number of elements in the group: starting from |G|, we divide out each
+   * prime factor p for as long as e^(order/p) is still the identity.  Since
+   * power() works by repeated squaring, that takes O(log^2 |G|) operations
+   * instead of one per step up to the order. */
   public int computeElementOrder(GroupElement e) {
-    int order = 1;
-    GroupElement soFar = e;
+    countElementOrder();
+    long order = getGroupOrder();
+    if (order <= 0 || !equals(power(e, order), identity))
+      // the group doesn't know its own size, or e isn't really one of its
+      // elements - all we can do is count:
+      return countUpToIdentity(e);
     
-    while (!equals(identity, soFar)) {
-      soFar = operate(soFar, e);
-      order++;
+    long[] primes = groupOrderPrimes();
+    for (int i = 0; i < primes.length; i++) {
+      while (order % primes[i] == 0 && equals(power(e, order/primes[i]), identity))
+        order /= primes[i];
     }
     
-    return order;
+    return (int)order;
+  }
+  
+  /* Computes e^k, i.e. e operated with itself k times (k may be zero, which gives
+   * the identity, or negative, which gives powers of the inverse).  Works by repeated
+   * squaring, so only O(log k) operations are needed.  Groups that can do better,
+   * such as Z mod N or the permutation groups, overwrite this. */
+  public GroupElement power(GroupElement e, long k) {
+    if (k < 0) {
+      e = getInverse(e);
+      k = -k;
+    }
+    
+    GroupElement result = identity;
+    GroupElement square = e; // e^(2^i) on the i-th step
+    
+    while (k > 0) {
+      if ((k & 1) == 1)
+        result = operate(result, square);
+      k >>= 1;
+      if (k > 0)
+        square = operate(square, square);
+    }
+    
+    return result;
   }
   
   /* Determines whether or not two group elements are equal.
@@ -63,20 +125,40 @@ public abstract class Group {
    * because by nature they require information about the dimension
    * of the group to determine equality of two GroupElements. */
   public boolean equals(GroupElement one, GroupElement two) {
+    countEquals();
     return (one.equals(two));
   }
   
-  /* Returns the cyclic subgroup generated by the element e. */
+  /* Returns the cyclic subgroup generated by the element e.  The result is
+   * cached, so asking for the same subgroup twice only computes it once; callers
+   * always get their own copy of the list. */
   public LinkedList<GroupElement> generateSubgroup(GroupElement e) {
+    ResultCache cache = resultCache;
+    ResultCache.Key key = (cache == null) ? null : elementKey("cyclic", e);
+    if (key != null) {
+      @SuppressWarnings("unchecked") // (only generateSubgroup stores under a "cyclic" key)
+      LinkedList<GroupElement> cached = (LinkedList<GroupElement>)cache.get(key);
+      if (cached != null)
+        return new LinkedList<GroupElement>(cached);
+    }
+    
+    GroupEvents.SubgroupGeneration event = new GroupEvents.SubgroupGeneration();
+    long operatesBefore = beginEvent(event);
     LinkedList<GroupElement> subgroup = new LinkedList<GroupElement>();
     subgroup.add(e);
     GroupElement soFar = e;
     
-    while (!equals(soFar, identity)) {
+    // knowing the order up front saves us checking for the identity on every step:
+    int order = computeElementOrder(e);
+    for (int k = 2; k <= order; k++) {
       soFar = operate(soFar, e);
       addInOrder(subgroup, soFar);
     }
+    event.subgroupSize = subgroup.size();
+    commitEvent(event, operatesBefore);
     
+    if (key != null)
+      cache.put(key, new LinkedList<GroupElement>(subgroup), estimateListBytes(subgroup.size()));
     return subgroup;
   }
   
@@ -91,23 +173,35 @@ public abstract class Group {
    * possible element order corresponds to a LinkedList of elements
    * having that order. */
   public void storeElementsByOrder() {
-    membersByOrder = new Hashtable<Integer, LinkedList<GroupElement>>();
-    allOrders = new LinkedList<Integer>();
-    LinkedList<GroupElement> membersCopy = getMembers();
+    GroupMetrics m = metrics;
+    long start = (m == null) ? 0 : System.nanoTime();
+    GroupEvents.ElementClassification event = new GroupEvents.ElementClassification();
+    long operatesBefore = beginEvent(event);
+    Hashtable<Integer, LinkedList<GroupElement>> byOrder = new Hashtable<Integer, LinkedList<GroupElement>>();
+    LinkedList<GroupElement> membersCopy = getMembers(); // (which lists the members of an implicit group)
     // ^ need the copy since we'll be removing elements from the members list
     
     for (int i = 0; i < members.size(); i++) {
+    	checkpoint(i, members.size());
     	int orderToConsider = computeElementOrder(membersCopy.get(i));
-    	if (membersByOrder.containsKey(orderToConsider))
-    		addInOrder(membersByOrder.get(orderToConsider), membersCopy.get(i));
+    	if (byOrder.containsKey(orderToConsider))
+    		addInOrder(byOrder.get(orderToConsider), membersCopy.get(i));
     	else {
     		LinkedList<GroupElement> newOrderGroup = new LinkedList<GroupElement>();
     		newOrderGroup.add(membersCopy.get(i));
-    		membersByOrder.put(orderToConsider, newOrderGroup);
+    		byOrder.put(orderToConsider, newOrderGroup);
     	}
     }
     
-    allOrders.addAll(membersByOrder.keySet());
+    // (filled in only now, so that a cancelled sort leaves the old ones in place:)
+    membersByOrder = byOrder;
+    allOrders = new LinkedList<Integer>(byOrder.keySet());
+    commitEvent(event, operatesBefore);
+    
+    if (m != null) {
+      m.storeElementsByOrderCalls.increment();
+      m.storeElementsByOrderNanos.add(System.nanoTime() - start);
+    }
   }
   
   /* Returns the elements as sorted by order: */
@@ -117,15 +211,15 @@ public abstract class Group {
   
   /* Returns a neat toString representation of the membersByOrder hashtable: */
   public String orderedElementsToString() {
-    String s = "This group has: ";
+    StringBuilder s = new StringBuilder("This group has: ");
     
-    for (int i = 0; i < allOrders.size(); i++) {
-      LinkedList<GroupElement> current = membersByOrder.get(allOrders.get(i));
-      s+="\n"+current.size()+((current.size() == 1) ? " element of order " : " elements of order ")+allOrders.get(i)+": "+
-        current.toString();
+    for (Integer order : allOrders) {
+      LinkedList<GroupElement> current = membersByOrder.get(order);
+      s.append('\n').append(current.size()).append((current.size() == 1) ? " element of order " : " elements of order ")
+        .append(order).append(": ").append(current.toString());
     }
     
-    return s;
+    return s.toString();
   }
   
   /* Checks for the normality of a subgroup. The general process is outlined as
@@ -133,11 +227,27 @@ public abstract class Group {
    * and then multiplying it on the RIGHT by every member of the subgroup (producing the
    * right coset) and on the LEFT (producing the left coset), and finally check for
    * equality of these cosets. If the left and right cosets are equal for every member
-   * of the group, then the subgroup is normal. */
+   * of the group, then the subgroup is normal.  The left coset is held as a set of hash
+   * keys (see hashKey), so the comparison takes |H| lookups rather than |H|^2 equals
+   * calls, and the whole check |G||H| products.  Answers are cached by subgroup. */
   public boolean isNormal(LinkedList<GroupElement> subgroup) {
-    LinkedList<GroupElement> leftCoset = new LinkedList<GroupElement>();
-    LinkedList<GroupElement> rightCoset = new LinkedList<GroupElement>();
+    ResultCache cache = resultCache;
+    ResultCache.Key key = (cache == null) ? null : subgroupKey("normal", subgroup);
+    if (key != null) {
+      Boolean cached = (Boolean)cache.get(key);
+      if (cached != null)
+        return cached;
+    }
+    
+    GroupMetrics m = metrics;
+    long start = (m == null) ? 0 : System.nanoTime();
+    GroupEvents.NormalityCheck event = new GroupEvents.NormalityCheck();
+    long operatesBefore = beginEvent(event);
+    listMembers();
+    HashSet<Object> leftCoset = new HashSet<Object>(2*subgroup.size());
     boolean val = true;
+    Iterator<GroupElement> it = members.iterator();
+    it.next();
     int iteration = 1;
     // ^ start at 1 because 1st (0th) element of members is always the identity
     // (which by default produces equal left & right cosets)
@@ -145,30 +255,270 @@ public abstract class Group {
     // note that we don't want to do extra work, so the second
     // we find even one unequal left and right coset, we stop our
     // calculations and return false (hence "while val")
-    while (val && (iteration < members.size())) {
-      for (int j = 0; j < subgroup.size(); j++) {
-        leftCoset.add(operate(members.get(iteration), subgroup.get(j)));
-        rightCoset.add(operate(subgroup.get(j), members.get(iteration)));
+    while (val && it.hasNext()) {
+      checkpoint(iteration++, members.size());
+      GroupElement g = it.next();
+      leftCoset.clear();
+      for (GroupElement h : subgroup)
+        leftCoset.add(hashKey(operate(g, h)));
+      for (GroupElement h : subgroup) {
+        if (!leftCoset.contains(hashKey(operate(h, g)))) { // (both cosets have |H| elements, so one inclusion will do)
+          val = false;
+          break;
+        }
       }
-      val = subgroupEquals(leftCoset, rightCoset);
-      iteration++;
     }
     
+    event.subgroupSize = subgroup.size();
+    event.normal = val;
+    commitEvent(event, operatesBefore);
+    if (m != null) {
+      m.isNormalCalls.increment();
+      m.isNormalNanos.add(System.nanoTime() - start);
+    }
+    if (key != null)
+      cache.put(key, val, 16);
     return val;
   }
   
+  /* Records in the cache that the subgroup is normal, for when that is already known
+   * some other way (e.g. because it is the kernel of a homomorphism). */
+  void rememberNormal(LinkedList<GroupElement> subgroup) {
+    ResultCache cache = resultCache;
+    ResultCache.Key key = (cache == null) ? null : subgroupKey("normal", subgroup);
+    if (key != null)
+      cache.put(key, true, 16);
+  }
+  
+  /* Returns the factor group of this group by the given (normal) subgroup.  Building a
+   * FactorGroup means generating every coset, so the result is cached and asking for
+   * the same quotient again returns the same FactorGroup object. */
+  public FactorGroup factorGroup(LinkedList<GroupElement> subgroup) {
+    ResultCache cache = resultCache;
+    ResultCache.Key key = (cache == null) ? null : subgroupKey("quotient", subgroup);
+    if (key != null) {
+      FactorGroup cached = (FactorGroup)cache.get(key);
+      if (cached != null)
+        return cached;
+    }
+    
+    FactorGroup quotient = new FactorGroup(this, subgroup);
+    if (key != null)
+      // each coset holds |subgroup| elements, so the cosets together hold a copy of the whole group:
+      cache.put(key, quotient, estimateListBytes(getGroupOrder()) + estimateListBytes(quotient.getGroupOrder()));
+    return quotient;
+  }
+  
+  /* Returns an isomorphism from this group to the other one, or null if they aren't
+   * isomorphic.  Cheap invariants (orders, and the numbers of elements of each element
+   * order and conjugacy class size) are compared first; see GroupIsomorphism. */
+  public GroupIsomorphism findIsomorphism(Group other) {
+    return GroupIsomorphism.find(this, other);
+  }
+  
+  public boolean isIsomorphicTo(Group other) {
+    return findIsomorphism(other) != null;
+  }
+  
+  /* True if every two elements commute - which it's enough to check for the generators. */
+  public boolean isAbelian() {
+    LinkedList<GroupElement> gens = getGenerators();
+    for (GroupElement a : gens) {
+      for (GroupElement b : gens) {
+        if (!equals(operate(a, b), operate(b, a)))
+          return false;
+      }
+    }
+    return true;
+  }
+  
+  /* The commutator subgroup [G, G], generated by all the commutators a^-1 b^-1 a b: the
+   * smallest normal subgroup with an abelian quotient.  It is found as the normal closure
+   * of the commutators of the generators alone (see Commutators). */
+  public LinkedList<GroupElement> commutatorSubgroup() {
+    Commutators c = new Commutators(this);
+    return c.list(c.commutator(c.whole(), c.whole()));
+  }
+  
+  /* G / [G, G], the largest abelian quotient of G. */
+  public FactorGroup abelianization() {
+    LinkedList<GroupElement> derived = commutatorSubgroup();
+    rememberNormal(derived);
+    return factorGroup(derived);
+  }
+  
+  /* The derived series G, [G, G], [[G, G], [G, G]], ..., down to where it stops
+   * getting smaller - at the trivial subgroup exactly when G is solvable. */
+  public LinkedList<LinkedList<GroupElement>> derivedSeries() {
+    return seriesLists(true);
+  }
+  
+  /* The lower central series G, [G, G], [[G, G], G], ..., down to where it stops
+   * getting smaller - at the trivial subgroup exactly when G is nilpotent. */
+  public LinkedList<LinkedList<GroupElement>> lowerCentralSeries() {
+    return seriesLists(false);
+  }
+  
+  public boolean isSolvable() {
+    return new Commutators(this).series(true).getLast().size() == 1;
+  }
+  
+  public boolean isNilpotent() {
+    return new Commutators(this).series(false).getLast().size() == 1;
+  }
+  
+  /* The long computations above, run on an executor (or the common fork-join pool, if it
+   * is null) as futures that can be cancelled part way through; the progress listener,
+   * if not null, is told how many elements have been done out of how many (see
+   * GroupTask). */
+  public CompletableFuture<LinkedList<GroupElement>> getMembersAsync(Executor executor, GroupTask.Progress progress) {
+    return GroupTask.submit(executor, progress, this::getMembers);
+  }
+  
+  public CompletableFuture<Hashtable<Integer, LinkedList<GroupElement>>> storeElementsByOrderAsync(Executor executor,
+                                                                                                  GroupTask.Progress progress) {
+    return GroupTask.submit(executor, progress, () -> {
+      storeElementsByOrder();
+      return membersByOrder;
+    });
+  }
+  
+  public CompletableFuture<Boolean> isNormalAsync(LinkedList<GroupElement> subgroup, Executor executor, GroupTask.Progress progress) {
+    return GroupTask.submit(executor, progress, () -> isNormal(subgroup));
+  }
+  
+  public CompletableFuture<FactorGroup> factorGroupAsync(LinkedList<GroupElement> subgroup, Executor executor,
+                                                         GroupTask.Progress progress) {
+    return GroupTask.submit(executor, progress, () -> factorGroup(subgroup));
+  }
+  
+  /* Returns the cache of derived results for this group, or null if caching is off. */
+  public ResultCache getResultCache() {
+    return resultCache;
+  }
+  
+  /* Replaces the cache of derived results, e.g. with a bigger or smaller one;
+   * passing null turns caching off for this group. */
+  public void setResultCache(ResultCache cache) {
+    resultCache = cache;
+  }
+  
+  /* True if the group was made without listing its members, and nothing has needed
+   * them since (see leaveMembersImplicit). */
+  public boolean isImplicit() {
+    return implicit;
+  }
+  
+  public long getListingBudget() {
+    return listingBudget;
+  }
+  
+  /* Caps the memory (in bytes, as estimateListBytes reckons it) that listing the members
+   * of an implicit group may take; asking for them beyond that throws an
+   * IllegalStateException instead of running out of memory. */
+  public void setListingBudget(long bytes) {
+    if (bytes < 0)
+      throw new IllegalArgumentException("A listing budget can't be negative: " + bytes + ".");
+    listingBudget = bytes;
+  }
+  
+  /* Walks through the elements of the group one at a time.  For the groups here
+   * that is just a walk along the members list, but a group that is too big to
+   * keep in memory can overwrite this to produce its elements as it goes. */
+  public Iterator<GroupElement> elementIterator() {
+    return Collections.unmodifiableList(members).iterator();
+  }
+  
   /* Returns the LinkedList representation of the members of the group. 
    * Note that it returns a "true copy" of the members list; this is because,
    * in the original iteration of the code where we simply had "return members",
    * the FactorGroup class would destroy the actual members list of the Group
    * instance fed to the FactorGroup constructor. */
   public LinkedList<GroupElement> getMembers() {
-    LinkedList<GroupElement> members2 = new LinkedList<GroupElement>();
+    listMembers();
+    return new LinkedList<GroupElement>(members); // (not get(i) in a loop, which is quadratic on a LinkedList)
+  }
+  
+  /* Returns the position of e in the members list, or -1 if it isn't a member.  Unlike
+   * findIndex, this doesn't search the list: the first call builds a hash table of the
+   * members (see hashKey), and after that every lookup takes constant time. */
+  public int indexOf(GroupElement e) {
+    HashMap<Object, Integer> indices = memberIndices;
+    if (indices == null) {
+      listMembers();
+      indices = new HashMap<Object, Integer>(2*members.size());
+      int i = 0;
+      for (GroupElement member : members)
+        indices.putIfAbsent(hashKey(member), i++);
+      memberIndices = indices;
+    }
+    
+    Integer index = indices.get(hashKey(e));
+    return (index == null) ? -1 : index;
+  }
+  
+  /* Returns an object that stands in for e in hash tables: two elements that the
+   * group's equals method considers the same must get equal keys.  By default
+   * this is the element's toString, which is right for any group whose elements
+   * have exactly one way of being written down; groups where that isn't so (or
+   * where something cheaper will do) overwrite it. */
+  protected Object hashKey(GroupElement e) {
+    return e.toString();
+  }
+  
+  /* Returns a set of elements that generates the whole group, found greedily: run
+   * through the members, highest element order first, and whenever one isn't yet in
+   * the subgroup generated by the ones picked so far, pick it.  Each pick at least
+   * doubles the size of that subgroup, so there are never more than log2 |G|
+   * generators, and starting with elements of high order usually means far fewer. */
+  public LinkedList<GroupElement> getGenerators() {
+    LinkedList<GroupElement> gens = generators;
+    if (gens != null)
+      return new LinkedList<GroupElement>(gens);
+    listMembers();
+    
+    gens = new LinkedList<GroupElement>();
+    ArrayList<GroupElement> elements = new ArrayList<GroupElement>(members);
+    BitSet reached = new BitSet(elements.size());
+    reached.set(indexOf(identity));
+    
+    Integer[] candidates = new Integer[elements.size()];
+    final int[] orders = new int[elements.size()];
+    for (int i = 0; i < candidates.length; i++) {
+      candidates[i] = i;
+      orders[i] = computeElementOrder(elements.get(i));
+    }
+    Arrays.sort(candidates, new Comparator<Integer>() {
+      public int compare(Integer a, Integer b) {
+        return orders[b] - orders[a];
+      }
+    });
     
-    for (int i = 0; i < members.size(); i++)
-      members2.add(members.get(i));
+    for (int c = 0; c < candidates.length; c++) {
+      int i = candidates[c];
+      if (reached.get(i))
+        continue;
+      gens.add(elements.get(i));
+      
+      // grow the generated subgroup: multiply everything reached so far by every
+      // generator until nothing new turns up
+      LinkedList<Integer> toVisit = new LinkedList<Integer>();
+      for (int j = reached.nextSetBit(0); j >= 0; j = reached.nextSetBit(j+1))
+        toVisit.add(j);
+      while (!toVisit.isEmpty()) {
+        GroupElement x = elements.get(toVisit.removeFirst());
+        for (GroupElement g : gens) {
+          int product = indexOf(operate(x, g));
+          if (product >= 0 && !reached.get(product)) {
+            reached.set(product);
+            toVisit.add(product);
+          }
+        }
+      }
+    }
     
-    return members2;
+    generators = gens;
+    return new LinkedList<GroupElement>(gens);
   }
   
   /* Checks to see if two subgroups are equal, up to arrangement of elements. */
@@ -192,6 +542,7 @@ public abstract class Group {
    * (which require an equals method between objects of type T), and so this
    * helper method was born. */
   protected int findIndex(LinkedList<GroupElement> list, GroupElement e) {
+    countFindIndex();
     for (int i = 0; i < list.size(); i++) {
       if (equals(list.get(i), e)) {
         return i;
@@ -205,6 +556,251 @@ public abstract class Group {
     return (findIndex(list, e) != -1);
   }
   
+  /* Switches on instrumentation for this group (see GroupMetrics) and registers
+   * it with JMX, returning the metrics object.  If metrics are already on, the
+   * existing object is returned. */
+  public synchronized GroupMetrics enableMetrics() {
+    if (metrics == null) {
+      GroupMetrics m = new GroupMetrics(groupName());
+      m.register(System.identityHashCode(this));
+      metrics = m;
+    }
+    return metrics;
+  }
+  
+  /* Switches instrumentation back off and unregisters it from JMX. */
+  public synchronized void disableMetrics() {
+    if (metrics != null) {
+      metrics.unregister();
+      metrics = null;
+    }
+  }
+  
+  /* Returns this group's metrics, or null if they are switched off. */
+  public GroupMetrics getMetrics() {
+    return metrics;
+  }
+  
+  /* Instrumentation hooks, called by the group operations themselves.  Each one is
+   * just a null check unless metrics have been switched on (and, for countOperate, a
+   * second one unless a flight recorder event is open - see beginEvent). */
+  protected final void countOperate() {
+    GroupMetrics m = metrics;
+    if (m != null)
+      m.operateCalls.increment();
+    LongAdder tally = operateTally;
+    if (tally != null)
+      tally.increment();
+  }
+  
+  protected final void countEquals() {
+    GroupMetrics m = metrics;
+    if (m != null)
+      m.equalsCalls.increment();
+  }
+  
+  protected final void countFindIndex() {
+    GroupMetrics m = metrics;
+    if (m != null)
+      m.findIndexCalls.increment();
+  }
+  
+  protected final void countElementOrder() {
+    GroupMetrics m = metrics;
+    if (m != null)
+      m.elementOrderCalls.increment();
+  }
+  
+  /* Called once per element by the long loops: throws a CancellationException if the
+   * computation is running as a GroupTask that has been cancelled, and otherwise
+   * reports its progress. */
+  protected final void checkpoint(long done, long total) {
+    GroupTask.checkpoint(done, total);
+  }
+  
+  protected final void countAllocated(int elements) {
+    GroupMetrics m = metrics;
+    if (m != null)
+      m.elementsAllocated.add(elements);
+  }
+  
+  /* Starts a flight recorder event (see GroupEvents) about this group.  Returns the
+   * number of operate calls made so far, to be handed back to commitEvent, or -1 if
+   * no recording wants the event - in which case nothing else is done.  The tally
+   * of operate calls is only kept while at least one event is open, and dropped when
+   * the last one is committed. */
+  protected final long beginEvent(GroupEvents.GroupEvent event) {
+    if (!event.isEnabled())
+      return -1;
+    
+    long operates;
+    synchronized (eventLock) {
+      if (openEvents++ == 0)
+        operateTally = new LongAdder();
+      operates = operateTally.sum();
+    }
+    event.begin();
+    return operates;
+  }
+  
+  /* Ends an event started by beginEvent, fills in the fields common to all group
+   * events and, if it ran long enough to be of interest to the recording, commits it.
+   * Any event-specific fields should be set before calling this. */
+  protected final void commitEvent(GroupEvents.GroupEvent event, long operatesBefore) {
+    if (operatesBefore < 0)
+      return;
+    
+    event.end();
+    long operates;
+    synchronized (eventLock) {
+      operates = operateTally.sum() - operatesBefore;
+      if (--openEvents == 0)
+        operateTally = null;
+    }
+    if (event.shouldCommit()) {
+      event.groupName = groupName();
+      event.dimension = dimension;
+      event.elementCount = members.size();
+      event.operateCalls = operates;
+      event.commit();
+    }
+  }
+  
+  /* Builds the cache key for a question about a single element, or returns null
+   * if the element can't be found among the members of the group.  The keys are
+   * positions in the members list, so an implicit group gets null (and no caching)
+   * rather than having its members listed just to make a key.  The position comes from
+   * indexOf, so making a key is a hash lookup rather than a search. */
+  protected ResultCache.Key elementKey(String kind, GroupElement e) {
+    if (isImplicit())
+      return null;
+    int index = indexOf(e);
+    if (index == -1)
+      return null;
+    
+    BitSet indices = new BitSet();
+    indices.set(index);
+    return new ResultCache.Key(kind, indices);
+  }
+  
+  /* Builds the cache key for a question about a subgroup: the set of indices
+   * of its elements in the members list, which doesn't depend on how the subgroup
+   * list happens to be ordered.  Returns null if some element isn't a member, or if
+   * the group is implicit. */
+  protected ResultCache.Key subgroupKey(String kind, LinkedList<GroupElement> subgroup) {
+    if (isImplicit())
+      return null;
+    BitSet indices = new BitSet(members.size());
+    
+    for (GroupElement e : subgroup) {
+      int index = indexOf(e);
+      if (index == -1)
+        return null;
+      indices.set(index);
+    }
+    
+    return new ResultCache.Key(kind, indices);
+  }
+  
+  /* For constructors that don't list the members: a group that calls this must
+   * overwrite elementIterator to make its elements as it goes, and the members list is
+   * filled from that the first time anything needs it (see listMembers) - so that the
+   * members of a big group need never be listed if all it is used for is multiplying. */
+  protected final void leaveMembersImplicit() {
+    implicit = true;
+  }
+  
+  /* Lists the members of an implicit group, if they fit in the listing budget. */
+  protected final void listMembers() {
+    if (!implicit)
+      return;
+    synchronized (this) {
+      if (!implicit)
+        return;
+      long order;
+      try {
+        order = getLongGroupOrder();
+      }
+      catch (ArithmeticException e) { // (more than a long holds)
+        order = -1;
+      }
+      if (order < 0 || order > Integer.MAX_VALUE || estimateListBytes(order) > listingBudget)
+        throw new IllegalStateException(groupName() + " has " + ((order < 0) ? "more than " + Integer.MAX_VALUE : "" + order)
+                                          + " elements, too many to list"
+                                          + ((listingBudget < Long.MAX_VALUE) ? " in " + listingBudget + " bytes" : "")
+                                          + "; use elementIterator or its generators instead.");
+      GroupEvents.Construction event = new GroupEvents.Construction();
+      long operatesBefore = beginEvent(event);
+      LinkedList<GroupElement> listed = new LinkedList<GroupElement>(); // (so that a cancelled listing leaves no trace)
+      Iterator<GroupElement> all = elementIterator();
+      while (all.hasNext()) {
+        checkpoint(listed.size(), order);
+        listed.add(all.next());
+      }
+      members.addAll(listed);
+      implicit = false;
+      commitEvent(event, operatesBefore);
+    }
+  }
+  
+  /* A rough guess at the heap taken up by one element of this group; used to
+   * weigh cached results.  Groups with bulkier elements should overwrite it. */
+  protected long estimateElementBytes() {
+    return 32;
+  }
+  
+  /* Estimated size of a LinkedList holding "size" elements of this group. */
+  protected long estimateListBytes(long size) {
+    return 32 + size*(24 + estimateElementBytes()); // 24 bytes per list node
+  }
+  
+  private LinkedList<LinkedList<GroupElement>> seriesLists(boolean derived) {
+    Commutators c = new Commutators(this);
+    LinkedList<LinkedList<GroupElement>> lists = new LinkedList<LinkedList<GroupElement>>();
+    for (Commutators.Subgroup s : c.series(derived))
+      lists.add(c.list(s));
+    return lists;
+  }
+  
+  /* The old way of finding the order of e: keep operating e with itself until
+   * the identity comes back. */
+  private int countUpToIdentity(GroupElement e) {
+    int order = 1;
+    GroupElement soFar = e;
+    
+    while (!equals(identity, soFar)) {
+      soFar = operate(soFar, e);
+      order++;
+    }
+    
+    return order;
+  }
+  
+  /* Returns the distinct prime factors of the number of elements in the group. */
+  private long[] groupOrderPrimes() {
+    long[] primes = orderPrimes;
+    if (primes != null)
+      return primes;
+    
+    LinkedList<Long> found = new LinkedList<Long>();
+    long n = getGroupOrder();
+    for (long p = 2; p*p <= n; p++) {
+      if (n % p == 0) {
+        found.add(p);
+        while (n % p == 0)
+          n /= p;
+      }
+    }
+    if (n > 1)
+      found.add(n);
+    
+    primes = new long[found.size()];
+    for (int i = 0; i < primes.length; i++)
+      primes[i] = found.get(i);
+    orderPrimes = primes;
+    return primes;
+  }
+  
   /* Checks to see if some integer n is prime. */
   protected boolean isPrime(int n) {
     if (n%2 == 0) {
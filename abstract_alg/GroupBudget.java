@@ -0,0 +1,207 @@
+package abstract_alg;
+/* NAME: GroupBudget.java
+ * DATE: October 2026
+ * COMMENTS: Picks how to hold a group in memory, given how much memory and time it may
+ * take to build, instead of leaving it to the constructor (PermutationGroup(10) lists
+ * all 3.6 million permutations whether they're wanted or not).  There are three ways,
+ * from fastest to use to cheapest to build:
+ *  - TABLE: the members listed, and the whole multiplication table worked out (see
+ *    TableGroup), so that every product is an array lookup - 2n^2 bytes, and n^2
+ *    products to build;
+ *  - LIST: the members listed, products worked out as they're asked for;
+ *  - IMPLICIT: nothing listed (see Group.leaveMembersImplicit); multiplying, inverting,
+ *    finding orders and the generators still work, and the members are listed only if
+ *    something asks for them - which, with the listing budget set to the memory budget,
+ *    throws an IllegalStateException instead of running out of memory.
+ * The group is first made implicit, which costs nothing.  The memory each way would take
+ * comes from the group's own estimates (see Group.estimateListBytes), plus a hash table
+ * entry per member for indexOf; the time from timing a few hundred products and
+ * elements made on that very group, and scaling up.  The richest way that fits both
+ * budgets is chosen, and the Plan says which it was and what it was expected to cost,
+ * so that heaps can be sized to match.  The estimates are rough - within a factor of two
+ * or so - and are meant for choosing, not for promising. */
+
+import java.math.BigInteger;
+import java.util.*;
+
+public class GroupBudget {
+  public enum Strategy {TABLE, LIST, IMPLICIT}
+
+  private static final long IMPLICIT_BYTES = 1024; // the group object and a few generators
+  private static final long INDEX_BYTES = 64; // a HashMap entry, boxed key and Integer for indexOf
+  private static final long TABLE_ELEMENT_BYTES = 88; // a TableElement and its name
+  private static final int SAMPLES = 256; // products and elements timed for the estimates
+  private static final int ROUNDS = 4; // of timing, keeping the best
+
+  private final long maxBytes, maxMillis;
+
+  /* A budget of so many bytes of heap and milliseconds of building time. */
+  public GroupBudget(long maxBytes, long maxMillis) {
+    if (maxBytes < 0 || maxMillis < 0)
+      throw new IllegalArgumentException("A budget can't be negative: " + maxBytes + " bytes, " + maxMillis + " ms.");
+    this.maxBytes = maxBytes;
+    this.maxMillis = maxMillis;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  public Plan symmetric(int n) {
+    return plan(PermutationGroup.implicit(n));
+  }
+
+  public Plan cyclic(int n) {
+    return plan(ZmodN.implicit(n));
+  }
+
+  public Plan dihedral(int n) {
+    return plan(DihedralGroup.implicit(n));
+  }
+
+  /* The plan for a group that hasn't listed its members (see Group.isImplicit). */
+  public Plan plan(Group group) {
+    if (!group.isImplicit())
+      throw new IllegalArgumentException(group.groupName() + " has already listed its members; budget an implicit group instead.");
+    return new Plan(group);
+  }
+
+  /* The chosen way of holding one group, with what each way would cost. */
+  public final class Plan {
+    private final Group implicitGroup;
+    private final BigInteger order;
+    private final long listBytes, tableBytes, listNanos, tableNanos;
+    private final Strategy strategy;
+    private Group group; // null until built
+
+    private Plan(Group implicitGroup) {
+      this.implicitGroup = implicitGroup;
+      order = implicitGroup.getExactGroupOrder();
+      boolean listable = (order.bitLength() < 32);
+      long n = listable ? order.longValue() : -1;
+
+      listBytes = listable ? implicitGroup.estimateListBytes(n) + INDEX_BYTES*n : Long.MAX_VALUE;
+      tableBytes = (listable && n <= TableGroup.MAX_ORDER) ? listBytes + 2*n*n + TABLE_ELEMENT_BYTES*n : Long.MAX_VALUE;
+      if (listable) {
+        long[] nanos = time(implicitGroup);
+        listNanos = saturate(n, nanos[0]);
+        tableNanos = (tableBytes == Long.MAX_VALUE) ? Long.MAX_VALUE : listNanos + saturate(n*n, nanos[1]);
+      }
+      else
+        listNanos = tableNanos = Long.MAX_VALUE;
+
+      long maxNanos = (maxMillis > Long.MAX_VALUE / 1000000) ? Long.MAX_VALUE : maxMillis * 1000000;
+      if (tableBytes <= maxBytes && tableNanos <= maxNanos)
+        strategy = Strategy.TABLE;
+      else if (listBytes <= maxBytes && listNanos <= maxNanos)
+        strategy = Strategy.LIST;
+      else
+        strategy = Strategy.IMPLICIT;
+    }
+
+    public Strategy getStrategy() {
+      return strategy;
+    }
+
+    /* The memory the chosen way is expected to take. */
+    public long getEstimatedBytes() {
+      return estimatedBytes(strategy);
+    }
+
+    /* The time the chosen way is expected to take to build. */
+    public long getEstimatedMillis() {
+      return estimatedMillis(strategy);
+    }
+
+    /* What another way would take (Long.MAX_VALUE where it isn't possible at all). */
+    public long estimatedBytes(Strategy s) {
+      return (s == Strategy.TABLE) ? tableBytes : (s == Strategy.LIST) ? listBytes : IMPLICIT_BYTES;
+    }
+
+    public long estimatedMillis(Strategy s) {
+      long nanos = (s == Strategy.TABLE) ? tableNanos : (s == Strategy.LIST) ? listNanos : 0;
+      return (nanos == Long.MAX_VALUE) ? Long.MAX_VALUE : nanos / 1000000;
+    }
+
+    /* The group, held the chosen way; built the first time it is asked for. */
+    public synchronized Group getGroup() {
+      if (group == null) {
+        implicitGroup.setListingBudget(maxBytes); // (in place of the group's own default)
+        if (strategy == Strategy.TABLE)
+          group = TableGroup.fromGroup(implicitGroup);
+        else {
+          if (strategy == Strategy.LIST)
+            implicitGroup.listMembers();
+          group = implicitGroup;
+        }
+      }
+      return group;
+    }
+
+    public String toString() {
+      StringBuilder s = new StringBuilder(implicitGroup.groupName() + " (" + order + " elements): " + strategy
+                                            + ", about " + describe(getEstimatedBytes(), getEstimatedMillis()) + ";");
+      for (Strategy other : Strategy.values()) {
+        if (other != strategy)
+          s.append(' ').append(other).append(" would take ").append(describe(estimatedBytes(other), estimatedMillis(other))).append(';');
+      }
+      s.setLength(s.length()-1);
+      return s.toString();
+    }
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* Nanoseconds to make one element with elementIterator and index it, and to work out
+   * one entry of the table (a product and a hash lookup), timed over the first few
+   * elements.  Each is the best of a few rounds, so that the first round's JIT compiling
+   * and any stray collection don't count. */
+  private static long[] time(Group g) {
+    long perElement = Long.MAX_VALUE, perEntry = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      ArrayList<GroupElement> sample = new ArrayList<GroupElement>();
+      HashMap<Object, Integer> index = new HashMap<Object, Integer>();
+      long start = System.nanoTime();
+      Iterator<GroupElement> it = g.elementIterator();
+      while (sample.size() < SAMPLES && it.hasNext()) {
+        GroupElement e = it.next();
+        index.put(g.hashKey(e), sample.size());
+        sample.add(e);
+      }
+      perElement = Math.min(perElement, (System.nanoTime() - start) / sample.size());
+
+      start = System.nanoTime();
+      for (int k = 0; k < SAMPLES; k++)
+        index.get(g.hashKey(g.operate(sample.get(k % sample.size()), sample.get((7*k) % sample.size()))));
+      perEntry = Math.min(perEntry, (System.nanoTime() - start) / SAMPLES);
+    }
+    return new long[] {Math.max(perElement, 1), Math.max(perEntry, 1)};
+  }
+
+  private static long saturate(long count, long nanos) {
+    return (nanos > 0 && count > Long.MAX_VALUE / nanos) ? Long.MAX_VALUE : count * nanos;
+  }
+
+  private static String describe(long bytes, long millis) {
+    if (bytes == Long.MAX_VALUE)
+      return "too much to hold";
+    String size = (bytes >= 1L << 30) ? String.format("%.1f GB", bytes / (double)(1L << 30))
+                : (bytes >= 1L << 20) ? String.format("%.1f MB", bytes / (double)(1L << 20))
+                : String.format("%d KB", (bytes + 1023) / 1024);
+    String time = (millis == Long.MAX_VALUE) ? "forever" : (millis >= 1000) ? String.format("%.1f s", millis / 1000.0) : millis + " ms";
+    return size + " and " + time;
+  }
+
+  public static void main(String[] args) {
+//    GroupBudget budget = new GroupBudget(256L << 20, 10000); // 256 MB, 10 s
+//    System.out.println(budget.symmetric(6)); // TABLE
+//    System.out.println(budget.symmetric(9)); // LIST
+//    System.out.println(budget.symmetric(12)); // IMPLICIT
+  }
+}
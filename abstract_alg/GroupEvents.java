@@ -0,0 +1,74 @@
+package abstract_alg;
+/* NAME: GroupEvents.java
+ * DATE: October 2026
+ * COMMENTS: JDK Flight Recorder events for the long-running parts of the package:
+ * building a group, sorting its elements by order, generating a subgroup, enumerating
+ * the cosets of a factor group and checking a subgroup for normality.  Each event
+ * records the name, dimension and size of the group involved and how many times the
+ * group operation was applied while it ran; the duration and stack trace come from JFR
+ * itself.  They are switched on like any other JFR event, e.g. with
+ *   java -XX:StartFlightRecording:filename=zoo.jfr ...
+ * and, like the built-in events, cost next to nothing while no recording is running.
+ * (See beginEvent/commitEvent in Group for how they are used.) */
+
+import jdk.jfr.*;
+
+public class GroupEvents {
+  
+  /* The fields shared by every group event. */
+  @Category({"Group Zoo"})
+  @StackTrace(true)
+  public abstract static class GroupEvent extends Event {
+    @Label("Group")
+    public String groupName;
+    
+    @Label("Dimension")
+    public int dimension;
+    
+    @Label("Element Count")
+    public long elementCount;
+    
+    @Label("Operate Calls")
+    @Description("How many times the group operation was applied during the event")
+    public long operateCalls;
+  }
+  
+  @Name("abstract_alg.GroupConstruction")
+  @Label("Group Construction")
+  @Description("Building all the members of a group")
+  public static class Construction extends GroupEvent {
+  }
+  
+  @Name("abstract_alg.ElementClassification")
+  @Label("Element Classification")
+  @Description("Sorting the members of a group by element order (storeElementsByOrder)")
+  public static class ElementClassification extends GroupEvent {
+  }
+  
+  @Name("abstract_alg.SubgroupGeneration")
+  @Label("Subgroup Generation")
+  @Description("Generating the cyclic subgroup of an element")
+  public static class SubgroupGeneration extends GroupEvent {
+    @Label("Subgroup Size")
+    public int subgroupSize;
+  }
+  
+  @Name("abstract_alg.CosetEnumeration")
+  @Label("Coset Enumeration")
+  @Description("Finding all the cosets of a subgroup while building a factor group")
+  public static class CosetEnumeration extends GroupEvent {
+    @Label("Subgroup Size")
+    public int subgroupSize;
+  }
+  
+  @Name("abstract_alg.NormalityCheck")
+  @Label("Normality Check")
+  @Description("Checking whether a subgroup is normal")
+  public static class NormalityCheck extends GroupEvent {
+    @Label("Subgroup Size")
+    public int subgroupSize;
+    
+    @Label("Normal")
+    public boolean normal;
+  }
+}
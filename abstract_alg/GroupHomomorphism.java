@@ -0,0 +1,255 @@
+package abstract_alg;
+/* NAME: GroupHomomorphism.java
+ * DATE: October 2026
+ * COMMENTS: A homomorphism from one group to another, given by where it sends a set of
+ * generators of the source - e.g. the sign map S_n -> Z_2, sending every transposition to
+ * [1], or D_n -> S_n, sending the rotation and the reflection to what they do to the
+ * vertices.  Everything else follows:
+ *  - apply(x) writes x as a word in the generators, by reading it off a breadth-first
+ *    tree of the source's Cayley graph (built on first use), and multiplies the images
+ *    of the letters; images are remembered, as positions in the target's members list in
+ *    an int array, so each element's image costs one product in the target, once;
+ *  - the image is the subgroup of the target generated by the generators' images,
+ *    found by closing them up under multiplication;
+ *  - the kernel is found the same way, from Schreier generators: walking through the
+ *    image, each element y gets a source element t(y) mapping to it, and for every
+ *    generator g, t(y) g t(y phi(g))^-1 maps to the identity.  These generate the kernel
+ *    (Schreier's lemma), which can then be closed up in the source - |image| * (number
+ *    of generators) products to find them, and a few passes over the kernel to close them
+ *    up, instead of an image for every element of the source.
+ * Nothing checks at construction that the images really do define a homomorphism, which
+ * would cost as much as listing every image; but the kernel computation notices for free
+ * (if they don't, the Schreier generators generate too much, and |kernel| |image| comes
+ * out bigger than |source|), so getKernel and everything that uses it throw an
+ * IllegalStateException in that case, and isHomomorphism asks the same question.  The
+ * kernel is a normal subgroup, and getQuotient() builds the factor group by it, letting
+ * the source group know it's normal so that nobody needs to check. */
+
+import java.math.BigInteger;
+import java.util.*;
+
+public class GroupHomomorphism {
+  private final Group source, target;
+  private final ArrayList<GroupElement> generators, generatorImages;
+  private ArrayList<GroupElement> sourceMembers, targetMembers;
+  private int[] images; // images[i]: position in the target of the image of source member i, -1 if not yet known
+  private int[] treeParent, treeLetter; // the word for source member i is the word for treeParent[i], then generator treeLetter[i]
+  private LinkedList<GroupElement> kernel, image;
+
+  /* The homomorphism sending each of the generators (which must generate the source) to
+   * the target element in the same place in images. */
+  public GroupHomomorphism(Group source, Group target, LinkedList<GroupElement> generators, LinkedList<GroupElement> images) {
+    if (generators.size() != images.size())
+      throw new IllegalArgumentException("There are " + generators.size() + " generators but " + images.size() + " images.");
+    for (GroupElement g : generators) {
+      if (source.indexOf(g) < 0)
+        throw new IllegalArgumentException(g + " is not an element of " + source.groupName() + ".");
+    }
+    for (GroupElement h : images) {
+      if (target.indexOf(h) < 0)
+        throw new IllegalArgumentException(h + " is not an element of " + target.groupName() + ".");
+    }
+    this.source = source;
+    this.target = target;
+    this.generators = new ArrayList<GroupElement>(generators);
+    this.generatorImages = new ArrayList<GroupElement>(images);
+  }
+
+  public Group getSource() {
+    return source;
+  }
+
+  public Group getTarget() {
+    return target;
+  }
+
+  /* The image of an element of the source, or null if it isn't one. */
+  public GroupElement apply(GroupElement e) {
+    int i = source.indexOf(e);
+    if (i < 0)
+      return null;
+    if (images == null)
+      buildTree();
+    return targetMembers.get(imageOf(i));
+  }
+
+  /* The elements of the source sent to the identity. */
+  public LinkedList<GroupElement> getKernel() {
+    if (kernel == null)
+      findKernelAndImage();
+    return new LinkedList<GroupElement>(kernel);
+  }
+
+  /* The elements of the target that something is sent to. */
+  public LinkedList<GroupElement> getImage() {
+    if (kernel == null)
+      findKernelAndImage();
+    return new LinkedList<GroupElement>(image);
+  }
+
+  /* Whether the generator images really do define a homomorphism (on a source that the
+   * generators generate). */
+  public boolean isHomomorphism() {
+    try {
+      getKernel();
+      return true;
+    }
+    catch (IllegalStateException e) {
+      return false;
+    }
+  }
+
+  public boolean isInjective() {
+    return getKernel().size() == 1;
+  }
+
+  public boolean isSurjective() {
+    return BigInteger.valueOf(getImage().size()).equals(target.getExactGroupOrder());
+  }
+
+  /* The source modulo the kernel, which is isomorphic to the image. */
+  public FactorGroup getQuotient() {
+    LinkedList<GroupElement> k = getKernel();
+    source.rememberNormal(k);
+    return source.factorGroup(k);
+  }
+
+  public String toString() {
+    StringBuilder s = new StringBuilder("Homomorphism from " + source.groupName() + " to " + target.groupName() + ":");
+    for (int k = 0; k < generators.size(); k++)
+      s.append(' ').append(generators.get(k)).append(" -> ").append(generatorImages.get(k)).append(';');
+    s.setLength(s.length()-1);
+    return s.toString();
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* Breadth-first search of the source from the identity, multiplying on the right by
+   * the generators. */
+  private void buildTree() {
+    sourceMembers = new ArrayList<GroupElement>(source.getMembers());
+    targetMembers = new ArrayList<GroupElement>(target.getMembers());
+    int n = sourceMembers.size();
+    int[] parent = new int[n], letter = new int[n], known = new int[n];
+    Arrays.fill(parent, -1);
+    Arrays.fill(known, -1);
+    int root = source.indexOf(source.getIdentity());
+    parent[root] = root;
+    known[root] = target.indexOf(target.getIdentity());
+
+    int[] queue = new int[n];
+    int count = 0;
+    queue[count++] = root;
+    for (int head = 0; head < count; head++) {
+      GroupElement x = sourceMembers.get(queue[head]);
+      for (int k = 0; k < generators.size(); k++) {
+        int y = source.indexOf(source.operate(x, generators.get(k)));
+        if (parent[y] < 0) {
+          parent[y] = queue[head];
+          letter[y] = k;
+          queue[count++] = y;
+        }
+      }
+    }
+    if (count < n)
+      throw new IllegalArgumentException("The generators only generate " + count + " of the " + n + " elements of " + source.groupName() + ".");
+    treeParent = parent;
+    treeLetter = letter;
+    images = known;
+  }
+
+  /* The image of source member i, by its word: the image of its parent in the tree
+   * times the image of one more generator. */
+  private int imageOf(int i) {
+    if (images[i] >= 0)
+      return images[i];
+    // walk up to the nearest element whose image is known, then back down
+    int depth = 0;
+    for (int x = i; images[x] < 0; x = treeParent[x])
+      depth++;
+    int[] path = new int[depth];
+    for (int x = i, d = depth-1; images[x] < 0; x = treeParent[x], d--)
+      path[d] = x;
+    for (int x : path) {
+      GroupElement product = target.operate(targetMembers.get(images[treeParent[x]]), generatorImages.get(treeLetter[x]));
+      images[x] = target.indexOf(product);
+    }
+    return images[i];
+  }
+
+  /* The image by closure in the target, keeping a source element over each of its
+   * elements; then the kernel by closing up the Schreier generators in the source. */
+  private void findKernelAndImage() {
+    ArrayList<GroupElement> imageList = new ArrayList<GroupElement>();
+    ArrayList<GroupElement> reps = new ArrayList<GroupElement>(); // reps.get(k) maps to imageList.get(k)
+    HashMap<Integer, Integer> imagePosition = new HashMap<Integer, Integer>(); // target index -> position in imageList
+    ArrayList<GroupElement> schreier = new ArrayList<GroupElement>();
+
+    imageList.add(target.getIdentity());
+    reps.add(source.getIdentity());
+    imagePosition.put(target.indexOf(target.getIdentity()), 0);
+    for (int head = 0; head < imageList.size(); head++) {
+      GroupElement y = imageList.get(head), t = reps.get(head);
+      for (int k = 0; k < generators.size(); k++) {
+        GroupElement z = target.operate(y, generatorImages.get(k));
+        GroupElement tg = source.operate(t, generators.get(k));
+        Integer position = imagePosition.get(target.indexOf(z));
+        if (position == null) {
+          imagePosition.put(target.indexOf(z), imageList.size());
+          imageList.add(z);
+          reps.add(tg);
+        }
+        else
+          schreier.add(source.operate(tg, source.getInverse(reps.get(position))));
+      }
+    }
+
+    LinkedList<GroupElement> k = closure(source, schreier);
+    if ((long)k.size() * imageList.size() != source.getGroupOrder())
+      throw new IllegalStateException("The images given for the generators of " + source.groupName()
+                                        + " don't define a homomorphism (or the generators don't generate it).");
+    kernel = k;
+    image = new LinkedList<GroupElement>(imageList);
+  }
+
+  /* The subgroup of g generated by the given elements, found as in Group.getGenerators:
+   * an element only joins the generators if it's new, and each time one does, everything
+   * reached so far is multiplied by the generators until nothing new turns up. */
+  private static LinkedList<GroupElement> closure(Group g, List<GroupElement> elements) {
+    ArrayList<GroupElement> reached = new ArrayList<GroupElement>();
+    HashSet<Integer> seen = new HashSet<Integer>();
+    ArrayList<GroupElement> gens = new ArrayList<GroupElement>();
+    reached.add(g.getIdentity());
+    seen.add(g.indexOf(g.getIdentity()));
+
+    for (GroupElement e : elements) {
+      if (seen.contains(g.indexOf(e)))
+        continue;
+      gens.add(e);
+      for (int head = 0; head < reached.size(); head++) {
+        GroupElement x = reached.get(head);
+        for (GroupElement gen : gens) {
+          GroupElement product = g.operate(x, gen);
+          if (seen.add(g.indexOf(product)))
+            reached.add(product);
+        }
+      }
+    }
+    return new LinkedList<GroupElement>(reached);
+  }
+
+  public static void main(String[] args) {
+//    PermutationGroup s4 = new PermutationGroup(4);
+//    LinkedList<GroupElement> gens = new LinkedList<GroupElement>(), signs = new LinkedList<GroupElement>();
+//    gens.add(new Permutation(2, 1, 3, 4));
+//    gens.add(new Permutation(2, 3, 4, 1));
+//    ZmodN z2 = new ZmodN(2);
+//    signs.add(z2.getMembers().get(1));
+//    signs.add(z2.getMembers().get(1));
+//    GroupHomomorphism sign = new GroupHomomorphism(s4, z2, gens, signs);
+//    System.out.println(sign.getKernel().size()); // 12: A_4
+//    System.out.println(sign.getQuotient().getGroupOrder()); // 2
+  }
+}
@@ -0,0 +1,253 @@
+package abstract_alg;
+/* NAME: GroupIsomorphism.java
+ * DATE: October 2026
+ * COMMENTS: An isomorphism between two groups, as a one-to-one correspondence between
+ * their members lists, together with the search that finds one (see
+ * Group.findIsomorphism).  The search first compares invariants that are cheap to work
+ * out: the orders of the groups, and how many elements there are of each combination of
+ * element order and conjugacy class size (which among other things tells abelian groups
+ * from the rest, since a group is abelian exactly when every class has one element).
+ * Only if these agree does it look for the map itself: the source group's generators
+ * (there are at most log2 |G| of them) are sent in turn to every element of the target
+ * with the same order and class size, and after each choice the map is extended to the
+ * whole subgroup the generators chosen so far generate, by a breadth-first walk of its
+ * Cayley graph: phi(x g) = phi(x) phi(g).  A clash - an element reached two ways with two
+ * different images, or an image used twice (kept track of with a bitset) - rules the
+ * choice out at once, so most wrong choices die after a handful of products, and the
+ * map that comes out the far end is a homomorphism by construction and a bijection by
+ * counting.  Products in the target are worked out only as the walk needs them. */
+
+import java.util.*;
+
+public class GroupIsomorphism {
+  private final Group source, target;
+  private final ArrayList<GroupElement> sourceMembers, targetMembers;
+  private final int[] images; // images[i] is the position in target of the image of source member i
+
+  private GroupIsomorphism(Group source, Group target, ArrayList<GroupElement> sourceMembers, ArrayList<GroupElement> targetMembers, int[] images) {
+    this.source = source;
+    this.target = target;
+    this.sourceMembers = sourceMembers;
+    this.targetMembers = targetMembers;
+    this.images = images;
+  }
+
+  public Group getSource() {
+    return source;
+  }
+
+  public Group getTarget() {
+    return target;
+  }
+
+  /* The image of an element of the source group, or null if it isn't one. */
+  public GroupElement apply(GroupElement e) {
+    int i = source.indexOf(e);
+    return (i < 0) ? null : targetMembers.get(images[i]);
+  }
+
+  /* The same correspondence the other way round. */
+  public GroupIsomorphism inverse() {
+    int[] back = new int[images.length];
+    for (int i = 0; i < images.length; i++)
+      back[images[i]] = i;
+    return new GroupIsomorphism(target, source, targetMembers, sourceMembers, back);
+  }
+
+  /* Where the isomorphism sends the source group's generators, which determines it. */
+  public String toString() {
+    StringBuilder s = new StringBuilder("Isomorphism from " + source.groupName() + " to " + target.groupName() + ":");
+    for (GroupElement g : source.getGenerators())
+      s.append(' ').append(g).append(" -> ").append(apply(g)).append(';');
+    s.setLength(s.length()-1);
+    return s.toString();
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* An isomorphism from g to h, or null if there is none. */
+  static GroupIsomorphism find(Group g, Group h) {
+    if (!g.getExactGroupOrder().equals(h.getExactGroupOrder())) // (getGroupOrder is -1 for both if they're too big)
+      return null;
+    Profile from = new Profile(g, true), to = new Profile(h, false);
+    if (from.n != to.n || !from.histogram().equals(to.histogram()))
+      return null;
+    int[] images = new Search(from, to).run();
+    return (images == null) ? null : new GroupIsomorphism(g, h, from.elements, to.elements, images);
+  }
+
+  /* What the search needs to know about one group, by position in its members list:
+   * element orders, conjugacy class sizes, and (for the source only - the target's
+   * products are found as the search needs them, see rightByTarget) right
+   * multiplication by the generators. */
+  private static final class Profile {
+    private final Group group;
+    private final ArrayList<GroupElement> elements;
+    private final int n, identity;
+    private final int[] orders, classSizes, generators;
+    private final int[][] rightBy; // rightBy[k][x] = position of x times generator k; null for the target
+
+    private Profile(Group group, boolean source) {
+      this.group = group;
+      elements = new ArrayList<GroupElement>(group.getMembers());
+      n = elements.size();
+      identity = group.indexOf(group.getIdentity());
+      orders = new int[n];
+      for (int i = 0; i < n; i++)
+        orders[i] = group.computeElementOrder(elements.get(i));
+
+      LinkedList<GroupElement> gens = group.getGenerators();
+      generators = new int[gens.size()];
+      rightBy = source ? new int[gens.size()][n] : null;
+      int k = 0;
+      for (GroupElement gen : gens) {
+        generators[k] = group.indexOf(gen);
+        if (source) {
+          for (int x = 0; x < n; x++)
+            rightBy[k][x] = group.indexOf(group.operate(elements.get(x), gen));
+        }
+        k++;
+      }
+
+      // the conjugacy classes are the orbits of conjugation by the generators:
+      int[] parent = new int[n];
+      for (int x = 0; x < n; x++)
+        parent[x] = x;
+      for (GroupElement gen : gens) {
+        GroupElement inverse = group.getInverse(gen);
+        for (int x = 0; x < n; x++) {
+          int y = group.indexOf(group.operate(inverse, group.operate(elements.get(x), gen)));
+          int rx = root(parent, x), ry = root(parent, y);
+          if (rx != ry)
+            parent[Math.max(rx, ry)] = Math.min(rx, ry);
+        }
+      }
+      int[] size = new int[n];
+      for (int x = 0; x < n; x++)
+        size[root(parent, x)]++;
+      classSizes = new int[n];
+      for (int x = 0; x < n; x++)
+        classSizes[x] = size[root(parent, x)];
+    }
+
+    /* How many elements there are with each (order, class size). */
+    private HashMap<Long, Integer> histogram() {
+      HashMap<Long, Integer> counts = new HashMap<Long, Integer>();
+      for (int x = 0; x < n; x++)
+        counts.merge(invariant(x), 1, Integer::sum);
+      return counts;
+    }
+
+    private long invariant(int x) {
+      return ((long)orders[x] << 32) | classSizes[x];
+    }
+
+    private static int root(int[] parent, int x) {
+      while (parent[x] != x)
+        x = parent[x] = parent[parent[x]];
+      return x;
+    }
+  }
+
+  /* The backtrack over images of the source's generators. */
+  private static final class Search {
+    private final Profile from, to;
+    private final int[] map; // source position -> target position, or -1
+    private final BitSet used; // target positions already taken
+    private final int[] assigned; // source positions in the order they were mapped, for undoing
+    private int assignedCount;
+    private final int[] chosen; // the images picked for the generators so far
+    private final int[][] rightByTarget; // rightByTarget[t][y] = y times t in the target, filled in as needed
+
+    private Search(Profile from, Profile to) {
+      this.from = from;
+      this.to = to;
+      map = new int[from.n];
+      Arrays.fill(map, -1);
+      used = new BitSet(to.n);
+      assigned = new int[from.n];
+      chosen = new int[from.generators.length];
+      rightByTarget = new int[to.n][];
+    }
+
+    private int[] run() {
+      map[from.identity] = to.identity;
+      used.set(to.identity);
+      assigned[assignedCount++] = from.identity;
+      return extend(0) ? map : null;
+    }
+
+    /* Tries every possible image of generator k, given images of the ones before it. */
+    private boolean extend(int k) {
+      if (k == from.generators.length)
+        return true;
+      int g = from.generators[k];
+      long wanted = from.invariant(g);
+      int mark = assignedCount;
+      for (int t = 0; t < to.n; t++) {
+        if (to.invariant(t) != wanted)
+          continue;
+        // an element already in the image of the earlier generators can't be right:
+        // g isn't in the subgroup they generate, or it wouldn't have been picked
+        if (used.get(t))
+          continue;
+        chosen[k] = t;
+        if (close(k) && extend(k+1))
+          return true;
+        undo(mark);
+      }
+      return false;
+    }
+
+    /* Extends the map over the subgroup generated by generators 0, ..., k, returning
+     * false at the first clash. */
+    private boolean close(int k) {
+      for (int head = 0; head < assignedCount; head++) {
+        int x = assigned[head], y = map[x];
+        for (int j = 0; j <= k; j++) {
+          int xg = from.rightBy[j][x], yt = targetProduct(y, chosen[j]);
+          if (map[xg] >= 0) {
+            if (map[xg] != yt)
+              return false;
+          }
+          else {
+            if (used.get(yt))
+              return false;
+            map[xg] = yt;
+            used.set(yt);
+            assigned[assignedCount++] = xg;
+          }
+        }
+      }
+      return true;
+    }
+
+    private void undo(int mark) {
+      while (assignedCount > mark) {
+        int x = assigned[--assignedCount];
+        used.clear(map[x]);
+        map[x] = -1;
+      }
+    }
+
+    private int targetProduct(int y, int t) {
+      int[] column = rightByTarget[t];
+      if (column == null) {
+        column = rightByTarget[t] = new int[to.n];
+        Arrays.fill(column, -1);
+      }
+      if (column[y] < 0)
+        column[y] = to.group.indexOf(to.group.operate(to.elements.get(y), to.elements.get(t)));
+      return column[y];
+    }
+  }
+
+  public static void main(String[] args) {
+//    ZmodN z6 = new ZmodN(6);
+//    System.out.println(new ZmodN(2).findIsomorphism(z6)); // null: different orders
+//    PermutationGroup s3 = new PermutationGroup(3);
+//    System.out.println(new DihedralGroup(3).findIsomorphism(s3));
+  }
+}
@@ -0,0 +1,138 @@
+package abstract_alg;
+/* NAME: GroupMetrics.java
+ * DATE: October 2026
+ * COMMENTS: Opt-in instrumentation for a Group (see Group.enableMetrics).  Counts how many
+ * times the basic operations - operate, equals, findIndex and computeElementOrder - are
+ * called, how many group elements are allocated along the way, and how many calls and
+ * how much time go into storeElementsByOrder, isNormal and FactorGroup construction.
+ * The counters are LongAdders, which are striped internally, so several threads working
+ * on the same group don't fight over a single counter.  The numbers can be read through
+ * JMX (see GroupMetricsMBean) or all at once through snapshot().  While metrics are
+ * switched off a group holds no GroupMetrics at all, and every hook in Group reduces to
+ * a null check. */
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+public class GroupMetrics implements GroupMetricsMBean {
+  private final String groupName;
+  private ObjectName objectName; // null unless registered with the platform MBean server
+  
+  final LongAdder operateCalls = new LongAdder();
+  final LongAdder equalsCalls = new LongAdder();
+  final LongAdder findIndexCalls = new LongAdder();
+  final LongAdder elementOrderCalls = new LongAdder();
+  final LongAdder elementsAllocated = new LongAdder();
+  
+  final LongAdder storeElementsByOrderCalls = new LongAdder();
+  final LongAdder storeElementsByOrderNanos = new LongAdder();
+  final LongAdder isNormalCalls = new LongAdder();
+  final LongAdder isNormalNanos = new LongAdder();
+  final LongAdder factorGroupConstructions = new LongAdder();
+  final LongAdder factorGroupNanos = new LongAdder();
+  
+  public GroupMetrics(String groupName) {
+    this.groupName = groupName;
+  }
+  
+  public String getGroupName() { return groupName; }
+  
+  public long getOperateCalls() { return operateCalls.sum(); }
+  public long getEqualsCalls() { return equalsCalls.sum(); }
+  public long getFindIndexCalls() { return findIndexCalls.sum(); }
+  public long getElementOrderCalls() { return elementOrderCalls.sum(); }
+  public long getElementsAllocated() { return elementsAllocated.sum(); }
+  
+  public long getStoreElementsByOrderCalls() { return storeElementsByOrderCalls.sum(); }
+  public long getStoreElementsByOrderNanos() { return storeElementsByOrderNanos.sum(); }
+  public long getIsNormalCalls() { return isNormalCalls.sum(); }
+  public long getIsNormalNanos() { return isNormalNanos.sum(); }
+  public long getFactorGroupConstructions() { return factorGroupConstructions.sum(); }
+  public long getFactorGroupNanos() { return factorGroupNanos.sum(); }
+  
+  public void reset() {
+    LongAdder[] all = {operateCalls, equalsCalls, findIndexCalls, elementOrderCalls, elementsAllocated,
+      storeElementsByOrderCalls, storeElementsByOrderNanos, isNormalCalls, isNormalNanos,
+      factorGroupConstructions, factorGroupNanos};
+    for (int i = 0; i < all.length; i++)
+      all[i].reset();
+  }
+  
+  /* Returns the current value of every counter at once. */
+  public Snapshot snapshot() {
+    return new Snapshot(this);
+  }
+  
+  /* Registers these metrics with the platform MBean server, under
+   * abstract_alg:type=GroupMetrics,group="<group name>",id=<n>. */
+  void register(int id) {
+    try {
+      ObjectName name = new ObjectName("abstract_alg:type=GroupMetrics,group=" + ObjectName.quote(groupName) + ",id=" + id);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      objectName = name;
+    }
+    catch (JMException e) {
+      System.out.println("NOTE: Could not register metrics for " + groupName + " with JMX: " + e.getMessage());
+    }
+  }
+  
+  /* Removes these metrics from the platform MBean server, if they were registered. */
+  void unregister() {
+    if (objectName == null)
+      return;
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+    catch (JMException e) {
+      // already gone; nothing to do
+    }
+    objectName = null;
+  }
+  
+  public ObjectName getObjectName() {
+    return objectName;
+  }
+  
+  public String toString() {
+    return snapshot().toString();
+  }
+  
+  /* An unchanging copy of the counters, taken at one point in time. */
+  public static class Snapshot {
+    public final String groupName;
+    public final long operateCalls, equalsCalls, findIndexCalls, elementOrderCalls, elementsAllocated;
+    public final long storeElementsByOrderCalls, storeElementsByOrderNanos;
+    public final long isNormalCalls, isNormalNanos;
+    public final long factorGroupConstructions, factorGroupNanos;
+    
+    private Snapshot(GroupMetrics m) {
+      groupName = m.groupName;
+      operateCalls = m.getOperateCalls();
+      equalsCalls = m.getEqualsCalls();
+      findIndexCalls = m.getFindIndexCalls();
+      elementOrderCalls = m.getElementOrderCalls();
+      elementsAllocated = m.getElementsAllocated();
+      storeElementsByOrderCalls = m.getStoreElementsByOrderCalls();
+      storeElementsByOrderNanos = m.getStoreElementsByOrderNanos();
+      isNormalCalls = m.getIsNormalCalls();
+      isNormalNanos = m.getIsNormalNanos();
+      factorGroupConstructions = m.getFactorGroupConstructions();
+      factorGroupNanos = m.getFactorGroupNanos();
+    }
+    
+    public String toString() {
+      return "Metrics for " + groupName + ":"
+        + "\noperate: " + operateCalls + " calls, equals: " + equalsCalls + " calls, findIndex: " + findIndexCalls
+        + " calls, computeElementOrder: " + elementOrderCalls + " calls"
+        + "\nelements allocated: " + elementsAllocated
+        + "\nstoreElementsByOrder: " + storeElementsByOrderCalls + " calls, " + millis(storeElementsByOrderNanos) + " ms"
+        + "\nisNormal: " + isNormalCalls + " calls, " + millis(isNormalNanos) + " ms"
+        + "\nFactorGroup construction: " + factorGroupConstructions + " times, " + millis(factorGroupNanos) + " ms";
+    }
+    
+    private static double millis(long nanos) {
+      return nanos/1000000.0;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package abstract_alg;
+/* NAME: GroupMetricsMBean.java
+ * DATE: October 2026
+ * COMMENTS: The JMX management interface of GroupMetrics: call counts, allocation
+ * counts and cumulative timings for one Group, as shown in e.g. JConsole or VisualVM. */
+
+public interface GroupMetricsMBean {
+  public String getGroupName();
+  
+  public long getOperateCalls();
+  public long getEqualsCalls();
+  public long getFindIndexCalls();
+  public long getElementOrderCalls();
+  public long getElementsAllocated();
+  
+  public long getStoreElementsByOrderCalls();
+  public long getStoreElementsByOrderNanos();
+  public long getIsNormalCalls();
+  public long getIsNormalNanos();
+  public long getFactorGroupConstructions();
+  public long getFactorGroupNanos();
+  
+  /* Sets every counter back to zero. */
+  public void reset();
+}
@@ -0,0 +1,106 @@
+package abstract_alg;
+/* NAME: GroupTask.java
+ * DATE: October 2026
+ * COMMENTS: Runs one of the long computations on a group (listing its members, sorting
+ * them by order, checking a subgroup for normality, building a factor group) on an
+ * executor, as a CompletableFuture that can be cancelled part way through, and that
+ * reports how far it has got.  The work itself is the ordinary synchronous method; what
+ * makes it cancellable is that the loops in those methods call Group.checkpoint once per
+ * element, which looks up the task running on the current thread (if there is one) and
+ * throws a CancellationException if its future has been cancelled or the thread
+ * interrupted, or else passes the count on to the progress listener.  With no task
+ * running the checkpoint is a ThreadLocal lookup and nothing more.  Progress is counted
+ * in elements done out of a total, one stage at a time (listing S_n and then sorting it
+ * by order are two stages, each counting up to n!), and reported at most a hundred or so
+ * times a stage, so that listeners can afford to repaint.  See the *Async methods in
+ * Group for the computations on offer, e.g.
+ *   future = PermutationGroup.implicit(10).getMembersAsync(executor, (done, total) -> ...);
+ *   ...
+ *   future.cancel(true);
+ * A computation that is cancelled leaves the group as it was before it started. */
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+public final class GroupTask<T> {
+  private static final ThreadLocal<GroupTask<?>> CURRENT = new ThreadLocal<GroupTask<?>>();
+  private static final int REPORTS_PER_STAGE = 100;
+
+  /* Told of the elements done out of the total for the current stage, on the thread
+   * doing the work. */
+  @FunctionalInterface
+  public interface Progress {
+    void progress(long done, long total);
+  }
+
+  private final CompletableFuture<T> future = new CompletableFuture<T>();
+  private final Progress progress;
+  private long stageTotal = -1, lastDone, nextReport; // for spacing out the reports
+
+  private GroupTask(Progress progress) {
+    this.progress = progress;
+  }
+
+  /* Runs the work on the executor (the common fork-join pool if it is null), with the
+   * progress listener (if not null) told how it is going. */
+  static <T> CompletableFuture<T> submit(Executor executor, Progress progress, Supplier<T> work) {
+    GroupTask<T> task = new GroupTask<T>(progress);
+    try {
+      ((executor == null) ? ForkJoinPool.commonPool() : executor).execute(() -> task.run(work));
+    }
+    catch (RejectedExecutionException e) {
+      task.future.completeExceptionally(e);
+    }
+    return task.future;
+  }
+
+  /* Throws a CancellationException if the task running on this thread has been
+   * cancelled, and otherwise reports its progress. */
+  static void checkpoint(long done, long total) {
+    GroupTask<?> task = CURRENT.get();
+    if (task != null)
+      task.check(done, total);
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  private void run(Supplier<T> work) {
+    if (future.isDone()) // cancelled before it started
+      return;
+    GroupTask<?> outer = CURRENT.get(); // (set if the executor runs tasks on the caller's thread)
+    CURRENT.set(this);
+    try {
+      future.complete(work.get());
+    }
+    catch (CancellationException e) {
+      future.cancel(false);
+    }
+    catch (Throwable t) {
+      future.completeExceptionally(t);
+    }
+    finally {
+      if (outer == null)
+        CURRENT.remove();
+      else
+        CURRENT.set(outer);
+    }
+  }
+
+  private void check(long done, long total) {
+    if (future.isCancelled() || Thread.currentThread().isInterrupted())
+      throw new CancellationException();
+    if (progress == null)
+      return;
+    if (total != stageTotal || done < lastDone) { // a new stage
+      stageTotal = total;
+      nextReport = 0;
+    }
+    lastDone = done;
+    if (done >= nextReport || done == total) {
+      progress.progress(done, total);
+      nextReport = done + Math.max(1, total / REPORTS_PER_STAGE);
+    }
+  }
+}
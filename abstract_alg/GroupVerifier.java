@@ -0,0 +1,285 @@
+package abstract_alg;
+/* NAME: GroupVerifier.java
+ * DATE: October 2026
+ * COMMENTS: Checks that a finite "group" really satisfies the group axioms.  The Group
+ * class builds closure, identity and inverses into its constructors but takes
+ * associativity on trust (see the note at the top of Group.java), so a new subclass or a
+ * multiplication table typed in by hand may well not be a group at all.  The verifier
+ * works on the Cayley table - the n x n table of products of members, as positions in the
+ * members list - and checks, in this order:
+ *  - closure: every product is a member;
+ *  - identity: the identity's row and column leave everything where it is;
+ *  - inverses: every element has a two-sided inverse;
+ *  - associativity, by Light's test: (xg)y = x(gy) for every x, y and every g in a
+ *    generating set.  The elements g that pass are closed under products, so checking the
+ *    generators is enough, and the work is O(n^2 |gens|) lookups instead of O(n^3).
+ * The rows of the table are shared out over all the processor cores with fork/join, and
+ * the first failure found anywhere stops the rest of the work.  A failure comes with a
+ * counterexample (e.g. the triple x, g, y that isn't associative). */
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class GroupVerifier {
+  private static final int ROWS_PER_TASK = 16; // below this many rows, a task stops splitting
+
+  /* Checks a Group object, using a generating set of its own choosing. */
+  public static Result verify(Group g) {
+    return verify(g, null);
+  }
+
+  /* Checks a Group object, using the given generators for the associativity test (if
+   * they turn out not to generate the whole thing, more are added). */
+  public static Result verify(Group g, LinkedList<GroupElement> generators) {
+    final ArrayList<GroupElement> elements = new ArrayList<GroupElement>(g.getMembers());
+    final int n = elements.size();
+    final int[] table = new int[n*n];
+    final Group group = g;
+    final AtomicReference<Result> failure = new AtomicReference<Result>();
+
+    // build the Cayley table, which is where all the calls to operate happen:
+    ForkJoinPool.commonPool().invoke(new RowTask(0, n, failure, new RowWork() {
+      public void doRow(int i) {
+        GroupElement x = elements.get(i);
+        for (int j = 0; j < n; j++) {
+          int product = group.indexOf(group.operate(x, elements.get(j)));
+          if (product < 0) {
+            failure.compareAndSet(null, new Result("closure", new int[] {i, j}, elements));
+            return;
+          }
+          table[i*n + j] = product;
+        }
+      }
+    }));
+    if (failure.get() != null)
+      return failure.get();
+
+    int[] gens = null;
+    if (generators != null) {
+      gens = new int[generators.size()];
+      int k = 0;
+      for (GroupElement e : generators)
+        gens[k++] = g.indexOf(e);
+    }
+
+    Result result = verifyTable(table, n, g.indexOf(g.getIdentity()), gens);
+    return new Result(result.failedAxiom, result.counterexample, elements);
+  }
+
+  /* Checks a raw multiplication table on the elements 0, ..., n-1: the product of i and j
+   * is table[i*n + j].  If identity is -1 it is looked for; if gens is null (or doesn't
+   * generate everything) a generating set is found or completed greedily. */
+  public static Result verifyTable(final int[] table, final int n, int identity, int[] gens) {
+    final AtomicReference<Result> failure = new AtomicReference<Result>();
+
+    // closure: every entry is an element
+    for (int i = 0; i < n*n; i++) {
+      if (table[i] < 0 || table[i] >= n)
+        return new Result("closure", new int[] {i/n, i%n}, null);
+    }
+
+    // identity
+    if (identity < 0)
+      identity = findIdentity(table, n);
+    if (identity < 0)
+      return new Result("identity", new int[0], null);
+    for (int x = 0; x < n; x++) {
+      if (table[identity*n + x] != x || table[x*n + identity] != x)
+        return new Result("identity", new int[] {x}, null);
+    }
+
+    // inverses: x has a right inverse y (somewhere in its row), which must also be a left inverse
+    final int e = identity;
+    ForkJoinPool.commonPool().invoke(new RowTask(0, n, failure, new RowWork() {
+      public void doRow(int x) {
+        for (int y = 0; y < n; y++) {
+          if (table[x*n + y] == e) {
+            if (table[y*n + x] != e)
+              failure.compareAndSet(null, new Result("inverses", new int[] {x, y}, null));
+            return;
+          }
+        }
+        failure.compareAndSet(null, new Result("inverses", new int[] {x}, null));
+      }
+    }));
+    if (failure.get() != null)
+      return failure.get();
+
+    // associativity, by Light's test over a generating set
+    final int[] generators = completeGenerators(table, n, e, gens);
+    ForkJoinPool.commonPool().invoke(new RowTask(0, n, failure, new RowWork() {
+      public void doRow(int x) {
+        int row = x*n;
+        for (int k = 0; k < generators.length; k++) {
+          int g = generators[k];
+          int xgRow = table[row + g]*n;
+          int gRow = g*n;
+          for (int y = 0; y < n; y++) {
+            if (table[xgRow + y] != table[row + table[gRow + y]]) {
+              failure.compareAndSet(null, new Result("associativity", new int[] {x, g, y}, null));
+              return;
+            }
+          }
+        }
+      }
+    }));
+    if (failure.get() != null)
+      return failure.get();
+
+    return new Result(null, null, null);
+  }
+
+  /* Returns the element whose row and column are both the identity arrangement, or -1. */
+  private static int findIdentity(int[] table, int n) {
+    for (int candidate = 0; candidate < n; candidate++) {
+      boolean works = true;
+      for (int x = 0; x < n && works; x++)
+        works = (table[candidate*n + x] == x && table[x*n + candidate] == x);
+      if (works)
+        return candidate;
+    }
+    return -1;
+  }
+
+  /* Starting from the given generators (if any), greedily adds elements until every
+   * element is a product of generators.  Products are built up by multiplying on the
+   * right by one generator at a time. */
+  static int[] completeGenerators(int[] table, int n, int identity, int[] start) {
+    ArrayList<Integer> gens = new ArrayList<Integer>();
+    BitSet reached = new BitSet(n);
+    int[] queue = new int[n];
+
+    if (start != null) {
+      for (int i = 0; i < start.length; i++) {
+        if (start[i] >= 0 && start[i] < n)
+          gens.add(start[i]);
+      }
+    }
+    int tail = close(table, n, gens, reached, queue, 0);
+
+    for (int x = 0; x < n; x++) {
+      if (reached.get(x))
+        continue;
+      gens.add(x);
+      tail = close(table, n, gens, reached, queue, tail);
+    }
+
+    int[] result = new int[gens.size()];
+    for (int i = 0; i < result.length; i++)
+      result[i] = gens.get(i);
+    return result;
+  }
+
+  /* Breadth-first closure: adds the generators themselves, then everything reachable by
+   * right-multiplying reached elements by generators.  queue[0 .. tail-1] holds every
+   * element reached so far, and new ones are appended; returns the new tail. */
+  private static int close(int[] table, int n, ArrayList<Integer> gens, BitSet reached, int[] queue, int tail) {
+    for (int g : gens) {
+      if (!reached.get(g)) {
+        reached.set(g);
+        queue[tail++] = g;
+      }
+    }
+    // every reached element has to be multiplied by every generator again, since
+    // the last generator added is new to all of them:
+    for (int head = 0; head < tail; head++) {
+      int row = queue[head]*n;
+      for (int g : gens) {
+        int product = table[row + g];
+        if (!reached.get(product)) {
+          reached.set(product);
+          queue[tail++] = product;
+        }
+      }
+    }
+    return tail;
+  }
+
+  /* The work to be done on one row of the table. */
+  private interface RowWork {
+    void doRow(int row);
+  }
+
+  /* A fork/join task that does its work on a range of rows, splitting the range in half
+   * until it is small, and giving up as soon as any task has recorded a failure. */
+  private static class RowTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int from, to;
+    private final AtomicReference<Result> failure;
+    private final RowWork work;
+
+    RowTask(int from, int to, AtomicReference<Result> failure, RowWork work) {
+      this.from = from;
+      this.to = to;
+      this.failure = failure;
+      this.work = work;
+    }
+
+    protected void compute() {
+      if (to - from <= ROWS_PER_TASK) {
+        for (int i = from; i < to && failure.get() == null; i++)
+          work.doRow(i);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new RowTask(from, middle, failure, work), new RowTask(middle, to, failure, work));
+    }
+  }
+
+  /* The outcome of a verification: either a group, or the first axiom found to fail along
+   * with the elements that show it (as positions in the members list, and as elements if
+   * a Group was checked). */
+  public static class Result {
+    private final String failedAxiom;
+    private final int[] counterexample;
+    private final ArrayList<GroupElement> elements;
+
+    private Result(String failedAxiom, int[] counterexample, ArrayList<GroupElement> elements) {
+      this.failedAxiom = failedAxiom;
+      this.counterexample = counterexample;
+      this.elements = elements;
+    }
+
+    public boolean isGroup() {
+      return (failedAxiom == null);
+    }
+
+    /* "closure", "identity", "inverses" or "associativity"; null for a group. */
+    public String getFailedAxiom() {
+      return failedAxiom;
+    }
+
+    /* closure: {x, y} whose product isn't a member; identity: {x} that the identity
+     * moves (or {} if there is no identity at all); inverses: {x} with no inverse, or
+     * {x, y} where y is only a one-sided inverse; associativity: {x, g, y} with
+     * (xg)y != x(gy).  Null for a group. */
+    public int[] getCounterexample() {
+      return (counterexample == null) ? null : counterexample.clone();
+    }
+
+    public String toString() {
+      if (isGroup())
+        return "All group axioms hold.";
+
+      StringBuilder s = new StringBuilder("The " + failedAxiom + " axiom fails");
+      if (counterexample.length > 0) {
+        s.append(" for ");
+        for (int i = 0; i < counterexample.length; i++) {
+          if (i > 0)
+            s.append(", ");
+          s.append((elements == null) ? "element " + counterexample[i] : elements.get(counterexample[i]).toString());
+        }
+      }
+      return s.append('.').toString();
+    }
+  }
+
+  public static void main(String[] args) {
+//    System.out.println(verify(new PermutationGroup(5))); // All group axioms hold.
+//    System.out.println(verify(new DihedralGroup(7)));
+//    // subtraction mod 3 has an identity on one side only:
+//    int[] minus = {0, 2, 1,  1, 0, 2,  2, 1, 0};
+//    System.out.println(verifyTable(minus, 3, -1, null)); // The identity axiom fails.
+  }
+}
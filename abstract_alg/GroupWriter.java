@@ -0,0 +1,304 @@
+package abstract_alg;
+/* NAME: GroupWriter.java
+ * DATE: October 2026
+ * COMMENTS: Writes out the contents of a group - its members, its elements sorted by
+ * order, or the cosets of a factor group - to any Appendable (a Writer, a PrintStream,
+ * a StringBuilder...) as it goes, instead of building the whole thing up as one String
+ * the way toString does.  Output is collected in one small reusable buffer that is
+ * handed on to the Appendable whenever it fills up, so memory use stays the same however
+ * many elements are written; together with an element iterator that builds elements on
+ * demand (e.g. PermutationGroup.allPermutations) a listing of millions of elements can be
+ * written without ever holding more than one of them.  Three formats are available:
+ *  - PLAIN: the same layout as the toString methods, one element per line;
+ *  - CSV: one row per element, with a header row;
+ *  - GAP: lists that can be read straight into the GAP computer algebra system.
+ *    Permutations are written in GAP's cycle notation, integers mod n as
+ *    ZmodnZObj(k, n), and dihedral elements as permutations of the vertices
+ *    1, ..., n of the polygon (vertex i sitting at angle (i-1)*360/n degrees). */
+
+import java.io.*;
+import java.util.*;
+
+public class GroupWriter {
+  public enum Format { PLAIN, CSV, GAP }
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Appendable out;
+  private final Format format;
+  private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+
+  public GroupWriter(Appendable out, Format format) {
+    this.out = out;
+    this.format = format;
+  }
+
+  /* Writes every element of the group, as given by its elementIterator. */
+  public void writeMembers(Group g) throws IOException {
+    writeElements(g.groupName(), g.elementIterator(), g);
+  }
+
+  /* Writes a stream of elements under the given name.  The context group, if not null,
+   * is used to write elements that need it (integers mod n, dihedral elements) in GAP
+   * format; the elements are only looked at one at a time. */
+  public void writeElements(String name, Iterator<? extends GroupElement> elements, Group context) throws IOException {
+    if (format == Format.PLAIN)
+      buffer.append(name).append(':');
+    else if (format == Format.CSV)
+      buffer.append("index,element");
+    else
+      buffer.append(gapName(name)).append(" := [");
+
+    long index = 0;
+    while (elements.hasNext()) {
+      GroupElement e = elements.next();
+
+      if (format == Format.PLAIN)
+        buffer.append('\n').append(e.toString());
+      else if (format == Format.CSV) {
+        buffer.append('\n').append(index).append(',');
+        appendCsvField(e.toString());
+      }
+      else {
+        buffer.append((index == 0) ? "\n  " : ",\n  ");
+        appendGap(e, context);
+      }
+
+      index++;
+      flushIfFull();
+    }
+
+    if (format == Format.GAP)
+      buffer.append("\n];");
+    buffer.append('\n');
+    flush();
+  }
+
+  /* Writes the elements of the group sorted by element order (calling
+   * storeElementsByOrder first if that hasn't been done yet). */
+  public void writeOrderClasses(Group g) throws IOException {
+    if (g.getElementsByOrder() == null)
+      g.storeElementsByOrder();
+    Hashtable<Integer, LinkedList<GroupElement>> byOrder = g.getElementsByOrder();
+    TreeSet<Integer> orders = new TreeSet<Integer>(byOrder.keySet());
+
+    if (format == Format.PLAIN)
+      buffer.append("This group has: ");
+    else if (format == Format.CSV)
+      buffer.append("order,element");
+    else
+      buffer.append(gapName(g.groupName())).append("_byOrder := [");
+
+    boolean firstClass = true;
+    for (Integer order : orders) {
+      LinkedList<GroupElement> current = byOrder.get(order);
+
+      if (format == Format.PLAIN)
+        buffer.append('\n').append(current.size()).append((current.size() == 1) ? " element of order " : " elements of order ")
+          .append(order).append(':');
+      else if (format == Format.GAP)
+        buffer.append(firstClass ? "\n  [ " : ",\n  [ ").append(order).append(", [");
+
+      boolean firstElement = true;
+      for (GroupElement e : current) {
+        if (format == Format.PLAIN)
+          buffer.append(firstElement ? " " : ", ").append(e.toString());
+        else if (format == Format.CSV) {
+          buffer.append('\n').append(order).append(',');
+          appendCsvField(e.toString());
+        }
+        else {
+          buffer.append(firstElement ? " " : ", ");
+          appendGap(e, g);
+        }
+        firstElement = false;
+        flushIfFull();
+      }
+
+      if (format == Format.GAP)
+        buffer.append(" ] ]");
+      firstClass = false;
+    }
+
+    if (format == Format.GAP)
+      buffer.append("\n];");
+    buffer.append('\n');
+    flush();
+  }
+
+  /* Writes every coset of a factor group, listing all of its members. */
+  public void writeCosets(FactorGroup f) throws IOException {
+    Group context = f.getContextGroup();
+
+    if (format == Format.PLAIN)
+      buffer.append("The factor group of ").append(f.getSubgroup().toString()).append(" in ")
+        .append(context.groupName()).append(" contains:");
+    else if (format == Format.CSV)
+      buffer.append("coset,element");
+    else
+      buffer.append(gapName(context.groupName())).append("_cosets := [");
+
+    int index = 0;
+    Iterator<GroupElement> cosets = f.elementIterator();
+    while (cosets.hasNext()) {
+      Coset c = (Coset)cosets.next();
+
+      if (format == Format.PLAIN) {
+        GroupElement rep = c.getPrimaryRep();
+        buffer.append('\n').append(rep.toString().equalsIgnoreCase("identity") ?
+                                     "The coset generated by the identity:" :
+                                     "The coset generated by " + rep.toString() + ":");
+      }
+      else if (format == Format.GAP)
+        buffer.append((index == 0) ? "\n  [" : ",\n  [");
+
+      boolean firstElement = true;
+      Iterator<GroupElement> it = c.iterator();
+      while (it.hasNext()) {
+        GroupElement e = it.next();
+        if (format == Format.PLAIN)
+          buffer.append(firstElement ? " " : ", ").append(e.toString());
+        else if (format == Format.CSV) {
+          buffer.append('\n').append(index).append(',');
+          appendCsvField(e.toString());
+        }
+        else {
+          buffer.append(firstElement ? " " : ", ");
+          appendGap(e, context);
+        }
+        firstElement = false;
+        flushIfFull();
+      }
+
+      if (format == Format.GAP)
+        buffer.append(" ]");
+      index++;
+    }
+
+    if (format == Format.GAP)
+      buffer.append("\n];");
+    buffer.append('\n');
+    flush();
+  }
+
+  /* Hands whatever is in the buffer on to the Appendable. */
+  public void flush() throws IOException {
+    if (buffer.length() > 0) {
+      out.append(buffer);
+      buffer.setLength(0);
+    }
+    if (out instanceof Flushable)
+      ((Flushable)out).flush();
+  }
+
+  private void flushIfFull() throws IOException {
+    if (buffer.length() >= BUFFER_SIZE) {
+      out.append(buffer);
+      buffer.setLength(0);
+    }
+  }
+
+  /* Quotes a CSV field if it contains a comma, quote or line break. */
+  private void appendCsvField(String field) {
+    if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0) {
+      buffer.append(field);
+      return;
+    }
+    buffer.append('"');
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == '"')
+        buffer.append('"');
+      buffer.append(c);
+    }
+    buffer.append('"');
+  }
+
+  /* Writes an element in GAP syntax; anything GAP has no notation for is written as a string. */
+  private void appendGap(GroupElement e, Group context) {
+    if (e instanceof Permutation)
+      appendGapCycles(((Permutation)e).getCycles());
+    else if (e instanceof ModularInt && context instanceof ZmodN) {
+      int n = context.dimension;
+      int k = ((((ModularInt)e).getIntValue() % n) + n) % n;
+      buffer.append("ZmodnZObj(").append(k).append(", ").append(n).append(')');
+    }
+    else if (e instanceof Dihedral && context instanceof DihedralGroup)
+      appendGapDihedral((Dihedral)e, context.dimension);
+    else if (e instanceof Coset) {
+      Coset c = (Coset)e;
+      buffer.append('[');
+      boolean first = true;
+      Iterator<GroupElement> it = c.iterator();
+      while (it.hasNext()) {
+        buffer.append(first ? " " : ", ");
+        appendGap(it.next(), c.getContextGroup());
+        first = false;
+      }
+      buffer.append(" ]");
+    }
+    else {
+      buffer.append('"');
+      String s = e.toString();
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c == '"' || c == '\\')
+          buffer.append('\\');
+        buffer.append(c);
+      }
+      buffer.append('"');
+    }
+  }
+
+  private void appendGapCycles(int[][] cycles) {
+    if (cycles.length == 0)
+      buffer.append("()");
+    for (int k = 0; k < cycles.length; k++) {
+      buffer.append('(');
+      for (int i = 0; i < cycles[k].length; i++) {
+        if (i > 0)
+          buffer.append(',');
+        buffer.append(cycles[k][i]);
+      }
+      buffer.append(')');
+    }
+  }
+
+  /* A rotation through k*(360/n) degrees sends vertex i to vertex i+k, and a reflection
+   * over the axis at j*(180/n) degrees sends vertex i to vertex j-i (counting vertices
+   * from 0 and working mod n), since it sends the angle a to 2*(axis angle) - a. */
+  private void appendGapDihedral(Dihedral d, int n) {
+    int[] images = new int[n];
+    if (d.isRotation()) {
+      int k = (int)Math.round(d.getDegree()*n/360.0);
+      for (int i = 0; i < n; i++)
+        images[i] = (((i + k) % n) + n) % n + 1;
+    }
+    else {
+      int j = (int)Math.round(d.getDegree()*n/180.0);
+      for (int i = 0; i < n; i++)
+        images[i] = (((j - i) % n) + n) % n + 1;
+    }
+    appendGapCycles(new Permutation(images).getCycles());
+  }
+
+  /* Turns a group name into something GAP accepts as a variable name. */
+  private static String gapName(String name) {
+    StringBuilder s = new StringBuilder();
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      s.append(Character.isLetterOrDigit(c) ? c : '_');
+    }
+    if (s.length() == 0 || !Character.isLetter(s.charAt(0)))
+      s.insert(0, 'G');
+    return s.toString();
+  }
+
+  public static void main(String[] args) throws IOException {
+//    Writer w = new BufferedWriter(new OutputStreamWriter(System.out));
+//    GroupWriter gap = new GroupWriter(w, Format.GAP);
+//    gap.writeMembers(new DihedralGroup(4));
+//    gap.writeOrderClasses(new PermutationGroup(3));
+//    new GroupWriter(w, Format.CSV).writeElements("S10", PermutationGroup.allPermutations(10), null); // 3628800 rows
+  }
+}
@@ -0,0 +1,47 @@
+package abstract_alg;
+/* NAME: Matrix2x2.java
+ * DATE: October 2026
+ * COMMENTS: An element of GL(2, p) or SL(2, p) (see GL2p): a 2x2 matrix [[a, b], [c, d]]
+ * over the integers mod p, for a prime p < 2^16, with its four entries packed sixteen
+ * bits apiece into one long - a in the lowest bits, then b, c and d.  All the arithmetic
+ * is done by the group on the packed values; the element is just a wrapper, so that it
+ * can be handed to everything that works on GroupElements. */
+
+public class Matrix2x2 extends GroupElement {
+  private final long packed;
+
+  public Matrix2x2(long packed) {
+    this.packed = packed;
+  }
+
+  /* The matrix [[a, b], [c, d]], whose entries must already be reduced mod p. */
+  public Matrix2x2(int a, int b, int c, int d) {
+    this(pack(a, b, c, d));
+  }
+
+  public long packedValue() {
+    return packed;
+  }
+
+  /* The entry in the given row and column, each 0 or 1. */
+  public int entry(int row, int column) {
+    return entry(packed, 2*row + column);
+  }
+
+  public String toString() {
+    return "[[" + entry(packed, 0) + ", " + entry(packed, 1) + "], [" + entry(packed, 2) + ", " + entry(packed, 3) + "]]";
+  }
+
+  public boolean equals(GroupElement another) {
+    return (another instanceof Matrix2x2) && ((Matrix2x2)another).packed == packed;
+  }
+
+  static long pack(long a, long b, long c, long d) {
+    return a | (b << 16) | (c << 32) | (d << 48);
+  }
+
+  /* Entry k of a packed matrix: a, b, c, d for k = 0, 1, 2, 3. */
+  static int entry(long packed, int k) {
+    return (int)((packed >>> (16*k)) & 0xffff);
+  }
+}
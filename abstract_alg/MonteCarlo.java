@@ -0,0 +1,172 @@
+package abstract_alg;
+/* NAME: MonteCarlo.java
+ * DATE: October 2026
+ * COMMENTS: Statistics of groups too big to list, estimated from random elements (see
+ * ProductReplacement): the fraction of elements of each order, and the probability that
+ * two random elements generate the whole group.  The samples are split into chunks that
+ * run in parallel on the common fork-join pool, each thread drawing from its own
+ * product replacement state and counting into its own tallies, which are only added up
+ * at the end.  Every fraction comes with a 95% confidence interval - the Wilson score
+ * interval, which unlike the textbook p +- 1.96 sqrt(p(1-p)/N) behaves itself for
+ * fractions near 0 or 1 (the identity, say, or elements of the largest order).  Finding
+ * orders is cheap, so the order distribution runs at millions of samples a second for
+ * packed permutations; deciding whether two elements generate is not (it takes a
+ * stabilizer chain for permutations, and a closure otherwise), so expect a few thousand
+ * a second there. */
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+public final class MonteCarlo {
+  public static final double Z = 1.959963984540054; // the 97.5th percentile of N(0, 1), for 95% intervals
+  private static final long CHUNK = 4096; // samples per parallel task
+
+  private MonteCarlo() {}
+
+  /* The estimated fraction of the group's elements of each order, by order. */
+  public static TreeMap<Integer, Estimate> orderDistribution(ProductReplacement source, long samples) {
+    checkSamples(samples);
+    HashMap<Integer, long[]> counts = LongStream.range(0, numChunks(samples)).parallel()
+      .mapToObj(c -> {
+        HashMap<Integer, long[]> tally = new HashMap<Integer, long[]>();
+        for (long k = 0, n = chunkSize(c, samples); k < n; k++)
+          tally.computeIfAbsent(source.order(source.next()), order -> new long[1])[0]++;
+        return tally;
+      })
+      .reduce(new HashMap<Integer, long[]>(), MonteCarlo::merge);
+
+    TreeMap<Integer, Estimate> distribution = new TreeMap<Integer, Estimate>();
+    for (Map.Entry<Integer, long[]> e : counts.entrySet())
+      distribution.put(e.getKey(), new Estimate(e.getValue()[0], samples));
+    return distribution;
+  }
+
+  /* The estimated probability that two random elements generate the whole group (the one
+   * the source's generators generate). */
+  public static Estimate generationProbability(ProductReplacement source, long samples) {
+    checkSamples(samples);
+    Group group = source.getGroup();
+    LinkedList<GroupElement> generators = source.getGenerators();
+    boolean permutations = (generators.getFirst() instanceof Permutation);
+    Object whole = permutations ? chain(generators).getOrder() : (Object)Long.valueOf(closureSize(group, generators));
+
+    long hits = LongStream.range(0, numChunks(samples)).parallel()
+      .map(c -> {
+        long tally = 0;
+        for (long k = 0, n = chunkSize(c, samples); k < n; k++) {
+          LinkedList<GroupElement> pair = new LinkedList<GroupElement>();
+          pair.add(source.next());
+          pair.add(source.next());
+          Object order = permutations ? chain(pair).getOrder() : (Object)Long.valueOf(closureSize(group, pair));
+          if (order.equals(whole))
+            tally++;
+        }
+        return tally;
+      })
+      .sum();
+    return new Estimate(hits, samples);
+  }
+
+  /* A fraction hits/samples, with its 95% confidence interval. */
+  public static final class Estimate {
+    private final long hits, samples;
+
+    public Estimate(long hits, long samples) {
+      if (samples <= 0 || hits < 0 || hits > samples)
+        throw new IllegalArgumentException("Can't estimate a fraction from " + hits + " hits in " + samples + " samples.");
+      this.hits = hits;
+      this.samples = samples;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getSamples() {
+      return samples;
+    }
+
+    public double getFraction() {
+      return (double)hits / samples;
+    }
+
+    /* The ends of the Wilson score interval. */
+    public double getLower() {
+      return centre() - halfWidth();
+    }
+
+    public double getUpper() {
+      return centre() + halfWidth();
+    }
+
+    public String toString() {
+      return String.format("%.6f [%.6f, %.6f]", getFraction(), Math.max(0, getLower()), Math.min(1, getUpper()));
+    }
+
+    private double centre() {
+      double p = getFraction(), z2 = Z*Z / samples;
+      return (p + z2/2) / (1 + z2);
+    }
+
+    private double halfWidth() {
+      double p = getFraction(), z2 = Z*Z / samples;
+      return Z * Math.sqrt(p*(1-p)/samples + z2/(4*samples)) / (1 + z2);
+    }
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  private static void checkSamples(long samples) {
+    if (samples <= 0)
+      throw new IllegalArgumentException("The number of samples must be positive, not " + samples + ".");
+  }
+
+  private static long numChunks(long samples) {
+    return (samples + CHUNK - 1) / CHUNK;
+  }
+
+  private static long chunkSize(long chunk, long samples) {
+    return Math.min(CHUNK, samples - chunk*CHUNK);
+  }
+
+  private static HashMap<Integer, long[]> merge(HashMap<Integer, long[]> a, HashMap<Integer, long[]> b) {
+    HashMap<Integer, long[]> sum = new HashMap<Integer, long[]>(a);
+    for (Map.Entry<Integer, long[]> e : b.entrySet()) {
+      long[] count = sum.get(e.getKey());
+      sum.put(e.getKey(), new long[] {e.getValue()[0] + ((count == null) ? 0 : count[0])});
+    }
+    return sum;
+  }
+
+  private static StabilizerChain chain(LinkedList<GroupElement> elements) {
+    LinkedList<Permutation> perms = new LinkedList<Permutation>();
+    for (GroupElement e : elements)
+      perms.add((Permutation)e);
+    return new StabilizerChain(perms);
+  }
+
+  /* The order of the subgroup the elements generate, by multiplying everything reached by
+   * the elements until nothing new turns up. */
+  private static long closureSize(Group group, List<GroupElement> elements) {
+    ArrayList<GroupElement> reached = new ArrayList<GroupElement>();
+    HashSet<Object> seen = new HashSet<Object>();
+    reached.add(group.getIdentity());
+    seen.add(group.hashKey(group.getIdentity()));
+    for (int head = 0; head < reached.size(); head++) {
+      for (GroupElement g : elements) {
+        GroupElement product = group.operate(reached.get(head), g);
+        if (seen.add(group.hashKey(product)))
+          reached.add(product);
+      }
+    }
+    return reached.size();
+  }
+
+  public static void main(String[] args) {
+//    ProductReplacement random = ProductReplacement.ofPermutations(PermutationGroup.standardGenerators(10));
+//    System.out.println(orderDistribution(random, 1000000).get(1)); // about 1/10! - so most likely 0
+//    System.out.println(generationProbability(random, 10000)); // about 0.66: a little under 3/4 (Dixon)
+  }
+}
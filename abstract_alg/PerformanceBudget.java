@@ -0,0 +1,345 @@
+package abstract_alg;
+/* NAME: PerformanceBudget.java
+ * DATE: October 2026
+ * COMMENTS: Guards the core operations against changes that quietly make them allocate
+ * more or scale worse.  Each workload runs one operation - operate, getInverse,
+ * computeElementOrder, generateSubgroup, isNormal or FactorGroup construction - on the
+ * same groups and elements every time, at four sizes, and measures at each size
+ *  - the bytes allocated per operation, from the JVM's count of the bytes this thread
+ *    has allocated (com.sun.management.ThreadMXBean.getCurrentThreadAllocatedBytes), which
+ *    doesn't depend on the machine or on timing, so it can be budgeted tightly;
+ *  - the time per operation, the best of a few runs after a warm-up.
+ * From the four sizes it fits the scaling exponents: the slope of log(bytes) and of
+ * log(time) against log(size), which is about 1 for a linear operation, 2 for a
+ * quadratic one and so on, whatever the machine's speed.  These are checked against the
+ * budget file, performance-budget.txt beside this one, which has one line per workload:
+ *   workload  bytes/op at the largest size  bytes exponent  time exponent
+ * (# starts a comment).  A workload over any of its budgets, or with no budget at all,
+ * fails the run, and main then exits with status 1, so that it can be run as a step of a
+ * build, e.g.
+ *   java abstract_alg.PerformanceBudget abstract_alg/performance-budget.txt
+ * When a change is meant to cost more (or, better, less), run it with --record to print a
+ * new budget from the measurements, with some slack added, and check that in instead.
+ * The result caches are switched off for every workload but generateSubgroup.Z_n.cached,
+ * so that repeating an operation really repeats the work; that one measures what a
+ * cache hit costs in a listed group - making the key and copying the answer - which
+ * should grow only with the bitset the key is kept in, far slower than the group.  The whole run takes under a minute. */
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.IntFunction;
+
+public class PerformanceBudget {
+  private static final long MIN_RUN_NANOS = 20000000; // each size is repeated for at least 20 ms
+  private static final int TIMED_RUNS = 3; // taking the best
+  // the slack --record adds: allocation is the same from run to run, time isn't
+  private static final double BYTES_SLACK = 1.25, BYTES_EXPONENT_SLACK = 0.25, TIME_EXPONENT_SLACK = 0.5;
+
+  private static final com.sun.management.ThreadMXBean THREADS = threads();
+  private static volatile Object sink; // every result goes here, so the JIT can't drop the work
+
+  private final ArrayList<Workload> workloads = new ArrayList<Workload>();
+
+  /* The standard workloads. */
+  public PerformanceBudget() {
+    add("operate.Z_n", new int[] {1000, 10000, 100000, 1000000}, n -> {
+      ZmodN g = ZmodN.implicit(n);
+      GroupElement a = new ModularInt(n/3), b = new ModularInt(n/2);
+      return () -> g.operate(a, b);
+    });
+    add("operate.S_n", new int[] {64, 128, 256, 512}, n -> {
+      PermutationGroup g = PermutationGroup.implicit(n);
+      GroupElement a = randomPermutation(n, 1), b = randomPermutation(n, 2);
+      return () -> g.operate(a, b);
+    });
+    add("getInverse.S_n", new int[] {64, 128, 256, 512}, n -> {
+      PermutationGroup g = PermutationGroup.implicit(n);
+      GroupElement a = randomPermutation(n, 3);
+      return () -> g.getInverse(a);
+    });
+    // permutations remember their cycles, so each order is taken of a fresh product:
+    add("computeElementOrder.S_n", new int[] {64, 128, 256, 512}, n -> {
+      PermutationGroup g = PermutationGroup.implicit(n);
+      GroupElement a = randomPermutation(n, 4), b = randomPermutation(n, 5);
+      return () -> g.computeElementOrder(g.operate(a, b));
+    });
+    add("computeElementOrder.D_n", new int[] {100, 1000, 10000, 100000}, n -> {
+      DihedralGroup g = DihedralGroup.implicit(n);
+      GroupElement r = new Dihedral("rotation", 360.0/n);
+      return () -> g.computeElementOrder(r);
+    });
+    add("generateSubgroup.Z_n", new int[] {1000, 2000, 4000, 8000}, n -> {
+      ZmodN g = uncached(ZmodN.implicit(n));
+      GroupElement one = new ModularInt(1);
+      return () -> g.generateSubgroup(one);
+    });
+    add("generateSubgroup.Z_n.cached", new int[] {1000, 2000, 4000, 8000}, n -> {
+      ZmodN g = new ZmodN(n);
+      GroupElement half = new ModularInt(n/2); // (a subgroup of order 2, so that only the lookup grows)
+      g.generateSubgroup(half);
+      return () -> g.generateSubgroup(half);
+    });
+    // the rotations are half the group, so the |G||H| products make this quadratic:
+    add("isNormal.D_n", new int[] {64, 128, 256, 512}, n -> {
+      DihedralGroup g = uncached(new DihedralGroup(n));
+      LinkedList<GroupElement> rotations = g.generateSubgroup(new Dihedral("rotation", 360.0/n));
+      return () -> g.isNormal(rotations);
+    });
+    add("FactorGroup.Z_n", new int[] {512, 1024, 2048, 4096}, n -> {
+      ZmodN g = uncached(new ZmodN(n));
+      LinkedList<GroupElement> four = g.generateSubgroup(new ModularInt(n/4)); // a subgroup of order 4
+      return () -> new FactorGroup(g, four);
+    });
+  }
+
+  /* Adds a workload: for each size, prepare builds the groups and elements (which isn't
+   * measured) and returns the operation to measure. */
+  public void add(String name, int[] sizes, IntFunction<Operation> prepare) {
+    if (sizes.length < 2)
+      throw new IllegalArgumentException("A workload needs at least two sizes to find how it scales.");
+    workloads.add(new Workload(name, sizes, prepare));
+  }
+
+  /* Measures every workload. */
+  public LinkedHashMap<String, Measurement> measure(PrintStream log) {
+    LinkedHashMap<String, Measurement> results = new LinkedHashMap<String, Measurement>();
+    for (Workload w : workloads) {
+      Measurement m = w.measure();
+      results.put(w.name, m);
+      if (log != null)
+        log.println(m);
+    }
+    return results;
+  }
+
+  /* The budgets broken by the measurements (a workload with no budget breaks it). */
+  public static List<String> check(Map<String, Measurement> measured, Map<String, Budget> budgets) {
+    ArrayList<String> failures = new ArrayList<String>();
+    for (Measurement m : measured.values()) {
+      Budget b = budgets.get(m.name);
+      if (b == null)
+        failures.add(m.name + ": no budget; run with --record and check one in.");
+      else {
+        if (m.bytesPerOp() > b.bytesPerOp)
+          failures.add(String.format("%s: %.0f bytes/op at size %d, over the budget of %.0f.", m.name, m.bytesPerOp(),
+                                     m.sizes[m.sizes.length-1], b.bytesPerOp));
+        if (m.bytesExponent() > b.bytesExponent)
+          failures.add(String.format("%s: allocation grows like n^%.2f, over the budget of n^%.2f.", m.name, m.bytesExponent(),
+                                     b.bytesExponent));
+        if (m.timeExponent() > b.timeExponent)
+          failures.add(String.format("%s: time grows like n^%.2f, over the budget of n^%.2f.", m.name, m.timeExponent(),
+                                     b.timeExponent));
+      }
+    }
+    return failures;
+  }
+
+  /* Reads a budget file (see the comments at the top). */
+  public static LinkedHashMap<String, Budget> readBudgets(Reader in) throws IOException {
+    LinkedHashMap<String, Budget> budgets = new LinkedHashMap<String, Budget>();
+    BufferedReader lines = new BufferedReader(in);
+    int lineNumber = 0;
+    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+      lineNumber++;
+      int hash = line.indexOf('#');
+      String[] fields = ((hash < 0) ? line : line.substring(0, hash)).trim().split("\\s+");
+      if (fields[0].isEmpty())
+        continue;
+      if (fields.length != 4)
+        throw new IOException("Line " + lineNumber + " of the budget should have a workload and three numbers.");
+      try {
+        budgets.put(fields[0], new Budget(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), Double.parseDouble(fields[3])));
+      }
+      catch (NumberFormatException e) {
+        throw new IOException("Line " + lineNumber + " of the budget has a bad number: " + e.getMessage());
+      }
+    }
+    return budgets;
+  }
+
+  /* A budget file allowing the measurements plus some slack. */
+  public static String record(Map<String, Measurement> measured) {
+    StringBuilder s = new StringBuilder("# workload                  bytes/op  bytes exp  time exp\n");
+    for (Measurement m : measured.values())
+      s.append(String.format(Locale.ROOT, "%-26s %9.0f %10.2f %9.2f%n", m.name, Math.ceil(m.bytesPerOp() * BYTES_SLACK),
+                             Math.max(0, m.bytesExponent()) + BYTES_EXPONENT_SLACK,
+                             Math.max(0, m.timeExponent()) + TIME_EXPONENT_SLACK));
+    return s.toString();
+  }
+
+  /* One repetition of a workload's operation. */
+  @FunctionalInterface
+  public interface Operation {
+    Object run();
+  }
+
+  /* The limits for one workload. */
+  public static final class Budget {
+    public final double bytesPerOp, bytesExponent, timeExponent;
+
+    public Budget(double bytesPerOp, double bytesExponent, double timeExponent) {
+      this.bytesPerOp = bytesPerOp;
+      this.bytesExponent = bytesExponent;
+      this.timeExponent = timeExponent;
+    }
+  }
+
+  /* What one workload cost at each of its sizes. */
+  public static final class Measurement {
+    public final String name;
+    private final int[] sizes;
+    private final double[] bytes, nanos; // per operation
+
+    private Measurement(String name, int[] sizes, double[] bytes, double[] nanos) {
+      this.name = name;
+      this.sizes = sizes;
+      this.bytes = bytes;
+      this.nanos = nanos;
+    }
+
+    /* At the largest size. */
+    public double bytesPerOp() {
+      return bytes[bytes.length-1];
+    }
+
+    public double nanosPerOp() {
+      return nanos[nanos.length-1];
+    }
+
+    public double bytesExponent() {
+      return slope(sizes, bytes);
+    }
+
+    public double timeExponent() {
+      return slope(sizes, nanos);
+    }
+
+    public String toString() {
+      StringBuilder s = new StringBuilder(String.format("%-26s", name));
+      for (int i = 0; i < sizes.length; i++)
+        s.append(String.format("  n=%d: %.0f B, %.0f ns", sizes[i], bytes[i], nanos[i]));
+      return s.append(String.format("  (bytes ~ n^%.2f, time ~ n^%.2f)", bytesExponent(), timeExponent())).toString();
+    }
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  private static final class Workload {
+    private final String name;
+    private final int[] sizes;
+    private final IntFunction<Operation> prepare;
+
+    private Workload(String name, int[] sizes, IntFunction<Operation> prepare) {
+      this.name = name;
+      this.sizes = sizes.clone();
+      this.prepare = prepare;
+    }
+
+    private Measurement measure() {
+      double[] bytes = new double[sizes.length], nanos = new double[sizes.length];
+      Operation[] ops = new Operation[sizes.length];
+      for (int i = 0; i < sizes.length; i++) { // a warm-up at every size, so that the JIT has seen them all
+        ops[i] = prepare.apply(sizes[i]);
+        calibrate(ops[i]);
+      }
+      for (int i = 0; i < sizes.length; i++) {
+        Operation op = ops[i];
+        long reps = calibrate(op);
+        nanos[i] = Double.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+          long start = System.nanoTime();
+          repeat(op, reps);
+          nanos[i] = Math.min(nanos[i], (System.nanoTime() - start) / (double)reps);
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        repeat(op, reps);
+        bytes[i] = (THREADS.getCurrentThreadAllocatedBytes() - before) / (double)reps;
+      }
+      return new Measurement(name, sizes, bytes, nanos);
+    }
+  }
+
+  /* How many repetitions take at least MIN_RUN_NANOS. */
+  private static long calibrate(Operation op) {
+    for (long reps = 1; ; reps *= 2) {
+      long start = System.nanoTime();
+      repeat(op, reps);
+      if (System.nanoTime() - start >= MIN_RUN_NANOS)
+        return reps;
+    }
+  }
+
+  private static void repeat(Operation op, long reps) {
+    Object result = null;
+    for (long r = 0; r < reps; r++)
+      result = op.run();
+    sink = result;
+  }
+
+  /* The least-squares slope of log(y) against log(x); costs too small to measure (under a
+   * byte or a nanosecond) count as one. */
+  private static double slope(int[] xs, double[] ys) {
+    int n = xs.length;
+    double sx = 0, sy = 0, sxx = 0, sxy = 0;
+    for (int i = 0; i < n; i++) {
+      double x = Math.log(xs[i]), y = Math.log(Math.max(ys[i], 1));
+      sx += x;
+      sy += y;
+      sxx += x*x;
+      sxy += x*y;
+    }
+    return (n*sxy - sx*sy) / (n*sxx - sx*sx);
+  }
+
+  /* The same "random" permutation of {1, ..., n} every run. */
+  private static Permutation randomPermutation(int n, long seed) {
+    int[] images = PermArrays.identity(n);
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int i = n-1; i > 0; i--) {
+      int j = random.nextInt(i+1), t = images[i];
+      images[i] = images[j];
+      images[j] = t;
+    }
+    return PermArrays.toPermutation(images);
+  }
+
+  private static <G extends Group> G uncached(G g) {
+    g.setResultCache(null);
+    return g;
+  }
+
+  private static com.sun.management.ThreadMXBean threads() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)
+          || !((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported())
+      throw new IllegalStateException("This JVM can't count the bytes a thread allocates.");
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)bean;
+    threads.setThreadAllocatedMemoryEnabled(true);
+    return threads;
+  }
+
+  public static void main(String[] args) throws IOException {
+    boolean recording = args.length > 0 && args[0].equals("--record");
+    String file = (args.length > (recording ? 1 : 0)) ? args[recording ? 1 : 0] : "abstract_alg/performance-budget.txt";
+
+    LinkedHashMap<String, Measurement> measured = new PerformanceBudget().measure(System.out);
+    if (recording) {
+      System.out.print(record(measured));
+      return;
+    }
+    LinkedHashMap<String, Budget> budgets;
+    try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+      budgets = readBudgets(in);
+    }
+    List<String> failures = check(measured, budgets);
+    for (String f : failures)
+      System.out.println("OVER BUDGET: " + f);
+    System.out.println(failures.isEmpty() ? "All " + measured.size() + " workloads are within budget." : failures.size() + " budgets broken.");
+    if (!failures.isEmpty())
+      System.exit(1);
+  }
+}
@@ -0,0 +1,170 @@
+package abstract_alg;
+/* NAME: PermArrays.java
+ * DATE: October 2026
+ * COMMENTS: Bare-bones permutations of {0, ..., n-1} stored as plain int arrays (p[x] is
+ * where x goes), for the algorithms that push around thousands of permutations on
+ * thousands of points, where a Hashtable per Permutation would cost far too much.  Products
+ * follow the same convention as PermutationGroup.operate: compose(a, b) applies b first.
+ * Conversions to and from Permutation shift between these 0-based arrays and the 1-based
+ * {1, ..., n} that Permutation uses. */
+
+import java.util.*;
+
+final class PermArrays {
+  private PermArrays() {}
+
+  static int[] identity(int n) {
+    int[] p = new int[n];
+    for (int x = 0; x < n; x++)
+      p[x] = x;
+    return p;
+  }
+
+  /* Returns a*b, i.e. b followed by a. */
+  static int[] compose(int[] a, int[] b) {
+    int[] p = new int[b.length];
+    for (int x = 0; x < p.length; x++)
+      p[x] = a[b[x]];
+    return p;
+  }
+
+  static int[] inverse(int[] a) {
+    int[] p = new int[a.length];
+    for (int x = 0; x < p.length; x++)
+      p[a[x]] = x;
+    return p;
+  }
+
+  static boolean isIdentity(int[] a) {
+    for (int x = 0; x < a.length; x++) {
+      if (a[x] != x)
+        return false;
+    }
+    return true;
+  }
+
+  /* Returns a raised to the k-th power (k may be negative), by repeated squaring. */
+  static int[] power(int[] a, long k) {
+    int[] base = (k < 0) ? inverse(a) : a;
+    k = Math.abs(k);
+    int[] result = identity(a.length);
+    while (k > 0) {
+      if ((k & 1) == 1)
+        result = compose(result, base);
+      k >>= 1;
+      if (k > 0)
+        base = compose(base, base);
+    }
+    return result;
+  }
+
+  /* The order of a: the lcm of its cycle lengths. */
+  static long order(int[] a) {
+    boolean[] seen = new boolean[a.length];
+    long lcm = 1;
+    for (int x = 0; x < a.length; x++) {
+      if (seen[x])
+        continue;
+      int length = 0;
+      for (int y = x; !seen[y]; y = a[y]) {
+        seen[y] = true;
+        length++;
+      }
+      lcm = lcm / gcd(lcm, length) * length;
+    }
+    return lcm;
+  }
+
+  /* True if a is a product of an even number of transpositions, i.e. if it has an even
+   * number of cycles of even length. */
+  static boolean isEven(int[] a) {
+    boolean[] seen = new boolean[a.length];
+    int cycles = 0;
+    for (int x = 0; x < a.length; x++) {
+      if (seen[x])
+        continue;
+      cycles++;
+      for (int y = x; !seen[y]; y = a[y])
+        seen[y] = true;
+    }
+    return (a.length - cycles) % 2 == 0;
+  }
+
+  /* The 0-based images of a Permutation of {1, ..., n}. */
+  static int[] fromPermutation(Permutation p) {
+    int[] a = new int[p.size()];
+    for (int x = 0; x < a.length; x++)
+      a[x] = p.image(x+1) - 1;
+    return a;
+  }
+
+  static Permutation toPermutation(int[] a) {
+    int[] images = new int[a.length];
+    for (int x = 0; x < a.length; x++)
+      images[x] = a[x] + 1;
+    return new Permutation(images);
+  }
+
+  /* The position of a in the lexicographic order of S_n, from 0 (the identity) to n! - 1,
+   * by its Lehmer code: digit i counts the points after position i smaller than a[i]
+   * (the points not yet used that are smaller than a[i]), in base (n-1-i)!.  Only for
+   * n <= 20, so that n! fits in a long. */
+  static long rank(int[] a) {
+    long rank = 0;
+    int used = 0;
+    for (int i = 0; i < a.length; i++) {
+      rank = rank * (a.length - i) + Integer.bitCount(~used & ((1 << a[i]) - 1));
+      used |= 1 << a[i];
+    }
+    return rank;
+  }
+
+  /* The permutation of {0, ..., n-1} with the given rank, into p. */
+  static void unrank(long rank, int[] p) {
+    int n = p.length;
+    for (int i = n-1; i >= 0; i--) { // the Lehmer digits, last first
+      p[i] = (int)(rank % (n-i));
+      rank /= n-i;
+    }
+    int unused = (1 << n) - 1;
+    for (int i = 0; i < n; i++) {
+      int bits = unused;
+      for (int k = p[i]; k > 0; k--)
+        bits &= bits - 1; // drop the p[i] smallest unused points
+      p[i] = Integer.numberOfTrailingZeros(bits);
+      unused &= ~(1 << p[i]);
+    }
+  }
+
+  /* Wraps an array so that it can be kept in a HashSet or HashMap by value. */
+  static Key key(int[] a) {
+    return new Key(a);
+  }
+
+  static final class Key {
+    final int[] images;
+    private final int hash;
+
+    private Key(int[] images) {
+      this.images = images;
+      this.hash = Arrays.hashCode(images);
+    }
+
+    public int hashCode() {
+      return hash;
+    }
+
+    public boolean equals(Object o) {
+      return (o instanceof Key) && ((Key)o).hash == hash && Arrays.equals(((Key)o).images, images);
+    }
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      long r = a % b;
+      a = b;
+      b = r;
+    }
+    return a;
+  }
+}
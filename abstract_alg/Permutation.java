@@ -3,108 +3,311 @@ package abstract_alg;
  * Author: Emma Bahlke
  * Date: May 22, 2014
  * Comments: Describes an element of a symmetric/permutation group -- essentially,
- * one possible bijective mapping on the set {1, ..., n}. */
+ * one possible bijective mapping on the set {1, ..., n}.  The disjoint cycle decomposition
+ * is worked out once, the first time anything needs it, in a single O(n) pass, and kept as
+ * two compact int arrays; the cycle type, sign, order, string form and 2-cycle decomposition
+ * are all read off from it.
+ * MODIFIED: October 2026 - the images used to be kept in a Hashtable of boxed Integers,
+ * about 1 KB for a permutation of 16 points.  Now there are three forms, and which one a
+ * permutation takes depends only on its size and how many points it moves:
+ *  - up to 16 points, the images are packed four bits apiece into one long (see
+ *    PackedPermutations);
+ *  - beyond that, a permutation that moves at most one point in SPARSE_FRACTION keeps
+ *    just its moved points and their images, in an open-addressing hash map of ints, so
+ *    that products, inverses, powers, cycles and supports cost time in proportion to the
+ *    number of points moved - a move of a puzzle with a million stickers, say, that
+ *    shifts a few hundred of them;
+ *  - anything else keeps all its images in an int array.
+ * Products that move too many points for the sparse form come out in the dense one.  The
+ * Hashtable is only made if getFunctionVals asks for it. */
 
 import java.util.*;
 
 public class Permutation extends GroupElement {
-  private int size;
-  private Hashtable<Integer, Integer> functionVals;
+  static final int SPARSE_FRACTION = 8; // sparse if no more than 1/SPARSE_FRACTION of the points move
+  
+  private final int size;
+  private final long packed; // the images, packed, when size <= PackedPermutations.MAX_DEGREE
+  private final int[] images; // the images {p(1), ..., p(n)} in the dense form; otherwise null
+  private final Moved moved; // the moved points and their images in the sparse form; otherwise null
+  private Hashtable<Integer, Integer> functionVals; // null until getFunctionVals is called
+  private Cycles cycles; // null until first needed (see getCycleDecomposition)
   
   public Permutation(int ... yValues) {
+    this(yValues, false);
+  }
+  
+  /* trusted is true for images worked out from other permutations, which can't repeat
+   * a point, so the check for repeats (and the BitSet it takes) is skipped. */
+  private Permutation(int[] yValues, boolean trusted) {
     size = yValues.length;
-    functionVals = new Hashtable<Integer, Integer>(size);
-    int xValue = 1;
+    if (size <= PackedPermutations.MAX_DEGREE) {
+      packed = PackedPermutations.pack(yValues);
+      images = null;
+      moved = null;
+      return;
+    }
     
-    for (int i = 0; i < size; i++) {
-      functionVals.put(xValue, yValues[i]);
-      xValue++;
+    packed = 0;
+    int count = 0;
+    BitSet seen = trusted ? null : new BitSet(size+1);
+    for (int x = 1; x <= size; x++) {
+      int y = yValues[x-1];
+      if (y < 1 || y > size)
+        throw new IllegalArgumentException(y + " is not in {1, ..., " + size + "}.");
+      if (seen != null) {
+        if (seen.get(y))
+          throw new IllegalArgumentException(y + " is the image of more than one point.");
+        seen.set(y);
+      }
+      if (y != x)
+        count++;
+    }
+    if (isSparse(size, count)) {
+      Moved m = new Moved(count);
+      for (int x = 1; x <= size; x++) {
+        if (yValues[x-1] != x)
+          m.put(x, yValues[x-1]);
+      }
+      moved = m;
+      images = null;
+    }
+    else {
+      moved = null;
+      images = yValues.clone();
     }
   }
   
   public Permutation(LinkedList<Integer> yValues) {
-    size = yValues.size();
-    functionVals = new Hashtable<Integer, Integer>(size);
-    int xValue = 1;
-    
-    for (int i = 0; i < size; i++) {
-      functionVals.put(xValue, yValues.get(i));
-      xValue++;
-    }
+    this(toArray(yValues));
+  }
+  
+  private Permutation(int size, long packed) {
+    this.size = size;
+    this.packed = packed;
+    this.images = null;
+    this.moved = null;
+  }
+  
+  private Permutation(int size, Moved moved) {
+    this.size = size;
+    this.packed = 0;
+    this.images = null;
+    this.moved = moved;
+  }
+  
+  private Permutation(Permutation p) {
+    this.size = p.size;
+    this.packed = p.packed;
+    this.images = p.images;
+    this.moved = p.moved;
+  }
+  
+  /* The permutation of degree n <= 16 with the given packed images. */
+  static Permutation packed(int n, long packed) {
+    return new Permutation(n, packed);
   }
   
   /* Fast constructor that, given a dimension in which to work, converts from
    * quasi-cycle notation in the arguments to a complete permutation - i.e. if
    * you just want to create the permutation (132) in S5, this can be achieved
-   * by Permutation(true, 5, 1, 3, 2). */
+   * by Permutation(true, 5, 1, 3, 2).  Only the points named are looked at, so a
+   * cycle in S_1000000 costs no more than one in S_5. */
   public Permutation(boolean specialConstructor, int dimension, int ... arguments) {
-	  size = dimension;
-	  LinkedList<Integer> yValues = new LinkedList<Integer>();
-
-	  for (int i = 1; i <= size; i++)
-		  yValues.add(i);
-
-	  int nextPositionInCycle = 1;
-
-	  for (int j = 0; j < arguments.length; j++) {
-		  yValues.set(arguments[j]-1, arguments[nextPositionInCycle]);
-		  nextPositionInCycle = (nextPositionInCycle+1)%arguments.length;
-	  }
-
-	  System.out.println(yValues);
-
-	  functionVals = new Hashtable<Integer, Integer>(size);
-	  int xValue = 1;
-	  for (int i = 0; i < size; i++) {
-		  functionVals.put(xValue, yValues.get(i));
-		  xValue++;
-	  }
+    this(quasiCycle(dimension, arguments));
   }
-
+  
+  /* The product of the given disjoint cycles, as a permutation of {1, ..., degree}. */
+  public static Permutation fromCycles(int degree, int[] ... cycles) {
+    int count = 0;
+    for (int[] cycle : cycles)
+      count += cycle.length;
+    int[] points = new int[count];
+    count = 0;
+    for (int[] cycle : cycles) {
+      System.arraycopy(cycle, 0, points, count, cycle.length);
+      count += cycle.length;
+    }
+    checkPoints(degree, points);
+    
+    Moved m = new Moved(count);
+    for (int[] cycle : cycles) {
+      for (int i = 0; i < cycle.length; i++) {
+        int x = cycle[i];
+        if (cycle.length > 1)
+          m.put(x, cycle[(i+1) % cycle.length]);
+      }
+    }
+    return fromMoved(degree, m);
+  }
+  
+  /* The images as a Hashtable from x to p(x), made the first time it is asked for. */
   public Hashtable<Integer, Integer> getFunctionVals() {
-    return functionVals;
+    Hashtable<Integer, Integer> vals = functionVals;
+    if (vals == null) {
+      vals = new Hashtable<Integer, Integer>(size);
+      for (int x = 1; x <= size; x++)
+        vals.put(x, image(x));
+      functionVals = vals;
+    }
+    return vals;
   }
   
   public int size() {
     return size;
   }
   
+  /* Returns where this permutation sends x, for x in {1, ..., n}. */
+  public int image(int x) {
+    if (images != null)
+      return images[x-1];
+    if (moved != null)
+      return moved.get(x);
+    return (int)((packed >>> (4*(x-1))) & 15) + 1;
+  }
+  
+  /* The images {p(1), ..., p(n)}, as a new array. */
+  public int[] images() {
+    if (images != null)
+      return images.clone();
+    if (moved != null) {
+      int[] all = new int[size];
+      for (int x = 1; x <= size; x++)
+        all[x-1] = x;
+      for (int k = 0; k < moved.keys.length; k++) {
+        if (moved.keys[k] != 0)
+          all[moved.keys[k]-1] = moved.values[k];
+      }
+      return all;
+    }
+    return PackedPermutations.unpack(packed, size);
+  }
+  
+  /* (This used to compare boxed Integers with !=, which only worked for small
+   * numbers.)  Two equal permutations always take the same form, so only the same
+   * forms need comparing. */
   public boolean equals(GroupElement e) {
     Permutation another = (Permutation)e;
-    if (another.size() != this.size)
+    if (another.size != this.size)
       return false;
-    else{
-      for (int i = 1; i <= size; i++) {
-        if (functionVals.get(i) != another.getFunctionVals().get(i))
+    else if (images != null)
+      return (another.images != null) && Arrays.equals(images, another.images);
+    else if (moved != null) {
+      if (another.moved == null || another.moved.count != moved.count)
+        return false;
+      for (int k = 0; k < moved.keys.length; k++) {
+        if (moved.keys[k] != 0 && another.moved.get(moved.keys[k]) != moved.values[k])
           return false;
       }
       return true;
     }
+    else
+      return another.images == null && another.moved == null && packed == another.packed;
   }
   
+  /* This permutation after another of the same size, i.e. this(other(x)) - the same
+   * product as PermutationGroup.operate(this, other).  If both are sparse, only the
+   * points either one moves are looked at. */
+  public Permutation compose(Permutation other) {
+    if (images == null && moved == null && other.images == null && other.moved == null)
+      return new Permutation(size, PackedPermutations.compose(packed, other.packed, size));
+    if (moved != null && other.moved != null) {
+      Moved m = new Moved(moved.count + other.moved.count);
+      for (int k = 0; k < other.moved.keys.length; k++) {
+        int x = other.moved.keys[k];
+        if (x != 0 && moved.get(other.moved.values[k]) != x)
+          m.put(x, moved.get(other.moved.values[k]));
+      }
+      for (int k = 0; k < moved.keys.length; k++) {
+        int x = moved.keys[k];
+        if (x != 0 && other.moved.get(x) == x)
+          m.put(x, moved.values[k]);
+      }
+      return fromMoved(size, m);
+    }
+    int[] result = new int[size];
+    for (int x = 1; x <= size; x++)
+      result[x-1] = image(other.image(x));
+    return new Permutation(result, true);
+  }
+  
+  /* The inverse permutation. */
+  public Permutation inverse() {
+    if (moved != null) {
+      Moved m = new Moved(moved.count);
+      for (int k = 0; k < moved.keys.length; k++) {
+        if (moved.keys[k] != 0)
+          m.put(moved.values[k], moved.keys[k]);
+      }
+      return new Permutation(size, m);
+    }
+    if (images == null)
+      return new Permutation(size, PackedPermutations.inverse(packed, size));
+    return new Permutation(inverseImages(), true);
+  }
+  
+  /* This permutation raised to the k-th power (k may be negative): each cycle is
+   * rotated k places, so a sparse permutation stays sparse and costs only its support. */
+  public Permutation power(long k) {
+    if (images == null && moved == null)
+      return new Permutation(size, PackedPermutations.power(packed, k, size));
+    if (moved == null)
+      return new Permutation(powerImages(k), true);
+    Cycles c = getCycleDecomposition();
+    Moved m = new Moved(moved.count);
+    for (int j = 0; j < c.numCycles(); j++) {
+      int start = c.starts[j];
+      int length = c.starts[j+1] - start;
+      int shift = (int)(((k % length) + length) % length);
+      if (shift == 0)
+        continue;
+      for (int i = 0; i < length; i++)
+        m.put(c.points[start+i], c.points[start + (i+shift)%length]);
+    }
+    return new Permutation(size, m);
+  }
+  
+  boolean isPacked() {
+    return images == null && moved == null;
+  }
+  
+  long packedValue() {
+    return packed;
+  }
+  
+  /* Something that stands in for this permutation in hash tables (see Group.hashKey):
+   * the packed value, the images, or the moved points and their images in order. */
+  Object hashKey() {
+    if (images != null)
+      return PermArrays.key(images);
+    if (moved != null) {
+      int[] points = moved.sortedKeys();
+      int[] pairs = new int[2*points.length];
+      for (int i = 0; i < points.length; i++) {
+        pairs[2*i] = points[i];
+        pairs[2*i+1] = moved.get(points[i]);
+      }
+      return PermArrays.key(pairs); // never as long as a dense array of the same size
+    }
+    return Long.valueOf(packed);
+  }
+  
+  /* Writes the permutation in disjoint cycle notation, e.g. (132)(45), with each
+   * cycle starting from its smallest member, or "identity". */
   public String toString() {
-    String s = "";
-    LinkedList<Integer> nonFixedVals = getNonFixedVals();
-    if (nonFixedVals.size() == 0)
+    Cycles c = getCycleDecomposition();
+    if (c.points.length == 0)
       return "identity";
     
-    else {
-      while (nonFixedVals.size() > 0) {
-        // print each cycle in turn by removing the values from nonFixedVals as we print them
-        // and adding a ")" at the end of each cycle:
-        s+="(";
-        LinkedList<Integer> currentCycle = getFullCycle(nonFixedVals.get(0));
-        
-        for (int i = 0; i < currentCycle.size(); i++) {
-          s+=currentCycle.get(i)+"";
-          nonFixedVals.removeFirstOccurrence(currentCycle.get(i));
-          if (i == currentCycle.size()-1)
-            s+=")";
-        }
-      }
-      
-      return s;
+    StringBuilder s = new StringBuilder(2*c.points.length + 2*c.numCycles());
+    for (int k = 0; k < c.numCycles(); k++) {
+      s.append('(');
+      for (int i = c.starts[k]; i < c.starts[k+1]; i++)
+        s.append(c.points[i]);
+      s.append(')');
     }
+    
+    return s.toString();
   }
   
   /* Generates the full cycle that can be traversed from the given start value. */
@@ -112,25 +315,130 @@ public class Permutation extends GroupElement {
     LinkedList<Integer> cycleSoFar = new LinkedList<Integer>();
     int currentVal = startVal;
     
-    while (!cycleSoFar.contains(currentVal)) {
+    do {
       cycleSoFar.add(currentVal);
-      currentVal = functionVals.get(currentVal);
-    }
+      currentVal = image(currentVal);
+    } while (currentVal != startVal);
     
     return cycleSoFar;
   }
   
+  /* Returns the non-trivial cycles of the permutation, each one starting from its
+   * smallest member, in order of their smallest members.  So (143)(25) in S5 gives
+   * {{1, 4, 3}, {2, 5}}. */
+  public int[][] getCycles() {
+    Cycles c = getCycleDecomposition();
+    int[][] all = new int[c.numCycles()][];
+    
+    for (int k = 0; k < all.length; k++)
+      all[k] = Arrays.copyOfRange(c.points, c.starts[k], c.starts[k+1]);
+    
+    return all;
+  }
+  
+  /* Returns the cycle type: the lengths of all the cycles, fixed points (cycles
+   * of length 1) included, from longest to shortest - a partition of n. */
+  public int[] getCycleType() {
+    Cycles c = getCycleDecomposition();
+    int[] type = new int[c.numCycles() + (size - c.points.length)];
+    
+    for (int k = 0; k < c.numCycles(); k++)
+      type[k] = c.starts[k+1] - c.starts[k];
+    for (int k = c.numCycles(); k < type.length; k++)
+      type[k] = 1;
+    
+    Arrays.sort(type);
+    for (int i = 0, j = type.length-1; i < j; i++, j--) {
+      int temp = type[i];
+      type[i] = type[j];
+      type[j] = temp;
+    }
+    return type;
+  }
+  
+  /* A permutation is even if it is a product of an even number of 2-cycles.  A cycle
+   * of length k is a product of k-1 of them, so we just add up (length - 1). */
+  public boolean isEven() {
+    Cycles c = getCycleDecomposition();
+    return ((c.points.length - c.numCycles()) % 2 == 0);
+  }
+  
+  /* The sign of the permutation: 1 if it is even, -1 if it is odd. */
+  public int sign() {
+    return (isEven() ? 1 : -1);
+  }
+  
+  /* The order of the permutation, which is the least common multiple of the
+   * lengths of its cycles.  Throws an ArithmeticException if that doesn't fit in a
+   * long (which takes a few hundred points). */
+  public long cycleOrder() {
+    if (isPacked())
+      return PackedPermutations.order(packed, size);
+    Cycles c = getCycleDecomposition();
+    long lcm = 1;
+    
+    for (int k = 0; k < c.numCycles(); k++) {
+      long length = c.starts[k+1] - c.starts[k];
+      lcm = Math.multiplyExact(lcm / gcd(lcm, length), length);
+    }
+    
+    return lcm;
+  }
+  
+  /* Returns the 2-cycles whose product is this permutation, as pairs {a, b}, in the
+   * order described in PermutationGroup.decompose - for each cycle, the start of the
+   * cycle swapped with its last member, then its second-to-last member, and so on.
+   * So (143)(526) gives {{1, 3}, {1, 4}, {2, 6}, {2, 5}}, where cycles are started
+   * from their smallest member. */
+  public int[][] getTranspositions() {
+    Cycles c = getCycleDecomposition();
+    int[][] swaps = new int[c.points.length - c.numCycles()][];
+    int next = 0;
+    
+    for (int k = 0; k < c.numCycles(); k++) {
+      int first = c.points[c.starts[k]];
+      for (int i = c.starts[k+1]-1; i > c.starts[k]; i--)
+        swaps[next++] = new int[] {first, c.points[i]};
+    }
+    
+    return swaps;
+  }
+  
+  /* Returns the images {p(1), ..., p(n)} of the inverse permutation, found by
+   * simply turning each pair x -> y around. */
+  public int[] inverseImages() {
+    int[] inverse = new int[size];
+    for (int x = 1; x <= size; x++)
+      inverse[image(x)-1] = x;
+    return inverse;
+  }
+  
+  /* Returns the images {p(1), ..., p(n)} of this permutation raised to the k-th power
+   * (k may be negative).  Each cycle of length L is simply rotated k (mod L) places,
+   * so this is O(n) however big k is. */
+  public int[] powerImages(long k) {
+    Cycles c = getCycleDecomposition();
+    int[] result = new int[size];
+    for (int x = 1; x <= size; x++)
+      result[x-1] = x;
+    
+    for (int j = 0; j < c.numCycles(); j++) {
+      int start = c.starts[j];
+      int length = c.starts[j+1] - start;
+      int shift = (int)(((k % length) + length) % length);
+      
+      for (int i = 0; i < length; i++)
+        result[c.points[start+i]-1] = c.points[start + (i+shift)%length];
+    }
+    
+    return result;
+  }
+  
   /* Returns the NUMBER of integers that are not fixed by this mapping,
    * i.e. that are sent to a value other than themselves - note that it
    * does not return a list of these values. (see getNonFixedVals()) */
   public int nonFixedInts() {
-    int acc = 0;
-    for (int i = 1; i <= size; i++) {
-      if (functionVals.get(i) == i)
-        continue;
-      else acc++;
-    }
-    return acc;
+    return (moved != null) ? moved.count : getCycleDecomposition().points.length;
   }
   
   /* Returns all the values of the mapping that aren't fixed, i.e. are sent to
@@ -138,12 +446,209 @@ public class Permutation extends GroupElement {
   public LinkedList<Integer> getNonFixedVals() {
     LinkedList<Integer> nonFixedVals = new LinkedList<Integer>();
     
+    for (int i : movedPoints())
+      nonFixedVals.add(i);
+    
+    return nonFixedVals;
+  }
+  
+  /* Works out the disjoint cycles of the permutation, visiting each moved point once,
+   * and caches them.  The points are looked up in a table indexed by point, or (for
+   * the sparse form, to keep to the support) by binary search among the moved points.
+   * (If two threads get here at once they just both do the work.) */
+  private Cycles getCycleDecomposition() {
+    Cycles c = cycles;
+    if (c != null)
+      return c;
+    
+    int[] moving = movedPoints();
+    boolean[] seen = new boolean[(moved == null) ? size+1 : moving.length];
+    int[] points = new int[moving.length];
+    int[] starts = new int[moving.length/2 + 1]; // every non-trivial cycle has at least 2 points
+    int numCycles = 0, next = 0;
+    
+    for (int i : moving) {
+      if (seen[slot(moving, i)])
+        continue;
+      starts[numCycles++] = next;
+      for (int j = i; !seen[slot(moving, j)]; j = image(j)) {
+        seen[slot(moving, j)] = true;
+        points[next++] = j;
+      }
+    }
+    starts[numCycles] = next;
+    
+    c = new Cycles(points, Arrays.copyOf(starts, numCycles+1));
+    cycles = c;
+    return c;
+  }
+  
+  /* The points this permutation moves, in increasing order. */
+  private int[] movedPoints() {
+    if (moved != null)
+      return moved.sortedKeys();
+    int[] points = new int[size];
+    int count = 0;
     for (int i = 1; i <= size; i++) {
-      if (functionVals.get(i) != i)
-        nonFixedVals.add(i);
+      if (image(i) != i)
+        points[count++] = i;
     }
+    return Arrays.copyOf(points, count);
+  }
+  
+  private int slot(int[] moving, int x) {
+    return (moved == null) ? x : Arrays.binarySearch(moving, x);
+  }
+  
+  /* Whether a permutation of size points moving count of them takes the sparse form. */
+  private static boolean isSparse(int size, int count) {
+    return size > PackedPermutations.MAX_DEGREE && (long)count*SPARSE_FRACTION <= size;
+  }
+  
+  /* The permutation of {1, ..., size} moving just the points in m, in whichever form
+   * it should take. */
+  private static Permutation fromMoved(int size, Moved m) {
+    if (isSparse(size, m.count))
+      return new Permutation(size, m);
+    int[] all = new int[size];
+    for (int x = 1; x <= size; x++)
+      all[x-1] = m.get(x);
+    return new Permutation(all, true);
+  }
+  
+  private static int[] toArray(LinkedList<Integer> yValues) {
+    int[] a = new int[yValues.size()];
+    int i = 0;
+    for (int y : yValues)
+      a[i++] = y;
+    return a;
+  }
+  
+  /* The permutation of {1, ..., n} given in quasi-cycle notation. */
+  private static Permutation quasiCycle(int dimension, int[] arguments) {
+    checkPoints(dimension, arguments);
+    Moved m = new Moved(arguments.length);
+    int nextPositionInCycle = (arguments.length == 1) ? 0 : 1; // a lone point is a 1-cycle
+    for (int j = 0; j < arguments.length; j++) {
+      m.put(arguments[j], arguments[nextPositionInCycle]);
+      nextPositionInCycle = (nextPositionInCycle+1)%arguments.length;
+    }
+    return fromMoved(dimension, m);
+  }
+  
+  /* Throws an IllegalArgumentException unless the points of some cycles are all in
+   * {1, ..., degree} and none of them comes up twice.  The check sorts a copy rather
+   * than marking off {1, ..., degree}, so that it costs no more than the cycles do. */
+  private static void checkPoints(int degree, int[] points) {
+    int[] sorted = points.clone();
+    Arrays.sort(sorted);
+    for (int i = 0; i < sorted.length; i++) {
+      if (sorted[i] < 1 || sorted[i] > degree)
+        throw new IllegalArgumentException(sorted[i] + " is not in {1, ..., " + degree + "}.");
+      if (i > 0 && sorted[i] == sorted[i-1])
+        throw new IllegalArgumentException(sorted[i] + " comes up more than once in the cycles.");
+    }
+  }
+  
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      long r = a % b;
+      a = b;
+      b = r;
+    }
+    return a;
+  }
+  
+  /* The non-trivial cycles of a permutation, stored back to back in one array:
+   * cycle k is points[starts[k]] ... points[starts[k+1]-1]. */
+  private static final class Cycles {
+    private final int[] points;
+    private final int[] starts;
     
-    return nonFixedVals;
+    private Cycles(int[] points, int[] starts) {
+      this.points = points;
+      this.starts = starts;
+    }
+    
+    private int numCycles() {
+      return starts.length-1;
+    }
+  }
+  
+  /* The moved points of a sparse permutation and their images: a hash map of ints by
+   * open addressing and linear probing, in two arrays.  Points start at 1, so 0 marks an
+   * empty slot.  There's always room for the number of points it was made for, with
+   * the table at most half full; putting x -> x takes x out again. */
+  private static final class Moved {
+    private final int[] keys;
+    private final int[] values;
+    private int count;
+    
+    private Moved(int expected) {
+      int capacity = 4;
+      while (capacity < 2L*expected)
+        capacity <<= 1;
+      keys = new int[capacity];
+      values = new int[capacity];
+    }
+    
+    private int get(int x) {
+      int mask = keys.length-1;
+      for (int i = hash(x) & mask; keys[i] != 0; i = (i+1) & mask) {
+        if (keys[i] == x)
+          return values[i];
+      }
+      return x;
+    }
+    
+    private void put(int x, int y) {
+      int mask = keys.length-1;
+      int i = hash(x) & mask;
+      while (keys[i] != 0 && keys[i] != x)
+        i = (i+1) & mask;
+      if (x == y) {
+        if (keys[i] == x)
+          remove(i);
+        return;
+      }
+      if (keys[i] == 0)
+        count++;
+      keys[i] = x;
+      values[i] = y;
+    }
+    
+    /* Empties slot i, moving up any later entries of its run that would no longer be
+     * found past the gap. */
+    private void remove(int i) {
+      int mask = keys.length-1;
+      count--;
+      for (int j = (i+1) & mask; keys[j] != 0; j = (j+1) & mask) {
+        int home = hash(keys[j]) & mask;
+        // keys[j] can fill the gap at i unless its home lies cyclically in (i, j]
+        if (((j-home) & mask) >= ((j-i) & mask)) {
+          keys[i] = keys[j];
+          values[i] = values[j];
+          i = j;
+        }
+      }
+      keys[i] = 0;
+    }
+    
+    private int[] sortedKeys() {
+      int[] points = new int[count];
+      int k = 0;
+      for (int x : keys) {
+        if (x != 0)
+          points[k++] = x;
+      }
+      Arrays.sort(points);
+      return points;
+    }
+    
+    private static int hash(int x) {
+      x *= 0x9e3779b9;
+      return x ^ (x >>> 16);
+    }
   }
   
   public static void main(String[] args) {
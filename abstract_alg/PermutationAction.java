@@ -0,0 +1,638 @@
+package abstract_alg;
+/* NAME: PermutationAction.java
+ * DATE: October 2026
+ * COMMENTS: The action on {1, ..., n} of the group generated by a handful of permutations,
+ * worked out from the generators alone - the group itself is never listed, so this is
+ * just as happy with a subgroup of S_100000 as with one of S_5.  Provides:
+ *  - orbits (by union-find over the generators, O(n r) for r generators) and transitivity;
+ *  - Schreier vectors: a breadth-first tree of an orbit, from which a transversal element
+ *    taking the root to any point of its orbit can be read off;
+ *  - point stabilizers, as new PermutationActions generated by Schreier generators
+ *    u(gx)^-1 g u(x) - either all of them, or a few chosen at random, which is usually
+ *    enough and much cheaper for large orbits;
+ *  - block systems by Atkinson's algorithm: the smallest block containing two given points
+ *    is found by merging classes with union-find in O(n r) time, and from it a minimal
+ *    block system, or a proof that the action is primitive.
+ * Points are numbered 1, ..., n in everything public, as in Permutation; internally
+ * everything is 0-based int arrays (see PermArrays). */
+
+import java.util.*;
+
+public class PermutationAction {
+  private final int degree;
+  private final int[][] generators; // 0-based images
+  private int[][] inverses; // the generators' inverses, made on first use
+  private int[] orbitLabels; // smallest point (0-based) of each point's orbit, made on first use
+  private int[][] randomSlots; // state for randomElement, set up on first use
+  private int[] randomAccumulator;
+  private final Random random = new Random();
+
+  /* The action of the group generated by the given permutations, which must all be
+   * permutations of the same set {1, ..., n}. */
+  public PermutationAction(LinkedList<Permutation> generators) {
+    this(degreeOf(generators), toArrays(generators));
+  }
+
+  /* The action on {1, ..., degree} of the group generated by permutations given by their
+   * images: generators[k][x-1] is where the k-th generator sends x. */
+  public PermutationAction(int degree, int[][] generators) {
+    this.degree = degree;
+    this.generators = new int[generators.length][];
+    for (int k = 0; k < generators.length; k++) {
+      if (generators[k].length != degree)
+        throw new IllegalArgumentException("Generator " + k + " moves " + generators[k].length + " points, not " + degree + ".");
+      this.generators[k] = new int[degree];
+      BitSet hit = new BitSet(degree);
+      for (int x = 0; x < degree; x++) {
+        int y = generators[k][x] - 1;
+        if (y < 0 || y >= degree || hit.get(y))
+          throw new IllegalArgumentException("Generator " + k + " is not a permutation of {1, ..., " + degree + "}.");
+        hit.set(y);
+        this.generators[k][x] = y;
+      }
+    }
+  }
+
+  /* Used internally, where the 0-based arrays are already known to be permutations;
+   * identity generators are dropped. */
+  PermutationAction(int degree, List<int[]> generators) {
+    this.degree = degree;
+    ArrayList<int[]> kept = new ArrayList<int[]>();
+    for (int[] g : generators) {
+      if (!PermArrays.isIdentity(g))
+        kept.add(g);
+    }
+    this.generators = kept.toArray(new int[kept.size()][]);
+  }
+
+  public int getDegree() {
+    return degree;
+  }
+
+  public int getNumberOfGenerators() {
+    return generators.length;
+  }
+
+  /* Returns the generators as Permutations. */
+  public LinkedList<Permutation> getGenerators() {
+    LinkedList<Permutation> list = new LinkedList<Permutation>();
+    for (int k = 0; k < generators.length; k++)
+      list.add(PermArrays.toPermutation(generators[k]));
+    return list;
+  }
+
+  /* Where the k-th generator sends the point x. */
+  public int image(int k, int x) {
+    return generators[k][x-1] + 1;
+  }
+
+  // ---------------------------------------------------------------------------------------------- //
+  // -------------------------------------------- ORBITS ------------------------------------------ //
+  // ---------------------------------------------------------------------------------------------- //
+
+  /* Returns every orbit, each sorted, in order of their smallest points. */
+  public int[][] getOrbits() {
+    int[] labels = getOrbitLabels();
+    int[] sizes = new int[degree];
+    int numOrbits = 0;
+    for (int x = 0; x < degree; x++) {
+      if (sizes[labels[x]]++ == 0)
+        numOrbits++;
+    }
+
+    int[][] orbits = new int[numOrbits][];
+    int[] orbitOfLabel = new int[degree];
+    int[] filled = new int[numOrbits];
+    int next = 0;
+    for (int x = 0; x < degree; x++) {
+      if (labels[x] == x) {
+        orbitOfLabel[x] = next;
+        orbits[next++] = new int[sizes[x]];
+      }
+      int k = orbitOfLabel[labels[x]];
+      orbits[k][filled[k]++] = x+1;
+    }
+    return orbits;
+  }
+
+  /* Returns the orbit of the given point, sorted. */
+  public int[] getOrbit(int point) {
+    int[] labels = getOrbitLabels();
+    int label = labels[point-1];
+    int size = 0;
+    for (int x = label; x < degree; x++) {
+      if (labels[x] == label)
+        size++;
+    }
+    int[] orbit = new int[size];
+    int next = 0;
+    for (int x = label; x < degree; x++) {
+      if (labels[x] == label)
+        orbit[next++] = x+1;
+    }
+    return orbit;
+  }
+
+  public int getNumberOfOrbits() {
+    int[] labels = getOrbitLabels();
+    int count = 0;
+    for (int x = 0; x < degree; x++) {
+      if (labels[x] == x)
+        count++;
+    }
+    return count;
+  }
+
+  public boolean inSameOrbit(int x, int y) {
+    int[] labels = getOrbitLabels();
+    return labels[x-1] == labels[y-1];
+  }
+
+  /* True if the group can send any point to any other. */
+  public boolean isTransitive() {
+    return degree <= 1 || getNumberOfOrbits() == 1;
+  }
+
+  /* Each point's orbit is labelled by its smallest point.  Every generator joins x and
+   * g(x), and union-find (with union by smallest point and path halving) does the rest. */
+  private int[] getOrbitLabels() {
+    int[] labels = orbitLabels;
+    if (labels != null)
+      return labels;
+
+    int[] parent = PermArrays.identity(degree);
+    for (int k = 0; k < generators.length; k++) {
+      int[] g = generators[k];
+      for (int x = 0; x < degree; x++)
+        union(parent, x, g[x]);
+    }
+    for (int x = 0; x < degree; x++)
+      parent[x] = find(parent, x);
+
+    orbitLabels = parent;
+    return parent;
+  }
+
+  // ---------------------------------------------------------------------------------------------- //
+  // ---------------------------------------- STABILIZERS ----------------------------------------- //
+  // ---------------------------------------------------------------------------------------------- //
+
+  /* Builds the Schreier vector (breadth-first orbit tree) rooted at the given point. */
+  public SchreierVector getSchreierVector(int root) {
+    return new SchreierVector(root-1);
+  }
+
+  /* The stabilizer of a point, generated by all the distinct non-trivial Schreier
+   * generators u(gx)^-1 g u(x), for x in the orbit of the point and g a generator.  There
+   * are up to |orbit|*r of them (less the ones along edges of the Schreier tree, which are
+   * trivial), each costing O(n log n) to build, so for a big orbit randomStabilizer is the
+   * better choice. */
+  public PermutationAction stabilizer(int point) {
+    SchreierVector tree = getSchreierVector(point);
+    LinkedHashSet<PermArrays.Key> found = new LinkedHashSet<PermArrays.Key>();
+
+    for (int i = 0; i < tree.size; i++) {
+      int x = tree.orbit[i];
+      for (int k = 0; k < generators.length; k++) {
+        if (tree.isTreeEdge(x, k))
+          continue; // a tree edge, so the Schreier generator is the identity
+        int[] s = tree.schreierGenerator(x, k);
+        if (!PermArrays.isIdentity(s))
+          found.add(PermArrays.key(s));
+      }
+    }
+
+    ArrayList<int[]> gens = new ArrayList<int[]>(found.size());
+    for (PermArrays.Key key : found)
+      gens.add(key.images);
+    return new PermutationAction(degree, gens);
+  }
+
+  /* A subgroup of the stabilizer of a point, generated by the given number of Schreier
+   * generators chosen at random.  A few more than the number of generators of the
+   * stabilizer nearly always generate all of it (and the subgroup generated can only
+   * ever be too small, never too big). */
+  public PermutationAction randomStabilizer(int point, int count, Random random) {
+    SchreierVector tree = getSchreierVector(point);
+    ArrayList<int[]> gens = new ArrayList<int[]>(count);
+    for (int tries = 0; generators.length > 0 && gens.size() < count && tries < 4*count + 16; tries++) {
+      int x = tree.orbit[random.nextInt(tree.size)];
+      int k = random.nextInt(generators.length);
+      int[] s = tree.schreierGenerator(x, k);
+      if (!PermArrays.isIdentity(s))
+        gens.add(s);
+    }
+    return new PermutationAction(degree, gens);
+  }
+
+  // ---------------------------------------------------------------------------------------------- //
+  // ------------------------------------------- BLOCKS ------------------------------------------- //
+  // ---------------------------------------------------------------------------------------------- //
+
+  /* Returns the smallest block system in which x and y share a block, as a list of
+   * blocks (each sorted, in order of their smallest points).  Only meaningful for a
+   * transitive action.  This is Atkinson's algorithm: merge the classes of x and y, and
+   * whenever two classes are merged, merge the classes of their images under every
+   * generator too; each merge is remembered as a pair of old class representatives, and
+   * there can be at most n-1 merges. */
+  public int[][] minimalBlockSystem(int x, int y) {
+    return blocksFromLabels(minimalBlockLabels(x-1, y-1, degree));
+  }
+
+  /* Returns the smallest block containing both x and y, sorted. */
+  public int[] minimalBlock(int x, int y) {
+    int[] labels = minimalBlockLabels(x-1, y-1, degree);
+    int label = labels[x-1];
+    int size = 0;
+    for (int z = 0; z < degree; z++) {
+      if (labels[z] == label)
+        size++;
+    }
+    int[] block = new int[size];
+    int next = 0;
+    for (int z = 0; z < degree; z++) {
+      if (labels[z] == label)
+        block[next++] = z+1;
+    }
+    return block;
+  }
+
+  /* Returns a non-trivial block system with blocks as small as possible, or null if
+   * the action is primitive (or not transitive).  Only the smallest block containing 1
+   * and y needs working out for one y in each orbit of the stabilizer of 1, since those
+   * of y and h(y) agree for h fixing 1; orbits of a random subgroup of the stabilizer
+   * are used, which may be finer than the real ones but never coarser.  That makes the
+   * cost O(n r) for each orbit of the stabilizer: cheap for S_n or any other group with
+   * a big stabilizer, but O(n^2 r) for a regular action such as a cyclic group's. */
+  public int[][] findMinimalBlockSystem() {
+    if (!isTransitive() || degree < 4 || isPrime(degree))
+      return null;
+
+    PermutationAction stab = randomStabilizer(1, Math.max(2*generators.length, 2) + 8, random);
+    int[] suborbit = stab.getOrbitLabels();
+    int[] best = null;
+    int bestSize = degree/2; // a block's size divides n, so a class bigger than this is everything
+
+    for (int y = 1; y < degree && (best == null || bestSize > 2); y++) {
+      if (suborbit[y] != y)
+        continue;
+      int[] labels = minimalBlockLabels(0, y, bestSize);
+      if (labels == null)
+        continue;
+      int size = 0;
+      for (int z = 0; z < degree; z++) {
+        if (labels[z] == labels[0])
+          size++;
+      }
+      if (best == null || size < bestSize) {
+        best = labels;
+        bestSize = size;
+      }
+    }
+
+    return (best == null) ? null : blocksFromLabels(best);
+  }
+
+  /* True if the action is transitive and has no block systems other than single
+   * points and the whole set. */
+  public boolean isPrimitive() {
+    if (!isTransitive())
+      return false;
+    return degree < 3 || isPrime(degree) || findMinimalBlockSystem() == null;
+  }
+
+  /* Atkinson's algorithm, as above; returns each point's class, labelled by its
+   * smallest point, or null as soon as some class grows past maxSize points. */
+  private int[] minimalBlockLabels(int x, int y, int maxSize) {
+    int[] parent = PermArrays.identity(degree);
+    int[] classSize = new int[degree];
+    Arrays.fill(classSize, 1);
+    int[] queue = new int[2*degree];
+    int head = 0, tail = 0;
+
+    int a = find(parent, x), b = find(parent, y);
+    if (a != b) {
+      queue[tail++] = a;
+      queue[tail++] = b;
+      if (merge(parent, classSize, a, b) > maxSize)
+        return null;
+    }
+
+    while (head < tail) {
+      int u = queue[head++], v = queue[head++];
+      for (int k = 0; k < generators.length; k++) {
+        int gu = find(parent, generators[k][u]);
+        int gv = find(parent, generators[k][v]);
+        if (gu != gv) {
+          queue[tail++] = gu;
+          queue[tail++] = gv;
+          if (merge(parent, classSize, gu, gv) > maxSize)
+            return null;
+        }
+      }
+    }
+
+    for (int z = 0; z < degree; z++)
+      parent[z] = find(parent, z);
+    return parent;
+  }
+
+  private int[][] blocksFromLabels(int[] labels) {
+    int[] sizes = new int[degree];
+    int numBlocks = 0;
+    for (int z = 0; z < degree; z++) {
+      if (sizes[labels[z]]++ == 0)
+        numBlocks++;
+    }
+    int[][] blocks = new int[numBlocks][];
+    int[] blockOfLabel = new int[degree];
+    int[] filled = new int[numBlocks];
+    int next = 0;
+    for (int z = 0; z < degree; z++) {
+      if (labels[z] == z) {
+        blockOfLabel[z] = next;
+        blocks[next++] = new int[sizes[z]];
+      }
+      int k = blockOfLabel[labels[z]];
+      blocks[k][filled[k]++] = z+1;
+    }
+    return blocks;
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* The 0-based generators and their inverses, for the other engines in this package. */
+  int[][] generatorArrays() {
+    return generators;
+  }
+
+  int[][] inverseArrays() {
+    int[][] inv = inverses;
+    if (inv == null) {
+      inv = new int[generators.length][];
+      for (int k = 0; k < generators.length; k++)
+        inv[k] = PermArrays.inverse(generators[k]);
+      inverses = inv;
+    }
+    return inv;
+  }
+
+  /* A random element of the group, by "product replacement": a handful of slots start
+   * out as copies of the generators, and each call replaces a random slot by its product
+   * with another one (and folds the result into a running product, which is what is
+   * returned).  After a short warm-up the results are very nearly uniformly distributed,
+   * at O(n) a call. */
+  int[] randomElement() {
+    if (randomSlots == null) {
+      int[][] slots = new int[Math.max(10, generators.length)][];
+      for (int i = 0; i < slots.length; i++)
+        slots[i] = (generators.length == 0) ? PermArrays.identity(degree) : generators[i % generators.length];
+      randomSlots = slots;
+      randomAccumulator = PermArrays.identity(degree);
+      for (int i = 0; i < 50; i++)
+        nextRandomElement();
+    }
+    return nextRandomElement();
+  }
+
+  private int[] nextRandomElement() {
+    int[][] slots = randomSlots;
+    int i = random.nextInt(slots.length);
+    int j = random.nextInt(slots.length - 1);
+    if (j >= i)
+      j++;
+    slots[i] = random.nextBoolean() ? PermArrays.compose(slots[i], slots[j]) : PermArrays.compose(slots[j], slots[i]);
+    randomAccumulator = PermArrays.compose(randomAccumulator, slots[i]);
+    return randomAccumulator;
+  }
+
+  private static int log2(int n) {
+    return 32 - Integer.numberOfLeadingZeros(Math.max(n, 1));
+  }
+
+  /* Finds x's class representative, halving the path as it goes. */
+  private static int find(int[] parent, int x) {
+    while (parent[x] != x) {
+      parent[x] = parent[parent[x]];
+      x = parent[x];
+    }
+    return x;
+  }
+
+  /* Joins two classes (given by their representatives) under the smaller
+   * representative, and returns the size of the new class. */
+  private static int merge(int[] parent, int[] classSize, int a, int b) {
+    int low = Math.min(a, b), high = Math.max(a, b);
+    parent[high] = low;
+    classSize[low] += classSize[high];
+    return classSize[low];
+  }
+
+  /* Joins the classes of x and y under the smaller representative. */
+  private static void union(int[] parent, int x, int y) {
+    int a = find(parent, x), b = find(parent, y);
+    if (a < b)
+      parent[b] = a;
+    else if (b < a)
+      parent[a] = b;
+  }
+
+  private static boolean isPrime(int n) {
+    if (n < 2)
+      return false;
+    for (int d = 2; (long)d*d <= n; d++) {
+      if (n % d == 0)
+        return false;
+    }
+    return true;
+  }
+
+  private static int degreeOf(LinkedList<Permutation> generators) {
+    if (generators.isEmpty())
+      throw new IllegalArgumentException("An action needs at least one generator (the identity will do).");
+    return generators.getFirst().size();
+  }
+
+  private static int[][] toArrays(LinkedList<Permutation> generators) {
+    int[][] images = new int[generators.size()][];
+    int k = 0;
+    for (Permutation p : generators) {
+      images[k] = new int[p.size()];
+      for (int x = 1; x <= p.size(); x++)
+        images[k][x-1] = p.image(x);
+      k++;
+    }
+    return images;
+  }
+
+  /* The orbit of one point laid out as a breadth-first tree: each point x of the orbit
+   * other than the root was first reached as g(parent[x]), g being label number edge[x].
+   * So a transversal element u(x), taking the root to x, is the product of the labels
+   * along the path from the root down to x, and costs O(n * depth) to build.  The labels
+   * start out as the generators, but the tree they give can be hopelessly deep (n/2 for a
+   * long cycle), so while it is deeper than about 2 log2 |orbit|, a couple of random
+   * elements of the group are added as extra labels and the tree is rebuilt; random
+   * elements shrink the depth to O(log |orbit|) very quickly. */
+  public class SchreierVector {
+    private final int root;
+    private int[][] labels;
+    private int[][] labelInverses; // made on first use
+    private final int[] edge; // -1 for the root and for points outside the orbit
+    private final int[] parent;
+    private int[] orbit; // the orbit in breadth-first order
+    private int size;
+    private int depth;
+
+    private SchreierVector(int root) {
+      this.root = root;
+      edge = new int[degree];
+      parent = new int[degree];
+      labels = generators;
+      build();
+
+      int limit = 2*log2(size) + 2;
+      int maxLabels = generators.length + 2*log2(degree) + 8;
+      while (depth > limit && labels.length + 2 <= maxLabels) {
+        labels = Arrays.copyOf(labels, labels.length + 2);
+        labels[labels.length-2] = randomElement();
+        labels[labels.length-1] = randomElement();
+        build();
+      }
+    }
+
+    private void build() {
+      Arrays.fill(edge, -1);
+      Arrays.fill(parent, -1);
+      int[] level = new int[degree];
+      int[] queue = new int[degree];
+      int head = 0, tail = 0;
+      queue[tail++] = root;
+      parent[root] = root;
+      depth = 0;
+      while (head < tail) {
+        int x = queue[head++];
+        for (int k = 0; k < labels.length; k++) {
+          int y = labels[k][x];
+          if (parent[y] < 0) {
+            parent[y] = x;
+            edge[y] = k;
+            level[y] = level[x] + 1;
+            depth = level[y];
+            queue[tail++] = y;
+          }
+        }
+      }
+      orbit = Arrays.copyOf(queue, tail);
+      size = tail;
+    }
+
+    public int getRoot() {
+      return root+1;
+    }
+
+    public int getOrbitSize() {
+      return size;
+    }
+
+    /* The length of the longest path from the root. */
+    public int getDepth() {
+      return depth;
+    }
+
+    public boolean contains(int point) {
+      return parent[point-1] >= 0;
+    }
+
+    /* The orbit of the root, in breadth-first order. */
+    public int[] getOrbit() {
+      int[] points = new int[size];
+      for (int i = 0; i < size; i++)
+        points[i] = orbit[i]+1;
+      return points;
+    }
+
+    /* The images {u(1), ..., u(n)} of a transversal element u taking the root to the
+     * given point; null if the point is not in the orbit. */
+    public int[] transversal(int point) {
+      int[] u = transversalArray(point-1);
+      if (u == null)
+        return null;
+      for (int x = 0; x < degree; x++)
+        u[x]++;
+      return u;
+    }
+
+    public Permutation getTransversal(int point) {
+      int[] u = transversalArray(point-1);
+      return (u == null) ? null : PermArrays.toPermutation(u);
+    }
+
+    /* Lists the labels from the root down to x and applies them in that order to
+     * every point. */
+    int[] transversalArray(int x) {
+      if (parent[x] < 0)
+        return null;
+      int length = 0;
+      for (int y = x; y != root; y = parent[y])
+        length++;
+      int[][] path = new int[length][];
+      for (int y = x; y != root; y = parent[y])
+        path[--length] = labels[edge[y]];
+
+      int[] u = new int[degree];
+      for (int z = 0; z < degree; z++) {
+        int image = z;
+        for (int i = 0; i < path.length; i++)
+          image = path[i][image];
+        u[z] = image;
+      }
+      return u;
+    }
+
+    /* Applies u(x)^-1 to a point, by undoing the labels on the path from x up to the root. */
+    int applyInverseTransversal(int x, int point) {
+      int[][] inv = labelInverses;
+      if (inv == null || inv.length != labels.length) {
+        inv = new int[labels.length][];
+        for (int k = 0; k < labels.length; k++)
+          inv[k] = (k < generators.length) ? inverseArrays()[k] : PermArrays.inverse(labels[k]);
+        labelInverses = inv;
+      }
+      int image = point;
+      for (int y = x; y != root; y = parent[y])
+        image = inv[edge[y]][image];
+      return image;
+    }
+
+    /* True if y was first reached from x by the k-th generator, in which case the
+     * Schreier generator for x and k is the identity. */
+    boolean isTreeEdge(int x, int k) {
+      int y = generators[k][x];
+      return parent[y] == x && edge[y] == k && y != root;
+    }
+
+    /* The Schreier generator u(g(x))^-1 g u(x), for the k-th generator g, which fixes the root. */
+    int[] schreierGenerator(int x, int k) {
+      int[] g = generators[k];
+      int gx = g[x];
+      int[] u = transversalArray(x);
+      int[] s = new int[degree];
+      for (int z = 0; z < degree; z++)
+        s[z] = applyInverseTransversal(gx, g[u[z]]);
+      return s;
+    }
+  }
+
+  public static void main(String[] args) {
+//    // the symmetries of a square, acting on its vertices:
+//    LinkedList<Permutation> square = new LinkedList<Permutation>();
+//    square.add(new Permutation(true, 4, 1, 2, 3, 4));
+//    square.add(new Permutation(true, 4, 2, 4));
+//    PermutationAction d4 = new PermutationAction(square);
+//    System.out.println(d4.isTransitive() + " " + d4.isPrimitive()); // true false
+//    System.out.println(Arrays.deepToString(d4.findMinimalBlockSystem())); // [[1, 3], [2, 4]]
+//    System.out.println(d4.stabilizer(1).getGenerators()); // [(24)]
+  }
+}
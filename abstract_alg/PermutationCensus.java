@@ -0,0 +1,204 @@
+package abstract_alg;
+/* NAME: PermutationCensus.java
+ * DATE: October 2026
+ * COMMENTS: Counts the elements of S_n by element order and by cycle type without
+ * building a single permutation.  Two permutations are conjugate in S_n exactly when they
+ * have the same cycle type, and cycle types are just the partitions of n, so everything
+ * follows from walking through the partitions: a partition with m_k parts equal to k
+ * describes n!/z elements, where z = (1^m_1 m_1!)(2^m_2 m_2!)..., each of order
+ * lcm(parts).  There are only 5604 partitions of 30, against 30! ~ 2.7 * 10^32
+ * permutations.  The partitions are split up by their largest part, and the pieces are
+ * tallied in parallel.  See PermutationGroup.census(n). */
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class PermutationCensus {
+  private final int degree;
+  private final TreeMap<Long, BigInteger> countsByOrder;
+  private final LinkedHashMap<String, BigInteger> countsByCycleType;
+  private final LinkedHashMap<String, Long> orderByCycleType;
+
+  public PermutationCensus(int n) {
+    degree = n;
+    BigInteger[] factorials = new BigInteger[n+1];
+    factorials[0] = BigInteger.ONE;
+    for (int i = 1; i <= n; i++)
+      factorials[i] = factorials[i-1].multiply(BigInteger.valueOf(i));
+
+    // tally the partitions with each possible largest part separately, in parallel,
+    // then glue the tallies together from the largest "largest part" down, which
+    // lists the cycle types in reverse lexicographic order: [n], [n-1, 1], ...
+    Tally[] tallies = new Tally[Math.max(n, 1)];
+    if (n == 0)
+      tallies[0] = new Tally(0, 0, factorials);
+    else
+      IntStream.rangeClosed(1, n).parallel().forEach(k -> tallies[k-1] = new Tally(n, k, factorials));
+
+    countsByOrder = new TreeMap<Long, BigInteger>();
+    countsByCycleType = new LinkedHashMap<String, BigInteger>();
+    orderByCycleType = new LinkedHashMap<String, Long>();
+    for (int k = tallies.length-1; k >= 0; k--) {
+      Tally t = tallies[k];
+      for (int i = 0; i < t.types.size(); i++) {
+        countsByCycleType.put(t.types.get(i), t.sizes.get(i));
+        orderByCycleType.put(t.types.get(i), t.orders.get(i));
+        countsByOrder.merge(t.orders.get(i), t.sizes.get(i), BigInteger::add);
+      }
+    }
+  }
+
+  public int getDegree() {
+    return degree;
+  }
+
+  /* Returns n!, the number of elements of S_n. */
+  public BigInteger getGroupOrder() {
+    BigInteger total = BigInteger.ZERO;
+    for (BigInteger count : countsByOrder.values())
+      total = total.add(count);
+    return total;
+  }
+
+  /* Returns how many elements of S_n there are of each element order, smallest order first. */
+  public SortedMap<Long, BigInteger> getCountsByOrder() {
+    return Collections.unmodifiableSortedMap(countsByOrder);
+  }
+
+  /* Returns how many elements of S_n there are of each cycle type, i.e. the size of
+   * each conjugacy class.  Cycle types are written as in Permutation.getCycleType,
+   * e.g. "[3, 1, 1]" for the 3-cycles of S5. */
+  public Map<String, BigInteger> getCountsByCycleType() {
+    return Collections.unmodifiableMap(countsByCycleType);
+  }
+
+  /* Returns the number of elements of the given order (zero if there are none). */
+  public BigInteger countElementsOfOrder(long order) {
+    BigInteger count = countsByOrder.get(order);
+    return (count == null) ? BigInteger.ZERO : count;
+  }
+
+  /* Returns the number of elements with the given cycle type, which may be given
+   * in any order and with or without its 1s, e.g. {2, 3} for (12)(345) in S7. */
+  public BigInteger countElementsOfCycleType(int ... cycleType) {
+    BigInteger count = countsByCycleType.get(typeKey(degree, cycleType));
+    return (count == null) ? BigInteger.ZERO : count;
+  }
+
+  /* Returns the number of conjugacy classes of S_n, i.e. the number of partitions of n. */
+  public int getNumberOfClasses() {
+    return countsByCycleType.size();
+  }
+
+  /* Returns the element order belonging to each cycle type. */
+  public Map<String, Long> getOrdersByCycleType() {
+    return Collections.unmodifiableMap(orderByCycleType);
+  }
+
+  /* Lays out the counts in the same way as Group.orderedElementsToString. */
+  public String toString() {
+    StringBuilder s = new StringBuilder("S" + degree + " has " + getGroupOrder() + " elements: ");
+
+    for (Map.Entry<Long, BigInteger> entry : countsByOrder.entrySet()) {
+      boolean one = entry.getValue().equals(BigInteger.ONE);
+      s.append('\n').append(entry.getValue()).append(one ? " element of order " : " elements of order ").append(entry.getKey());
+    }
+
+    return s.toString();
+  }
+
+  /* Writes a cycle type the way Permutation.getCycleType would give it:
+   * longest cycle first, padded out with 1s to add up to n. */
+  private static String typeKey(int n, int[] cycleType) {
+    int sum = 0;
+    for (int i = 0; i < cycleType.length; i++)
+      sum += cycleType[i];
+
+    int[] full = Arrays.copyOf(cycleType, cycleType.length + Math.max(0, n - sum));
+    for (int i = cycleType.length; i < full.length; i++)
+      full[i] = 1;
+    Arrays.sort(full);
+    for (int i = 0, j = full.length-1; i < j; i++, j--) {
+      int temp = full[i];
+      full[i] = full[j];
+      full[j] = temp;
+    }
+    return Arrays.toString(full);
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      long r = a % b;
+      a = b;
+      b = r;
+    }
+    return a;
+  }
+
+  /* The class sizes and orders of all partitions of n whose largest part is exactly k,
+   * in reverse lexicographic order. */
+  private static class Tally {
+    private final ArrayList<String> types = new ArrayList<String>();
+    private final ArrayList<BigInteger> sizes = new ArrayList<BigInteger>();
+    private final ArrayList<Long> orders = new ArrayList<Long>();
+    private final BigInteger[] factorials;
+    private final int n;
+    private final int[] parts;
+
+    private Tally(int n, int k, BigInteger[] factorials) {
+      this.n = n;
+      this.factorials = factorials;
+      parts = new int[Math.max(n, 1)];
+      if (n == 0) {
+        record(0);
+        return;
+      }
+      parts[0] = k;
+      fill(n-k, k, 1);
+    }
+
+    /* Fills in the rest of a partition, "remaining" still to be split into
+     * parts no bigger than maxPart, starting at parts[length]. */
+    private void fill(int remaining, int maxPart, int length) {
+      if (remaining == 0) {
+        record(length);
+        return;
+      }
+      for (int part = Math.min(remaining, maxPart); part >= 1; part--) {
+        parts[length] = part;
+        fill(remaining - part, part, length+1);
+      }
+    }
+
+    /* Works out n!/z and the lcm of the parts for the partition in parts[0 .. length-1]. */
+    private void record(int length) {
+      BigInteger z = BigInteger.ONE;
+      long lcm = 1;
+      int i = 0;
+
+      while (i < length) {
+        int part = parts[i];
+        int multiplicity = 0;
+        while (i < length && parts[i] == part) {
+          multiplicity++;
+          i++;
+        }
+        z = z.multiply(BigInteger.valueOf(part).pow(multiplicity)).multiply(factorials[multiplicity]);
+        lcm = Math.multiplyExact(lcm / gcd(lcm, part), (long)part);
+      }
+
+      types.add(Arrays.toString(Arrays.copyOf(parts, length)));
+      sizes.add(factorials[n].divide(z));
+      orders.add(lcm);
+    }
+  }
+
+  public static void main(String[] args) {
+//    System.out.println(new PermutationCensus(4)); // 1 of order 1, 9 of order 2, 8 of order 3, 6 of order 4
+//    long start = System.nanoTime();
+//    PermutationCensus s30 = new PermutationCensus(30);
+//    System.out.println(s30.getNumberOfClasses() + " classes in " + (System.nanoTime()-start)/1000000 + " ms");
+//    System.out.println(s30);
+  }
+}
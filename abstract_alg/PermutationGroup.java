@@ -8,126 +8,188 @@ package abstract_alg;
  * and all other methods stipulated in the Group class. It works more or less comfortably
  * on my computer up to n = 7, and starts giving out-of-memory errors after that. */
 
+import java.math.BigInteger;
 import java.util.*;
 
 public class PermutationGroup extends Group {
+  public static final long LIST_LIMIT = 3628800; // 10!, the most members an implicit S_n lists by default
   private final String NOT_A_PERM_ERROR = "ERROR: Please input only Permutations to methods in PermutationGroup.";
   // instance variables inherited from Group:
   // LL<GroupElement> members, int dimension, Hashtable<Integer, LL<GroupElement>> membersByOrder, LL<int> allOrders
   // methods inherited from Group:
-  // - equals (OVERWRITTEN), getIdentity, computeElementOrder, generateSubgroup, StoreElementsByOrder, getElementsByOrder,
-  //   orderedElementsToString, isNormal, getMembers, and protected helpers:
+  // - equals (OVERWRITTEN), getIdentity, computeElementOrder (OVERWRITTEN), power (OVERWRITTEN), generateSubgroup, StoreElementsByOrder, getElementsByOrder,
+  //   orderedElementsToString, isNormal, factorGroup, getMembers, and protected helpers:
   //     - findIndex, subgroupEquals, contains, isPrime, and two versions of addInOrder
   
   public PermutationGroup(int n) {
+    this(n, true);
+  }
+  
+  /* S_n with its members listed only when something needs them (see
+   * Group.leaveMembersImplicit).  Multiplying, inverting, finding orders and the
+   * stabilizer chain methods never do.  Listing them is allowed up to LIST_LIMIT
+   * elements (S_10), and throws an IllegalStateException beyond that unless the
+   * listing budget is raised. */
+  public static PermutationGroup implicit(int n) {
+    PermutationGroup g = new PermutationGroup(n, false);
+    g.setListingBudget(g.estimateListBytes(LIST_LIMIT));
+    return g;
+  }
+  
+  private PermutationGroup(int n, boolean listMembers) {
     super(n);
+    if (!listMembers) {
+      identity = Permutation.fromCycles(n);
+      leaveMembersImplicit();
+      return;
+    }
+    GroupEvents.Construction event = new GroupEvents.Construction();
+    long operatesBefore = beginEvent(event);
     
+    // the permutations come out of allPermutations in lexicographic order, identity first,
+    // one at a time, so nothing but the members themselves is ever held in memory
+    Iterator<GroupElement> all = allPermutations(n);
+    identity = all.next();
+    members.add(identity);
     if (n >= 7) {
       System.out.println("NOTE: Because you've chosen such a high order for your permutation group, elements will not "
                            + "have their order pre-set in the list of group members, and will not be added to this list in any particular order.");
-      LinkedList<LinkedList<Integer>> allMappings = generateOrderings(oneToN(n));
-      identity = new Permutation(allMappings.get(0));
-      members.add(identity);
-      
-      for (int i = 1 ; i < allMappings.size(); i++) {
-        Permutation toAdd = new Permutation(allMappings.get(i));
-        members.add(toAdd);
-      }
+      while (all.hasNext())
+        members.add(all.next());
     }
     else {
-      LinkedList<LinkedList<Integer>> allMappings = generateOrderings(oneToN(n));
-      identity = new Permutation(allMappings.get(0));
-      members.add(identity);
-      
-      for (int i = 1; i < allMappings.size(); i++) {
-        Permutation toAdd = new Permutation(allMappings.get(i));
+      while (all.hasNext()) {
+        GroupElement toAdd = all.next();
         toAdd.setOrder(computeElementOrder(toAdd));
         addInOrder(members, toAdd);
       }
     }
+    commitEvent(event, operatesBefore);
   }
   
   /* ToString(): */
   public String toString() {
-    String s = "The permutation group S" + dimension + " contains " + fact(dimension) + " elements:";
+    StringBuilder s = new StringBuilder("The permutation group S" + dimension + " contains " + getExactGroupOrder() + " elements");
+    if (isImplicit())
+      return s.append(" (not listed).").toString();
+    s.append(':');
     
-    for (int i = 0; i < members.size(); i++)
-      s+="\n"+members.get(i).toString();
+    for (GroupElement member : members)
+      s.append('\n').append(member.toString());
     
-    return s.substring(0, s.length())+".";
+    return s.append('.').toString();
   }
   
   public String groupName() {
     return "S"+dimension;
   }
   
-  /* Returns the number of elements in the group. */
+  /* Returns the number of elements in the group, or -1 from S13 on, where there are
+   * more than an int can hold (see getExactGroupOrder). */
   public int getGroupOrder() {
-    return fact(dimension);
+    BigInteger order = getExactGroupOrder();
+    return (order.bitLength() < 32) ? order.intValue() : -1;
+  }
+  
+  /* n!, which fits in a long up to n = 20 (beyond that, an ArithmeticException; see
+   * getExactGroupOrder). */
+  public long getLongGroupOrder() {
+    long f = 1;
+    for (int i = 2; i <= dimension; i++)
+      f = Math.multiplyExact(f, i);
+    return f;
+  }
+  
+  /* n!, for any n. */
+  public BigInteger getExactGroupOrder() {
+    BigInteger f = BigInteger.ONE;
+    for (int i = 2; i <= dimension; i++)
+      f = f.multiply(BigInteger.valueOf(i));
+    return f;
+  }
+  
+  /* The standard generators (see standardGenerators) while the members aren't listed;
+   * otherwise the ones Group picks. */
+  public LinkedList<GroupElement> getGenerators() {
+    if (isImplicit())
+      return new LinkedList<GroupElement>(standardGenerators(dimension));
+    return super.getGenerators();
+  }
+  
+  /* For an implicit group, the permutations in lexicographic order (see allPermutations). */
+  public Iterator<GroupElement> elementIterator() {
+    if (isImplicit())
+      return allPermutations(dimension);
+    return super.elementIterator();
   }
   
   /* Operates two permutations by way of function composition, following the convention
-   * that the second input is the "first" function to act. The basic mechanism is that,
-   * for each integer from 1 to n, we find where the "right" function takes i (e2 maps i -> j),
-   * then whene the "left" function takes j (e1 maps j -> k), and then use this to
-   * construct a new permutation that takes i directly to k. */
+   * that the second input is the "first" function to act: for each integer from 1 to n,
+   * we find where the "right" function takes i (e2 maps i -> j), then where the "left"
+   * function takes j (e1 maps j -> k).  Up to S_16 this is done on the packed images
+   * (see PackedPermutations) without building anything but the result. */
   public GroupElement operate(GroupElement e1, GroupElement e2) {
     if (!isPermutation(e1, e2)) {
       System.out.println(NOT_A_PERM_ERROR);
       return null;
     }
     
-    Permutation p1 = (Permutation)e1;
-    Permutation p2 = (Permutation)e2;
-    Hashtable<Integer, Integer> function1 = p1.getFunctionVals();
-    Hashtable<Integer, Integer> function2 = p2.getFunctionVals();
-    
-    LinkedList<Integer> composition = new LinkedList<Integer>();
-    
-    for (int i = 1; i <= dimension; i++) {
-      int firstVal = function2.get(i);
-      int secondVal = function1.get(firstVal);
-      
-      composition.add(secondVal);
+    countOperate();
+    countAllocated(1);
+    return ((Permutation)e1).compose((Permutation)e2);
+  }
+  
+  /* The order of a permutation is the lcm of its cycle lengths, which the
+   * Permutation reads straight off its cycle decomposition - no need to keep
+   * composing the permutation with itself until we get back to the identity.
+   * Throws an ArithmeticException if the order doesn't fit in an int (see
+   * Permutation.cycleOrder for the exact order). */
+  public int computeElementOrder(GroupElement e) {
+    if (!isPermutation(e)) {
+      System.out.println(NOT_A_PERM_ERROR);
+      return -1;
     }
     
-    Permutation result = new Permutation(composition);
-    return result;
+    countElementOrder();
+    return Math.toIntExact(((Permutation)e).cycleOrder());
   }
   
-  /* Composes together a list of more than two permutations in one fell swoop. */
+  /* Composes together a list of more than two permutations in one fell swoop.
+   * Since composition is associative we can just work from left to right, which
+   * leaves the list itself untouched. */
   public GroupElement chainOperate(LinkedList<Permutation> list) {
-    if (list.size() == 1)
-      return (list.get(0));
+    Iterator<Permutation> it = list.iterator();
+    GroupElement soFar = it.next();
     
-    else if (list.size() == 2)
-      return (operate(list.get(0), list.get(1)));
+    while (it.hasNext())
+      soFar = operate(soFar, it.next());
     
-    else {
-      Permutation two = list.removeLast();
-      Permutation one = list.removeLast();
-      return (operate(chainOperate(list), operate(one, two)));
-    }
+    return soFar;
   }
   
-  /* Computes the inverse of an element by decomposing it into 2-cycles and
-   * reversing & then multiplying out the decomposition. */
+  /* Computes the inverse of an element directly: if e sends x to y, then
+   * its inverse sends y back to x. */
   public GroupElement getInverse(GroupElement e) {
     if (!isPermutation(e)) {
       System.out.println(NOT_A_PERM_ERROR);
       return null;
     }
     
-    if (equals(e, identity))
-      return identity;
-    if (equals(operate(e, e), identity))
-      return e;
-    else {
-      LinkedList<Permutation> twoCycleDecomp = decompose((Permutation)e);
-      LinkedList<Permutation> inverseDecomp = reverse(twoCycleDecomp);
-      
-      return (chainOperate(inverseDecomp));
+    countAllocated(1);
+    return ((Permutation)e).inverse();
+  }
+  
+  /* Raises a permutation to the k-th power by rotating each of its cycles
+   * k places (see Permutation.power), which is O(n) for any k - or O(support)
+   * for a sparse permutation. */
+  public GroupElement power(GroupElement e, long k) {
+    if (!isPermutation(e)) {
+      System.out.println(NOT_A_PERM_ERROR);
+      return null;
     }
+    
+    countAllocated(1);
+    return ((Permutation)e).power(k);
   }
   
   /* Decomposes the given permutation into a "product", or in this case a
@@ -146,119 +208,178 @@ public class PermutationGroup extends Group {
     }
     
     else {
-      LinkedList<Integer> cycleMembers = p.getNonFixedVals();
+      // the permutation already knows its cycles, and lists the swaps in exactly this order:
+      int[][] swaps = p.getTranspositions();
       
-      while (cycleMembers.size() > 0) {
-        int cycleStart = cycleMembers.get(0);
-        LinkedList<Integer> correspondingCycle = p.getFullCycle(cycleStart);
-        
-        // for each member in the cycle from cycle[last] to cycle[1], create a new swap permutation with cycle[0]:
-        for (int i = correspondingCycle.size()-1; i > 0; i--) {
-        	Permutation toAdd = new Permutation(true, dimension, correspondingCycle.get(0), correspondingCycle.get(i));
-        	decomposition.add(toAdd);
-        }
-        
-        // then completely remove the cycle we just decomposed and move on to the next one, or end the process if this was the last:
-        for (int i = 0; i < correspondingCycle.size(); i++)
-          cycleMembers.removeFirstOccurrence(correspondingCycle.get(i));
-      }
+      for (int i = 0; i < swaps.length; i++)
+        decomposition.add(new Permutation(true, dimension, swaps[i][0], swaps[i][1]));
       
       return decomposition;
     }
   }
   
-  /* Returns the group member at the given index. */
-  public Permutation getMember(int index) {
-    return (Permutation)members.get(index);
+  /* A Permutation of up to 16 points is one packed long; beyond that, an int array. */
+  protected long estimateElementBytes() {
+    return (dimension <= PackedPermutations.MAX_DEGREE) ? 48 : 64 + 4*dimension;
   }
   
-  // -------------------------------------------------------------------------------------------------- //
-  // --------------------------------------------- HELPERS -------------------------------------------- //
-  // -------------------------------------------------------------------------------------------------- //
+  /* Permutations are hashed by their packed value (or their images), not their string. */
+  protected Object hashKey(GroupElement e) {
+    return ((Permutation)e).hashKey();
+  }
   
-  /* Generates all possible ways of arranging a given set of integers. */
-  private LinkedList<LinkedList<Integer>> generateOrderings(LinkedList<Integer> digits) {
-    LinkedList<LinkedList<Integer>> allOrderings = new LinkedList<LinkedList<Integer>>();
-    int numDigits = digits.size();
-    
-    if (numDigits == 1)
-      allOrderings.add(digits);
-    
-    else {
-      int numOrders = fact(numDigits);
-      int partitionPoint = numOrders/numDigits; // = (n-1)!
-      int firstDigit = 0; // <-placeholder
-      LinkedList<Integer>[] paredDigits = new LinkedList[numDigits];
+  /* The members as packed values (see PackedPermutations), in the same order; only
+   * for n <= 16. */
+  public long[] packedMembers() {
+    return PackedPermutations.toArray(members);
+  }
+  
+  /* Counts the elements of S_n by element order and by cycle type, working from the
+   * partitions of n rather than from the elements themselves (see PermutationCensus),
+   * so n can be far bigger than any PermutationGroup we could actually build. */
+  public static PermutationCensus census(int n) {
+    return new PermutationCensus(n);
+  }
+  
+  /* The census of this group; the same counts that storeElementsByOrder would find. */
+  public PermutationCensus getCensus() {
+    return census(dimension);
+  }
+
+  /* The transposition (12) and the n-cycle (12...n), which between them generate S_n -
+   * all that the stabilizer chain and Sylow machinery need to know about the group. */
+  public static LinkedList<Permutation> standardGenerators(int n) {
+    LinkedList<Permutation> gens = new LinkedList<Permutation>();
+    if (n < 2) {
+      gens.add(new Permutation(identityImages(Math.max(n, 1))));
+      return gens;
+    }
+    int[] cycle = identityImages(n);
+    gens.add(new Permutation(true, n, 1, 2));
+    if (n > 2)
+      gens.add(new Permutation(true, n, cycle));
+    return gens;
+  }
+
+  /* The Sylow p-subgroups of this group (see SylowSubgroups), worked out from its
+   * generators rather than its members. */
+  public SylowSubgroups getSylowSubgroups(int p) {
+    return new SylowSubgroups(standardGenerators(dimension), p);
+  }
+
+  /* The commutator calculus of Group, but worked out with stabilizer chains from the
+   * standard generators (see StabilizerChain.commutatorSubgroup) rather than by
+   * multiplying members together, which makes it cheap well beyond S_8; only picking out
+   * the members of the answers goes through the whole group. */
+  public boolean isAbelian() {
+    return dimension <= 2;
+  }
+  
+  public LinkedList<GroupElement> commutatorSubgroup() {
+    return membersOf(chain().commutatorSubgroup());
+  }
+  
+  public LinkedList<LinkedList<GroupElement>> derivedSeries() {
+    LinkedList<LinkedList<GroupElement>> series = new LinkedList<LinkedList<GroupElement>>();
+    for (StabilizerChain c : chain().derivedSeries())
+      series.add(membersOf(c));
+    return series;
+  }
+  
+  public LinkedList<LinkedList<GroupElement>> lowerCentralSeries() {
+    LinkedList<LinkedList<GroupElement>> series = new LinkedList<LinkedList<GroupElement>>();
+    for (StabilizerChain c : chain().lowerCentralSeries())
+      series.add(membersOf(c));
+    return series;
+  }
+  
+  public boolean isSolvable() {
+    return chain().isSolvable();
+  }
+  
+  public boolean isNilpotent() {
+    return chain().isNilpotent();
+  }
+  
+  /* Walks through all n! permutations of {1, ..., n} in lexicographic order, starting
+   * from the identity, building each one only when it is asked for - so, unlike the
+   * constructor, it needs no more memory for S_10 than for S_3. */
+  public static Iterator<GroupElement> allPermutations(final int n) {
+    return new Iterator<GroupElement>() {
+      private int[] next = identityImages(n);
       
-      // populate the allOrderings list and, in successive bunches of (n-1)!, add
-      // one of the numbers in digits at the head of each new list:
-      for (int j = 0; j < numOrders; j++) {
-        allOrderings.add(new LinkedList<Integer>());
-        
-        if (divides(j, partitionPoint)) {
-          // if at a multiple of (n-1)!, we change over the number we're entering into
-          // the 1st slot & add to paredDigits an abridged copy of the digits list
-          // that omits the current firstDigit:
-          firstDigit = digits.get(j/partitionPoint);
-          LinkedList<Integer> reducedList = (LinkedList<Integer>)digits.clone();
-          reducedList.removeFirstOccurrence(firstDigit);
-          paredDigits[j/partitionPoint] = reducedList;
-        }
-        
-        allOrderings.get(j).add(firstDigit);
+      public boolean hasNext() {
+        return (next != null);
       }
       
-      // Why? Because now we have:
-      // - n subsections of the "allOrderings" list, each containing
-      //   (n-1)! lists with just the first digit assigned;
-      // - n corresponding "paredDigits" lists, each of length (n-1), which,
-      //   when sent to generateOrderings, will produce (n-1)! possible arrangements
-      //   of those digits, NOT containing whatever number k is currently sitting at
-      //   the head of the 1-entry list in allOrderings.  How we proceed is clear:
-      
-      int counter = 0;
-      
-      for (int currentSubsect = 0; currentSubsect < numDigits; currentSubsect++) {
-        LinkedList<LinkedList<Integer>> subOrderings = generateOrderings(paredDigits[currentSubsect]);
-        for (int k = 0; k < subOrderings.size(); k++) {
-          allOrderings.get(counter).addAll(subOrderings.get(k));
-          counter++;
-        }
+      public GroupElement next() {
+        if (next == null)
+          throw new NoSuchElementException();
+        Permutation current = new Permutation(next.clone());
+        next = nextInLexicographicOrder(next);
+        return current;
       }
-    }
-    
-    return allOrderings;
+    };
   }
   
-  /* Generates a list of the integers from one to n. */
-  private LinkedList<Integer> oneToN(int n) {
-    LinkedList<Integer> toReturn = new LinkedList<Integer>();
-    for (int i = 1; i <= n; i++)
-      toReturn.add(i);
-    
-    return toReturn;
+  /* Returns the group member at the given index (listing the members of an implicit
+   * group first). */
+  public Permutation getMember(int index) {
+    listMembers();
+    return (Permutation)members.get(index);
   }
   
-  /* Reverses the entries in a linked list of permutations. */
-  private LinkedList<Permutation> reverse(LinkedList<Permutation> list) {
-    LinkedList<Permutation> reversed = new LinkedList<Permutation>();
-    
-    for (int i = 0; i < list.size(); i++)
-      reversed.addFirst(list.get(i));
-    
-    return reversed;
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+  
+  private StabilizerChain chain() {
+    return new StabilizerChain(standardGenerators(dimension));
+  }
+  
+  /* The members that lie in the group the chain describes (listing the members of an
+   * implicit group first). */
+  private LinkedList<GroupElement> membersOf(StabilizerChain c) {
+    listMembers();
+    LinkedList<GroupElement> list = new LinkedList<GroupElement>();
+    for (GroupElement e : members) {
+      if (c.contains((Permutation)e))
+        list.add(e);
+    }
+    return list;
   }
   
-  private boolean divides(int quotient, int divisor) {
-    return (quotient%divisor == 0);
+  /* Returns {1, ..., n}, the images of the identity permutation. */
+  private static int[] identityImages(int n) {
+    int[] images = new int[n];
+    for (int i = 0; i < n; i++)
+      images[i] = i+1;
+    return images;
   }
   
-  /* Factorial function */
-  private int fact(int n) {
-    if ((n == 1) || (n == 0))
-      return 1;
-    else
-      return (n * fact(n-1));
+  /* Turns the given arrangement into the next one in lexicographic order, in place
+   * (the classic "find the last ascent, swap, reverse the tail" step), or returns
+   * null if it was already the last arrangement. */
+  private static int[] nextInLexicographicOrder(int[] a) {
+    int i = a.length-2;
+    while (i >= 0 && a[i] > a[i+1])
+      i--;
+    if (i < 0)
+      return null;
+    
+    int j = a.length-1;
+    while (a[j] < a[i])
+      j--;
+    int temp = a[i];
+    a[i] = a[j];
+    a[j] = temp;
+    
+    for (int l = i+1, r = a.length-1; l < r; l++, r--) {
+      temp = a[l];
+      a[l] = a[r];
+      a[r] = temp;
+    }
+    return a;
   }
   
   /* Returns true if all the given GroupElements are Permutations,
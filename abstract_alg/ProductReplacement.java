@@ -0,0 +1,215 @@
+package abstract_alg;
+/* NAME: ProductReplacement.java
+ * DATE: October 2026
+ * COMMENTS: Random elements of the group generated by some elements, without ever listing
+ * its members, by the product replacement algorithm (Celler, Leedham-Green, Murray,
+ * Niemeyer and O'Brien) with an accumulator.  The state is a handful of elements, to start
+ * with the generators over and over, and each step replaces a random one of them, s_i,
+ * by s_i s_j or s_i s_j^-1 (or the same on the left) for another random one, s_j, then
+ * multiplies the accumulator by the new s_i and hands it out.  The slots always generate
+ * the same group, and after a burn-in of some dozens of steps the accumulator is, for all
+ * practical purposes, uniformly distributed in it.  Each step is one or two products.
+ * Each thread gets a state of its own - a copy of one that has been burned in once, with
+ * its own SplittableRandom split off from the source's - so that sampling from many threads
+ * at once (see MonteCarlo) needs no locking.  The group is only used to multiply, invert
+ * and find orders; for permutations, ofPermutations does without one, so that the group
+ * can be as big as you like. */
+
+import java.util.*;
+
+public class ProductReplacement {
+  public static final int DEFAULT_BURN_IN = 100;
+  private static final int MIN_SLOTS = 10;
+
+  private final Group group;
+  private final GroupElement[] generators;
+  private final int numSlots;
+  private final SplittableRandom seeds; // split, under its own lock, for each new state
+  private int burnIn = DEFAULT_BURN_IN;
+  private volatile GroupElement[] start; // the burned-in slots and accumulator; null until first needed
+  private final ThreadLocal<State> states = new ThreadLocal<State>();
+
+  /* Random elements of the whole group, from its generators. */
+  public ProductReplacement(Group group) {
+    this(group, group.getGenerators());
+  }
+
+  /* Random elements of the subgroup of group generated by the given elements. */
+  public ProductReplacement(Group group, Collection<? extends GroupElement> generators) {
+    this(group, generators, new SplittableRandom());
+  }
+
+  /* The same, but with the random numbers seeded, so that one thread sampling sees the
+   * same elements every time. */
+  public ProductReplacement(Group group, Collection<? extends GroupElement> generators, long seed) {
+    this(group, generators, new SplittableRandom(seed));
+  }
+
+  private ProductReplacement(Group group, Collection<? extends GroupElement> generators, SplittableRandom seeds) {
+    if (generators.isEmpty())
+      throw new IllegalArgumentException("Product replacement needs at least one generator.");
+    this.group = group;
+    this.generators = generators.toArray(new GroupElement[0]);
+    this.numSlots = Math.max(MIN_SLOTS, this.generators.length + 1);
+    this.seeds = seeds;
+  }
+
+  /* Random elements of the group generated by some permutations, all of the same size,
+   * with no Group behind them - e.g. of a subgroup of S_100 - and so no limit on its order. */
+  public static ProductReplacement ofPermutations(Collection<Permutation> generators) {
+    if (generators.isEmpty())
+      throw new IllegalArgumentException("Product replacement needs at least one generator.");
+    return new ProductReplacement(new Permutations(generators.iterator().next().size()), generators);
+  }
+
+  public Group getGroup() {
+    return group;
+  }
+
+  public LinkedList<GroupElement> getGenerators() {
+    return new LinkedList<GroupElement>(Arrays.asList(generators));
+  }
+
+  public int getBurnIn() {
+    return burnIn;
+  }
+
+  /* How many steps to take before handing out the first element.  Any states already
+   * burned in are thrown away. */
+  public synchronized void setBurnIn(int steps) {
+    if (steps < 0)
+      throw new IllegalArgumentException("The burn-in can't be negative: " + steps + ".");
+    burnIn = steps;
+    start = null;
+  }
+
+  /* A random element, from this thread's state. */
+  public GroupElement next() {
+    GroupElement[] origin = start;
+    State s = states.get();
+    if (s == null || origin == null || s.origin != origin) {
+      s = newState();
+      states.set(s);
+    }
+    return s.step();
+  }
+
+  /* The order of an element, as the group works it out. */
+  public int order(GroupElement e) {
+    return group.computeElementOrder(e);
+  }
+
+  public String toString() {
+    return "Product replacement on " + generators.length + " generator" + (generators.length == 1 ? "" : "s")
+      + " of " + group.groupName() + " (" + numSlots + " slots, burn-in " + burnIn + ")";
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* A state for this thread: a copy of the burned-in one (burning it in first if no
+   * thread has yet) with random numbers of its own, stirred a little so that no two
+   * threads start out handing out the same products. */
+  private State newState() {
+    GroupElement[] origin;
+    SplittableRandom random;
+    synchronized (this) {
+      if (start == null) {
+        State first = new State(initialSlots(), null, seeds.split());
+        for (int k = 0; k < burnIn; k++)
+          first.step();
+        GroupElement[] burnedIn = Arrays.copyOf(first.slots, numSlots+1);
+        burnedIn[numSlots] = first.accumulator;
+        start = burnedIn;
+      }
+      origin = start;
+      random = seeds.split();
+    }
+    State s = new State(Arrays.copyOf(origin, numSlots), origin, random);
+    s.accumulator = origin[numSlots];
+    for (int k = 0; k < numSlots; k++)
+      s.step();
+    return s;
+  }
+
+  private GroupElement[] initialSlots() {
+    GroupElement[] slots = new GroupElement[numSlots];
+    for (int i = 0; i < numSlots; i++)
+      slots[i] = generators[i % generators.length];
+    return slots;
+  }
+
+  private final class State {
+    private final GroupElement[] slots;
+    private final GroupElement[] origin; // the burned-in state this one was copied from
+    private final SplittableRandom random;
+    private GroupElement accumulator;
+
+    private State(GroupElement[] slots, GroupElement[] origin, SplittableRandom random) {
+      this.slots = slots;
+      this.origin = origin;
+      this.random = random;
+      this.accumulator = group.getIdentity();
+    }
+
+    private GroupElement step() {
+      int i = random.nextInt(numSlots);
+      int j = random.nextInt(numSlots-1);
+      if (j >= i)
+        j++;
+      int choice = random.nextInt(4);
+      GroupElement other = ((choice & 1) == 0) ? slots[j] : group.getInverse(slots[j]);
+      slots[i] = ((choice & 2) == 0) ? group.operate(slots[i], other) : group.operate(other, slots[i]);
+      accumulator = group.operate(accumulator, slots[i]);
+      return accumulator;
+    }
+  }
+
+  /* Just enough of a Group to multiply permutations of {1, ..., n}: it has no members
+   * and doesn't know its own order. */
+  private static final class Permutations extends Group {
+    private Permutations(int n) {
+      super(n);
+      identity = Permutation.fromCycles(n);
+    }
+
+    public int getGroupOrder() {
+      return -1;
+    }
+
+    public GroupElement operate(GroupElement e1, GroupElement e2) {
+      return ((Permutation)e1).compose((Permutation)e2);
+    }
+
+    public GroupElement getInverse(GroupElement e) {
+      return ((Permutation)e).inverse();
+    }
+
+    public int computeElementOrder(GroupElement e) {
+      return Math.toIntExact(((Permutation)e).cycleOrder());
+    }
+
+    public GroupElement power(GroupElement e, long k) {
+      return ((Permutation)e).power(k);
+    }
+
+    protected Object hashKey(GroupElement e) {
+      return ((Permutation)e).hashKey();
+    }
+
+    public String toString() {
+      return groupName();
+    }
+
+    public String groupName() {
+      return "a subgroup of S" + dimension;
+    }
+  }
+
+  public static void main(String[] args) {
+//    ProductReplacement random = ProductReplacement.ofPermutations(PermutationGroup.standardGenerators(12));
+//    System.out.println(random.next());
+//    System.out.println(MonteCarlo.orderDistribution(random, 1000000));
+  }
+}
@@ -0,0 +1,569 @@
+package abstract_alg;
+/* NAME: QueryPipeline.java
+ * DATE: October 2026
+ * COMMENTS: Answers a stream of questions about Z mod N, D_n and S_n, one JSON object
+ * per line, from a file or standard input, writing one JSON answer per line to standard
+ * output in the same order - so that a whole batch of homework questions costs one JVM
+ * start instead of one each.  A question names its group, what to do and the elements
+ * involved, e.g.
+ *   {"id": 1, "group": "S5", "op": "operate", "a": "(1 2 3)", "b": "(4 5)"}
+ *   {"id": 2, "group": "Z12", "op": "order", "a": 8}
+ *   {"id": 3, "group": "D6", "op": "subgroup", "gens": ["r2", "s1"]}
+ *   {"id": 4, "group": "S4", "op": "normal", "gens": ["(1 2)(3 4)", "(1 3)(2 4)"]}
+ * and gets back {"id": 1, "result": "(1 2 3)(4 5)"} (or {"id": ..., "error": "..."} if it
+ * can't be answered; the id is whatever the question gave, or else its line number).
+ * Groups are Zn, Dn or Sn; elements are integers in Z mod N, r0, ..., r(n-1) (the
+ * rotations, through k*360/n degrees) and s0, ..., s(n-1) (the reflections, over the
+ * axis at k*180/n degrees) in D_n, and cycles such as "(1 2 3)(4 5)", or "()" for the
+ * identity, in S_n.  The questions are:
+ *  - "order": the order of a (an error if it is more than a long holds);
+ *  - "operate": a*b (b first, for permutations);
+ *  - "inverse": the inverse of a;
+ *  - "power": a to the power "k";
+ *  - "groupOrder": the number of elements in the group, as a string of digits (S_n's
+ *    soon has more than a JSON number can be trusted with);
+ *  - "subgroup": the order and (up to MAX_LISTED of them) the elements of the subgroup
+ *    generated by "gens";
+ *  - "normal": whether the subgroup generated by "gens" is normal - checked by
+ *    conjugating its generators by the group's, so the group is never listed.
+ * Each group is built once, the first time a question names it, and shared by every
+ * question about it afterwards; they are all implicit (see Group.leaveMembersImplicit),
+ * so none of these questions costs more than the elements it is about.  The questions are
+ * answered in parallel on a fixed pool of threads, while one thread writes the answers
+ * out in order; at most "window" questions are in hand at once, and the reader waits for
+ * the writer once that many are, so a huge batch never piles up in memory.  Run as
+ *   java abstract_alg.QueryPipeline [--threads N] [--window N] [file] */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class QueryPipeline {
+  public static final int MAX_SUBGROUP = 1 << 20; // the largest subgroup "subgroup" and "normal" will generate
+  public static final int MAX_LISTED = 1024; // the most elements a "subgroup" answer lists
+  private static final int MAX_DEGREE = 1 << 16; // for S_n; Z_n and D_n go up to Integer.MAX_VALUE
+
+  private final ConcurrentHashMap<String, Group> groups = new ConcurrentHashMap<String, Group>();
+  private final int threads, window;
+
+  public QueryPipeline(int threads, int window) {
+    if (threads < 1 || window < 1)
+      throw new IllegalArgumentException("A pipeline needs at least one thread and a window of at least one question.");
+    this.threads = threads;
+    this.window = window;
+  }
+
+  /* Answers every question read from in, writing the answers to out in the same order,
+   * and returns how many there were. */
+  public long run(BufferedReader in, Writer out) throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "query-pipeline");
+      t.setDaemon(true);
+      return t;
+    });
+    BlockingQueue<CompletableFuture<String>> pending = new ArrayBlockingQueue<CompletableFuture<String>>(window);
+    CompletableFuture<String> end = CompletableFuture.completedFuture(null);
+    Writing writing = new Writing(pending, out);
+    Thread writer = new Thread(writing, "query-pipeline-writer");
+    writer.start();
+
+    long lineNumber = 0;
+    try {
+      for (String line = in.readLine(); line != null; line = in.readLine()) {
+        lineNumber++;
+        if (line.isBlank())
+          continue;
+        final String query = line;
+        final long number = lineNumber;
+        pending.put(CompletableFuture.supplyAsync(() -> answer(query, number), pool)); // (waits while the window is full)
+      }
+      pending.put(end);
+      writer.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      writer.interrupt();
+      throw new InterruptedIOException("Interrupted after " + lineNumber + " lines.");
+    }
+    finally {
+      pool.shutdownNow();
+    }
+    if (writing.failure != null)
+      throw writing.failure;
+    return writing.written;
+  }
+
+  /* The answer to one line, as a line of JSON.  Anything thrown while answering it,
+   * even an Error, becomes an error answer, so the writer always gets a line. */
+  public String answer(String line, long lineNumber) {
+    Object id = lineNumber;
+    String idName = "line";
+    try {
+      Object parsed = Json.parse(line);
+      if (!(parsed instanceof Map))
+        throw new IllegalArgumentException("A question must be a JSON object.");
+      Map<?, ?> query = (Map<?, ?>)parsed;
+      if (query.containsKey("id")) {
+        id = query.get("id");
+        idName = "id";
+      }
+      return "{" + Json.quote(idName) + ": " + Json.write(id) + ", \"result\": " + Json.write(evaluate(query)) + "}";
+    }
+    catch (Throwable e) {
+      String message = (e.getMessage() == null) ? e.getClass().getSimpleName() : e.getMessage();
+      return "{" + Json.quote(idName) + ": " + Json.write(id) + ", \"error\": " + Json.quote(message) + "}";
+    }
+  }
+
+  /* The group with the given name, built the first time it is asked for. */
+  public Group group(String name) {
+    String key = name.trim().toUpperCase(Locale.ROOT).replace("_", "");
+    Group g = groups.get(key);
+    return (g != null) ? g : groups.computeIfAbsent(key, QueryPipeline::build);
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  private Object evaluate(Map<?, ?> query) {
+    Group g = group(string(query, "group"));
+    String op = string(query, "op");
+    switch (op) {
+      case "order": {
+        GroupElement a = element(g, query, "a");
+        return (a instanceof Permutation) ? ((Permutation)a).cycleOrder() : g.computeElementOrder(a); // (the first can pass an int)
+      }
+      case "operate":
+        return format(g, g.operate(element(g, query, "a"), element(g, query, "b")));
+      case "inverse":
+        return format(g, g.getInverse(element(g, query, "a")));
+      case "power":
+        return format(g, g.power(element(g, query, "a"), number(query, "k")));
+      case "groupOrder":
+        return g.getExactGroupOrder().toString();
+      case "subgroup": {
+        LinkedList<GroupElement> subgroup = closure(g, elements(g, query, "gens"));
+        ArrayList<Object> listed = new ArrayList<Object>();
+        for (GroupElement e : subgroup) {
+          if (listed.size() == MAX_LISTED)
+            break;
+          listed.add(format(g, e));
+        }
+        LinkedHashMap<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("order", subgroup.size());
+        result.put("elements", listed);
+        return result;
+      }
+      case "normal":
+        return isNormal(g, elements(g, query, "gens"));
+      default:
+        throw new IllegalArgumentException("There is no question \"" + op + "\"; ask for order, operate, inverse, power, "
+                                             + "groupOrder, subgroup or normal.");
+    }
+  }
+
+  private static Group build(String name) {
+    if (name.length() < 2 || "ZDS".indexOf(name.charAt(0)) < 0)
+      throw new IllegalArgumentException("There is no group \"" + name + "\"; name Zn, Dn or Sn.");
+    int n;
+    try {
+      n = Integer.parseInt(name.substring(1));
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException("There is no group \"" + name + "\"; name Zn, Dn or Sn.");
+    }
+    if (n < 1 || (name.charAt(0) == 'S' && n > MAX_DEGREE))
+      throw new IllegalArgumentException(name + " is out of range.");
+    switch (name.charAt(0)) {
+      case 'Z':
+        return ZmodN.implicit(n);
+      case 'D':
+        return DihedralGroup.implicit(n);
+      default:
+        return PermutationGroup.implicit(n);
+    }
+  }
+
+  /* The subgroup generated by the elements, by breadth-first closure on their hash
+   * keys, so that the group itself is never listed. */
+  private static LinkedList<GroupElement> closure(Group g, List<GroupElement> gens) {
+    ArrayList<GroupElement> reached = new ArrayList<GroupElement>();
+    HashSet<Object> seen = new HashSet<Object>();
+    reached.add(g.getIdentity());
+    seen.add(g.hashKey(g.getIdentity()));
+    for (int head = 0; head < reached.size(); head++) {
+      GroupElement x = reached.get(head);
+      for (GroupElement gen : gens) {
+        GroupElement product = g.operate(x, gen);
+        if (seen.add(g.hashKey(product))) {
+          if (reached.size() == MAX_SUBGROUP)
+            throw new IllegalArgumentException("The subgroup has more than " + MAX_SUBGROUP + " elements.");
+          reached.add(product);
+        }
+      }
+    }
+    return new LinkedList<GroupElement>(reached);
+  }
+
+  /* <gens> is normal if conjugating each of gens by each of the group's generators lands
+   * back in it. */
+  private static boolean isNormal(Group g, List<GroupElement> gens) {
+    HashSet<Object> subgroup = new HashSet<Object>();
+    for (GroupElement e : closure(g, gens))
+      subgroup.add(g.hashKey(e));
+    for (GroupElement x : g.getGenerators()) {
+      GroupElement inverse = g.getInverse(x);
+      for (GroupElement h : gens) {
+        if (!subgroup.contains(g.hashKey(g.operate(g.operate(x, h), inverse))))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private static GroupElement element(Group g, Map<?, ?> query, String field) {
+    if (!query.containsKey(field))
+      throw new IllegalArgumentException("The question needs \"" + field + "\".");
+    return parse(g, query.get(field));
+  }
+
+  private static List<GroupElement> elements(Group g, Map<?, ?> query, String field) {
+    if (!(query.get(field) instanceof List))
+      throw new IllegalArgumentException("The question needs \"" + field + "\", a list of elements.");
+    ArrayList<GroupElement> list = new ArrayList<GroupElement>();
+    for (Object o : (List<?>)query.get(field))
+      list.add(parse(g, o));
+    return list;
+  }
+
+  private static String string(Map<?, ?> query, String field) {
+    if (!(query.get(field) instanceof String))
+      throw new IllegalArgumentException("The question needs \"" + field + "\", a string.");
+    return (String)query.get(field);
+  }
+
+  private static long number(Map<?, ?> query, String field) {
+    if (!(query.get(field) instanceof Long))
+      throw new IllegalArgumentException("The question needs \"" + field + "\", an integer.");
+    return (Long)query.get(field);
+  }
+
+  /* An element written as in the comments at the top. */
+  private static GroupElement parse(Group g, Object value) {
+    int n = g.dimension;
+    if (g instanceof ZmodN) {
+      long k = (value instanceof Long) ? (Long)value : integer(value);
+      return new ModularInt((int)(((k % n) + n) % n));
+    }
+    if (!(value instanceof String))
+      throw new IllegalArgumentException(Json.write(value) + " is not an element of " + g.groupName() + ".");
+    String s = ((String)value).trim();
+    if (g instanceof DihedralGroup) {
+      if (s.length() < 2 || (s.charAt(0) != 'r' && s.charAt(0) != 's'))
+        throw new IllegalArgumentException("\"" + s + "\" is not an element of " + g.groupName() + "; write rk or sk.");
+      long k = integer(s.substring(1));
+      k = ((k % n) + n) % n;
+      return (s.charAt(0) == 'r') ? new Dihedral("rotation", k*(360.0/n)) : new Dihedral("reflection", k*(180.0/n));
+    }
+    ArrayList<int[]> cycles = new ArrayList<int[]>();
+    int i = 0;
+    while (i < s.length()) {
+      if (Character.isWhitespace(s.charAt(i))) {
+        i++;
+        continue;
+      }
+      int close = s.indexOf(')', i);
+      if (s.charAt(i) != '(' || close < 0)
+        throw new IllegalArgumentException("\"" + s + "\" is not a permutation; write cycles such as (1 2 3)(4 5).");
+      String[] points = s.substring(i+1, close).trim().split("[\\s,]+");
+      if (!points[0].isEmpty()) {
+        int[] cycle = new int[points.length];
+        for (int j = 0; j < points.length; j++)
+          cycle[j] = (int)integer(points[j]);
+        cycles.add(cycle);
+      }
+      i = close + 1;
+    }
+    return Permutation.fromCycles(n, cycles.toArray(new int[0][]));
+  }
+
+  private static long integer(Object value) {
+    try {
+      return Long.parseLong(String.valueOf(value).trim());
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException(Json.write(value) + " is not an integer.");
+    }
+  }
+
+  /* An element written the way parse reads it. */
+  private static Object format(Group g, GroupElement e) {
+    int n = g.dimension;
+    if (e instanceof ModularInt)
+      return (long)((ModularInt)e).getIntValue();
+    if (e instanceof Dihedral) {
+      Dihedral d = (Dihedral)e;
+      double step = (d.isRotation() ? 360.0 : 180.0) / n;
+      long k = Math.round(d.getDegree() / step);
+      return (d.isRotation() ? "r" : "s") + (((k % n) + n) % n);
+    }
+    Permutation p = (Permutation)e;
+    StringBuilder s = new StringBuilder();
+    boolean[] done = new boolean[p.size() + 1];
+    for (int x = 1; x <= p.size(); x++) {
+      if (done[x] || p.image(x) == x)
+        continue;
+      s.append('(');
+      for (int y = x; !done[y]; y = p.image(y)) {
+        done[y] = true;
+        s.append(y).append(p.image(y) == x ? ")" : " ");
+      }
+    }
+    return (s.length() == 0) ? "()" : s.toString();
+  }
+
+  /* Takes the answers off the queue in order and writes them out, flushing whenever it
+   * catches up with the workers.  If writing fails it keeps taking them (so that the
+   * reader isn't left waiting for room) but writes no more. */
+  private static final class Writing implements Runnable {
+    private final BlockingQueue<CompletableFuture<String>> pending;
+    private final Writer out;
+    private volatile long written;
+    private volatile IOException failure;
+
+    private Writing(BlockingQueue<CompletableFuture<String>> pending, Writer out) {
+      this.pending = pending;
+      this.out = out;
+    }
+
+    public void run() {
+      try {
+        while (true) {
+          CompletableFuture<String> next = pending.take();
+          String line = next.join();
+          if (line == null)
+            break;
+          if (failure != null)
+            continue;
+          try {
+            out.write(line);
+            out.write('\n');
+            written++;
+            CompletableFuture<String> after = pending.peek();
+            if (after == null || !after.isDone())
+              out.flush();
+          }
+          catch (IOException e) {
+            failure = e;
+          }
+        }
+        if (failure == null)
+          out.flush();
+      }
+      catch (IOException e) {
+        failure = e;
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /* Just enough JSON for the questions: objects, arrays, strings, integers, other
+   * numbers, true, false and null. */
+  static final class Json {
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+      this.text = text;
+    }
+
+    static Object parse(String text) {
+      Json json = new Json(text);
+      Object value = json.value();
+      json.skipSpace();
+      if (json.pos != text.length())
+        throw json.error("Unexpected text after the value");
+      return value;
+    }
+
+    static String quote(String s) {
+      StringBuilder b = new StringBuilder("\"");
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c == '"' || c == '\\')
+          b.append('\\').append(c);
+        else if (c < 0x20 || c > 0x7e)
+          b.append(String.format("\\u%04x", (int)c));
+        else
+          b.append(c);
+      }
+      return b.append('"').toString();
+    }
+
+    static String write(Object value) {
+      if (value == null)
+        return "null";
+      if (value instanceof String)
+        return quote((String)value);
+      if (value instanceof Map) {
+        StringJoiner j = new StringJoiner(", ", "{", "}");
+        for (Map.Entry<?, ?> e : ((Map<?, ?>)value).entrySet())
+          j.add(quote(String.valueOf(e.getKey())) + ": " + write(e.getValue()));
+        return j.toString();
+      }
+      if (value instanceof List) {
+        StringJoiner j = new StringJoiner(", ", "[", "]");
+        for (Object o : (List<?>)value)
+          j.add(write(o));
+        return j.toString();
+      }
+      return String.valueOf(value); // numbers and booleans
+    }
+
+    private Object value() {
+      skipSpace();
+      if (pos == text.length())
+        throw error("Unexpected end of line");
+      char c = text.charAt(pos);
+      if (c == '{') {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<String, Object>();
+        pos++;
+        skipSpace();
+        if (peek('}'))
+          return map;
+        do {
+          skipSpace();
+          if (!peek('"'))
+            throw error("Expected a key");
+          String key = string();
+          skipSpace();
+          expect(':');
+          map.put(key, value());
+          skipSpace();
+        } while (peek(','));
+        expect('}');
+        return map;
+      }
+      if (c == '[') {
+        ArrayList<Object> list = new ArrayList<Object>();
+        pos++;
+        skipSpace();
+        if (peek(']'))
+          return list;
+        do {
+          list.add(value());
+          skipSpace();
+        } while (peek(','));
+        expect(']');
+        return list;
+      }
+      if (c == '"') {
+        pos++;
+        return string();
+      }
+      for (String word : new String[] {"true", "false", "null"}) {
+        if (text.startsWith(word, pos)) {
+          pos += word.length();
+          return word.equals("null") ? null : Boolean.valueOf(word.equals("true"));
+        }
+      }
+      int start = pos;
+      while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0)
+        pos++;
+      String number = text.substring(start, pos);
+      try {
+        return (number.matches("-?\\d+")) ? (Object)Long.valueOf(number) : (Object)Double.valueOf(number);
+      }
+      catch (NumberFormatException e) {
+        pos = start;
+        throw error("Expected a value");
+      }
+    }
+
+    /* The rest of a string whose opening quote has been read. */
+    private String string() {
+      StringBuilder s = new StringBuilder();
+      while (true) {
+        if (pos >= text.length())
+          throw error("Unterminated string");
+        char c = text.charAt(pos++);
+        if (c == '"')
+          return s.toString();
+        if (c != '\\') {
+          s.append(c);
+          continue;
+        }
+        if (pos >= text.length())
+          throw error("Unterminated string");
+        char escaped = text.charAt(pos++);
+        switch (escaped) {
+          case 'n': s.append('\n'); break;
+          case 't': s.append('\t'); break;
+          case 'r': s.append('\r'); break;
+          case 'b': s.append('\b'); break;
+          case 'f': s.append('\f'); break;
+          case 'u':
+            if (pos + 4 > text.length())
+              throw error("Bad \\u escape");
+            try {
+              s.append((char)Integer.parseInt(text.substring(pos, pos+4), 16));
+            }
+            catch (NumberFormatException e) {
+              throw error("Bad \\u escape");
+            }
+            pos += 4;
+            break;
+          default: s.append(escaped); // \" \\ \/
+        }
+      }
+    }
+
+    private boolean peek(char c) {
+      if (pos < text.length() && text.charAt(pos) == c) {
+        pos++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(char c) {
+      if (!peek(c))
+        throw error("Expected '" + c + "'");
+    }
+
+    private void skipSpace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+        pos++;
+    }
+
+    private IllegalArgumentException error(String what) {
+      return new IllegalArgumentException(what + " at column " + (pos+1) + ".");
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int threads = Runtime.getRuntime().availableProcessors(), window = 1024;
+    String file = null;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--threads") && i+1 < args.length)
+        threads = Integer.parseInt(args[++i]);
+      else if (args[i].equals("--window") && i+1 < args.length)
+        window = Integer.parseInt(args[++i]);
+      else if (file == null && !args[i].startsWith("--"))
+        file = args[i];
+      else {
+        System.err.println("Usage: java abstract_alg.QueryPipeline [--threads N] [--window N] [file]");
+        System.exit(2);
+      }
+    }
+    InputStream input = (file == null) ? System.in : new FileInputStream(file);
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+      Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+      new QueryPipeline(threads, window).run(in, out);
+    }
+  }
+}
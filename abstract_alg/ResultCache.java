@@ -0,0 +1,138 @@
+package abstract_alg;
+/* NAME: ResultCache.java
+ * DATE: October 2026
+ * COMMENTS: A small, size-bounded cache of derived results (cyclic subgroups, normality
+ * checks, factor groups) belonging to a single Group.  Entries are keyed by a Key, which
+ * pairs the kind of question being asked with the canonical identity of the subgroup it
+ * was asked about - the set of indices of its elements in the group's members list - so
+ * that two differently-ordered lists describing the same subgroup share one entry.
+ * Every entry carries a weight (its estimated size in bytes), and once the total weight
+ * goes over the limit the least recently used entries are evicted.  All methods are
+ * synchronized, so one cache can be shared by several threads querying the same group. */
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResultCache {
+  public static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024; // ~32 MB of estimated results
+
+  private final LinkedHashMap<Key, Entry> entries;
+  private final long maxWeight;
+  private long currentWeight;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public ResultCache() {
+    this(DEFAULT_MAX_WEIGHT);
+  }
+
+  public ResultCache(long maxWeight) {
+    this.maxWeight = maxWeight;
+    // access-ordered, so that iteration starts at the least recently used entry:
+    entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+  }
+
+  /* Returns the cached value for the key, or null if there is none. */
+  public synchronized Object get(Key key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.value;
+  }
+
+  /* Stores a value under the given key, then evicts least recently used entries
+   * until the total weight is back under the limit.  Values heavier than the whole
+   * cache are not stored at all. */
+  public synchronized void put(Key key, Object value, long weight) {
+    if (weight > maxWeight)
+      return;
+
+    Entry old = entries.put(key, new Entry(value, weight));
+    if (old != null)
+      currentWeight -= old.weight;
+    currentWeight += weight;
+
+    Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+    while (currentWeight > maxWeight && eldest.hasNext()) {
+      Entry toEvict = eldest.next().getValue();
+      eldest.remove();
+      currentWeight -= toEvict.weight;
+      evictions.incrementAndGet();
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    currentWeight = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getWeight() {
+    return currentWeight;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  public String toString() {
+    return "ResultCache: " + size() + " entries (" + getWeight() + " of " + maxWeight + " bytes), "
+      + getHitCount() + " hits, " + getMissCount() + " misses, " + getEvictionCount() + " evictions";
+  }
+
+  /* A cache key: the kind of result (e.g. "normal") plus the indices, in the
+   * owning group's members list, of the elements of the subgroup in question. */
+  public static class Key {
+    private final String kind;
+    private final BitSet indices;
+
+    public Key(String kind, BitSet indices) {
+      this.kind = kind;
+      this.indices = indices;
+    }
+
+    public boolean equals(Object o) {
+      if (!(o instanceof Key))
+        return false;
+      Key another = (Key)o;
+      return kind.equals(another.kind) && indices.equals(another.indices);
+    }
+
+    public int hashCode() {
+      return 31*kind.hashCode() + indices.hashCode();
+    }
+
+    public String toString() {
+      return kind + indices.toString();
+    }
+  }
+
+  private static class Entry {
+    private final Object value;
+    private final long weight;
+
+    private Entry(Object value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package abstract_alg;
+/* NAME: SL2p.java
+ * DATE: October 2026
+ * COMMENTS: The special linear group SL(2, p): the 2x2 matrices of determinant 1 over the
+ * integers mod a prime p, a normal subgroup of index p - 1 in GL(2, p), with p(p^2 - 1)
+ * elements.  Everything is done as in GL2p - packed matrices, orders from the
+ * characteristic polynomial, elements listed one at a time - with the determinant held
+ * at 1.  SL(2, 5) is the binary icosahedral group, of order 120. */
+
+public class SL2p extends GL2p {
+  public SL2p(int p) {
+    super(p, true);
+  }
+
+  public static void main(String[] args) {
+//    SL2p sl = new SL2p(5);
+//    System.out.println(sl.getGroupOrder()); // 120
+//    System.out.println(sl.commutatorSubgroup().size()); // 120: perfect
+  }
+}
@@ -0,0 +1,390 @@
+package abstract_alg;
+/* NAME: StabilizerChain.java
+ * DATE: October 2026
+ * COMMENTS: A base and strong generating set for the group generated by some permutations
+ * of {1, ..., n}, found by the Schreier-Sims algorithm.  A base is a list of points
+ * b_1, ..., b_k that only the identity fixes all of; G = G^(0) > G^(1) > ... > G^(k) = 1,
+ * G^(i) being the elements that fix b_1, ..., b_i, and each level keeps the orbit of
+ * b_(i+1) under G^(i) with a transversal (one element taking b_(i+1) to each point of the
+ * orbit).  Every element is then a product u_1 u_2 ... u_k of transversal elements, one
+ * from each level, so that:
+ *  - the order of the group is the product of the orbit lengths (kept as a BigInteger,
+ *    since the order of S_30 doesn't fit in a long);
+ *  - membership is tested by "sifting" an element down through the levels;
+ *  - uniformly random elements cost k multiplications.
+ * The chain is built quickly by sifting random elements of the group (which nearly always
+ * finds all the strong generators it needs), and then checked deterministically with
+ * Schreier's lemma, so the result is always right.  The transversals are stored in full,
+ * which makes everything fast but takes O(n^2) memory a level: comfortable up to a degree
+ * of a few hundred.  Points are 1, ..., n in everything public, as in Permutation; inside
+ * the package the 0-based arrays of PermArrays are used. */
+
+import java.math.BigInteger;
+import java.util.*;
+
+public class StabilizerChain {
+  private static final int RANDOM_SIFTS = 12; // stop sifting random elements after this many in a row sift through
+
+  private final int degree;
+  private final ArrayList<int[]> generators;
+  private final ArrayList<Level> levels = new ArrayList<Level>();
+  private final Random random = new Random();
+
+  /* The chain of the group generated by the given permutations (all of the same size). */
+  public StabilizerChain(LinkedList<Permutation> generators) {
+    this(generators.isEmpty() ? 0 : generators.getFirst().size(), arrays(generators), null);
+  }
+
+  /* The chain of the group generated by 0-based permutations of {0, ..., degree-1}, using
+   * the points of preferredBase (if not null) as the first base points, in order (leaving
+   * out any that the group fixes by then). */
+  StabilizerChain(int degree, List<int[]> generators, int[] preferredBase) {
+    this.degree = degree;
+    this.generators = new ArrayList<int[]>();
+    for (int[] g : generators) {
+      if (!PermArrays.isIdentity(g))
+        this.generators.add(g);
+    }
+    // the preferred points go in as base points straight away, in order; any that turn
+    // out to be fixed by the rest of the chain are taken out again at the end
+    if (preferredBase != null) {
+      for (int b : preferredBase) {
+        if (!isBasePoint(b))
+          levels.add(new Level(b));
+      }
+    }
+    build();
+    for (Iterator<Level> it = levels.iterator(); it.hasNext(); ) {
+      if (it.next().orbitSize == 1)
+        it.remove();
+    }
+  }
+
+  public int getDegree() {
+    return degree;
+  }
+
+  /* The number of elements of the group. */
+  public BigInteger getOrder() {
+    BigInteger order = BigInteger.ONE;
+    for (Level level : levels)
+      order = order.multiply(BigInteger.valueOf(level.orbitSize));
+    return order;
+  }
+
+  /* The base points b_1, ..., b_k. */
+  public int[] getBase() {
+    int[] base = new int[levels.size()];
+    for (int i = 0; i < base.length; i++)
+      base[i] = levels.get(i).basePoint + 1;
+    return base;
+  }
+
+  /* The lengths of the basic orbits, i.e. the indices |G^(i-1) : G^(i)|. */
+  public int[] getOrbitLengths() {
+    int[] lengths = new int[levels.size()];
+    for (int i = 0; i < lengths.length; i++)
+      lengths[i] = levels.get(i).orbitSize;
+    return lengths;
+  }
+
+  /* The generators the chain was made from. */
+  public LinkedList<Permutation> getGenerators() {
+    LinkedList<Permutation> list = new LinkedList<Permutation>();
+    for (int[] g : generators)
+      list.add(PermArrays.toPermutation(g));
+    return list;
+  }
+
+  /* The strong generators: generators of every G^(i) together. */
+  public LinkedList<Permutation> getStrongGenerators() {
+    LinkedList<Permutation> list = new LinkedList<Permutation>();
+    if (!levels.isEmpty()) {
+      for (int[] g : levels.get(0).generators)
+        list.add(PermArrays.toPermutation(g));
+    }
+    return list;
+  }
+
+  public boolean contains(Permutation p) {
+    return p.size() == degree && contains(PermArrays.fromPermutation(p));
+  }
+
+  /* A uniformly distributed random element. */
+  public Permutation randomElement() {
+    return PermArrays.toPermutation(randomArray(random));
+  }
+
+  /* The commutator subgroup [G, G]: the normal closure of the commutators of the
+   * generators, found by adding conjugates by the generators until none are new. */
+  public StabilizerChain commutatorSubgroup() {
+    return commutator(this, this);
+  }
+
+  /* G, [G, G], [[G, G], [G, G]], ..., down to where it stops getting smaller. */
+  public LinkedList<StabilizerChain> derivedSeries() {
+    return series(true);
+  }
+
+  /* G, [G, G], [[G, G], G], ..., down to where it stops getting smaller. */
+  public LinkedList<StabilizerChain> lowerCentralSeries() {
+    return series(false);
+  }
+
+  public boolean isSolvable() {
+    return derivedSeries().getLast().numLevels() == 0;
+  }
+
+  public boolean isNilpotent() {
+    return lowerCentralSeries().getLast().numLevels() == 0;
+  }
+
+  public String toString() {
+    return "Permutation group of degree " + degree + " and order " + getOrder() + ", base " + Arrays.toString(getBase())
+      + ", basic orbit lengths " + Arrays.toString(getOrbitLengths());
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // ------------------------------------- PACKAGE-PRIVATE ACCESS ------------------------------------ //
+  // -------------------------------------------------------------------------------------------------- //
+
+  int numLevels() {
+    return levels.size();
+  }
+
+  int basePoint(int i) {
+    return levels.get(i).basePoint;
+  }
+
+  /* The basic orbit at level i, in breadth-first order. */
+  int[] orbit(int i) {
+    Level level = levels.get(i);
+    return Arrays.copyOf(level.orbit, level.orbitSize);
+  }
+
+  /* The transversal element at level i taking the base point to x, or null. */
+  int[] transversal(int i, int x) {
+    return levels.get(i).transversal[x];
+  }
+
+  /* The strong generators of G^(i). */
+  List<int[]> levelGenerators(int i) {
+    return Collections.unmodifiableList(levels.get(i).generators);
+  }
+
+  List<int[]> generatorArrays() {
+    return Collections.unmodifiableList(generators);
+  }
+
+  boolean contains(int[] g) {
+    return PermArrays.isIdentity(sift(g, 0).residue);
+  }
+
+  int[] randomArray(Random r) {
+    int[] g = PermArrays.identity(degree);
+    for (Level level : levels)
+      g = PermArrays.compose(g, level.transversal[level.orbit[r.nextInt(level.orbitSize)]]);
+    return g;
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* Random Schreier-Sims followed by a deterministic check. */
+  private void build() {
+    for (int[] g : generators)
+      addIfNew(g, 0);
+    if (generators.isEmpty())
+      return;
+
+    PermutationAction source = new PermutationAction(degree, generators);
+    for (int inARow = 0; inARow < RANDOM_SIFTS; ) {
+      if (addIfNew(source.randomElement(), 0))
+        inARow = 0;
+      else
+        inARow++;
+    }
+
+    // Schreier's lemma: the chain is right if, at every level, every Schreier generator
+    // u(gx)^-1 g u(x) sifts through the levels below.  Work from the bottom up, and
+    // start again from the bottom whenever something new turns up.
+    int i = levels.size()-1;
+    while (i >= 0) {
+      if (checkLevel(i))
+        i--;
+      else
+        i = levels.size()-1;
+    }
+  }
+
+  /* Returns false (having added a new strong generator) if some Schreier generator of
+   * level i doesn't sift through the levels below it. */
+  private boolean checkLevel(int i) {
+    Level level = levels.get(i);
+    for (int k = 0; k < level.orbitSize; k++) {
+      int x = level.orbit[k];
+      for (int j = 0; j < level.generators.size(); j++) {
+        int[] g = level.generators.get(j);
+        int[] s = PermArrays.compose(level.inverseTransversal[g[x]], PermArrays.compose(g, level.transversal[x]));
+        if (addIfNew(s, i+1))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /* Sifts g from the given level down; if something is left over, it becomes a new
+   * strong generator, and true is returned. */
+  private boolean addIfNew(int[] g, int fromLevel) {
+    Sifted sifted = sift(g, fromLevel);
+    if (PermArrays.isIdentity(sifted.residue))
+      return false;
+
+    int[] h = sifted.residue;
+    if (sifted.level == levels.size())
+      levels.add(new Level(chooseBasePoint(h)));
+    for (int i = 0; i <= sifted.level; i++) {
+      levels.get(i).generators.add(h);
+      levels.get(i).rebuild();
+    }
+    return true;
+  }
+
+  /* The first point moved by h (which, having sifted through every level, fixes all
+   * the base points so far). */
+  private int chooseBasePoint(int[] h) {
+    for (int x = 0; x < degree; x++) {
+      if (h[x] != x)
+        return x;
+    }
+    throw new IllegalStateException("The identity can't be a strong generator.");
+  }
+
+  private boolean isBasePoint(int b) {
+    for (Level level : levels) {
+      if (level.basePoint == b)
+        return true;
+    }
+    return false;
+  }
+
+  private Sifted sift(int[] g, int fromLevel) {
+    for (int i = fromLevel; i < levels.size(); i++) {
+      Level level = levels.get(i);
+      int[] u = level.inverseTransversal[g[level.basePoint]];
+      if (u == null)
+        return new Sifted(g, i);
+      g = PermArrays.compose(u, g);
+    }
+    return new Sifted(g, levels.size());
+  }
+
+  private LinkedList<StabilizerChain> series(boolean derived) {
+    LinkedList<StabilizerChain> series = new LinkedList<StabilizerChain>();
+    StabilizerChain current = this;
+    series.add(current);
+    while (true) {
+      StabilizerChain next = commutator(current, derived ? current : this);
+      if (next.getOrder().equals(current.getOrder()))
+        return series;
+      series.add(next);
+      current = next;
+    }
+  }
+
+  /* [A, B] for A and B normal in this group: the normal closure of the commutators
+   * a^-1 b^-1 a b of their generators. */
+  private StabilizerChain commutator(StabilizerChain a, StabilizerChain b) {
+    ArrayList<int[]> seeds = new ArrayList<int[]>();
+    for (int[] x : a.generators) {
+      for (int[] y : b.generators)
+        seeds.add(PermArrays.compose(PermArrays.compose(PermArrays.inverse(x), PermArrays.inverse(y)), PermArrays.compose(x, y)));
+    }
+    return normalClosure(seeds);
+  }
+
+  /* The smallest normal subgroup containing the seeds: each element that isn't yet in it
+   * is added as a generator, and its conjugates by this group's generators queued up. */
+  private StabilizerChain normalClosure(List<int[]> seeds) {
+    ArrayList<int[]> gens = new ArrayList<int[]>();
+    StabilizerChain closure = new StabilizerChain(degree, gens, null);
+    LinkedList<int[]> queue = new LinkedList<int[]>(seeds);
+    while (!queue.isEmpty()) {
+      int[] x = queue.removeFirst();
+      if (closure.contains(x))
+        continue;
+      gens.add(x);
+      closure = new StabilizerChain(degree, gens, null);
+      for (int[] g : generators)
+        queue.add(PermArrays.compose(PermArrays.inverse(g), PermArrays.compose(x, g)));
+    }
+    return closure;
+  }
+
+  private static List<int[]> arrays(LinkedList<Permutation> generators) {
+    ArrayList<int[]> list = new ArrayList<int[]>(generators.size());
+    for (Permutation p : generators)
+      list.add(PermArrays.fromPermutation(p));
+    return list;
+  }
+
+  private static final class Sifted {
+    private final int[] residue;
+    private final int level; // where the sifting stopped; numLevels() if it got all the way
+
+    private Sifted(int[] residue, int level) {
+      this.residue = residue;
+      this.level = level;
+    }
+  }
+
+  /* One step of the chain: the orbit of the base point under G^(i), with transversal
+   * elements (and their inverses), indexed by point. */
+  private final class Level {
+    private final int basePoint;
+    private final ArrayList<int[]> generators = new ArrayList<int[]>();
+    private int[][] transversal;
+    private int[][] inverseTransversal;
+    private int[] orbit;
+    private int orbitSize;
+
+    private Level(int basePoint) {
+      this.basePoint = basePoint;
+      rebuild();
+    }
+
+    /* Breadth-first search from the base point; u(g(x)) = g u(x). */
+    private void rebuild() {
+      transversal = new int[degree][];
+      inverseTransversal = new int[degree][];
+      orbit = new int[degree];
+      orbitSize = 0;
+
+      transversal[basePoint] = PermArrays.identity(degree);
+      inverseTransversal[basePoint] = transversal[basePoint];
+      orbit[orbitSize++] = basePoint;
+      for (int head = 0; head < orbitSize; head++) {
+        int x = orbit[head];
+        for (int[] g : generators) {
+          int y = g[x];
+          if (transversal[y] == null) {
+            transversal[y] = PermArrays.compose(g, transversal[x]);
+            inverseTransversal[y] = PermArrays.inverse(transversal[y]);
+            orbit[orbitSize++] = y;
+          }
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+//    LinkedList<Permutation> gens = new LinkedList<Permutation>();
+//    gens.add(new Permutation(true, 30, 1, 2));
+//    int[] cycle = new int[30];
+//    for (int i = 0; i < 30; i++)
+//      cycle[i] = i+1;
+//    gens.add(new Permutation(true, 30, cycle));
+//    System.out.println(new StabilizerChain(gens).getOrder()); // 30! = 265252859812191058636308480000000
+  }
+}
@@ -0,0 +1,477 @@
+package abstract_alg;
+/* NAME: SubgroupSearch.java
+ * DATE: October 2026
+ * COMMENTS: Finds the subgroup of a permutation group G made up of the elements with some
+ * property - commuting with a given element, lying in another group, normalizing a
+ * subgroup - by backtracking through G's stabilizer chain rather than listing G.  Every
+ * element of G is a product u_1 u_2 ... u_k of transversal elements, and choosing u_1,
+ * ..., u_j fixes where the element sends the base points b_1, ..., b_j; a property that
+ * can tell from those images alone that no element could qualify (a "prune") cuts off the
+ * whole branch.  The subgroup K is built from the bottom level up: once K^(i+1) (the part
+ * of K fixing b_1, ..., b_(i+1)) is known, K^(i) needs just one new element for each
+ * point of b_i's basic orbit that isn't already in its orbit under the elements found so
+ * far, so most of the search tree is never visited.  The searches give up (returning
+ * null) after a given number of tree nodes, since some searches - normalizers especially
+ * - can take exponential time. */
+
+import java.util.*;
+
+public class SubgroupSearch {
+  public static final long DEFAULT_BUDGET = 20000000L; // search tree nodes
+
+  /* A property of elements that holds on a subgroup. */
+  interface Property {
+    /* Can an element sending b_t to image[b_t], for the base points at levels 0, ..., j,
+     * still have the property?  Only needs to look at level j's base point, since the
+     * earlier ones have already passed. */
+    boolean prune(int j, int[] image);
+
+    /* Does the (complete) element have the property? */
+    boolean test(int[] g);
+  }
+
+  /* The centralizer of z in G: the elements commuting with z. */
+  public static StabilizerChain centralizer(StabilizerChain g, Permutation z, long budget) {
+    return centralizer(g, PermArrays.fromPermutation(z), budget);
+  }
+
+  /* The intersection of G and H (on the same points). */
+  public static StabilizerChain intersection(StabilizerChain g, StabilizerChain h, long budget) {
+    if (h.numLevels() == 0 || g.numLevels() == 0)
+      return new StabilizerChain(g.getDegree(), new ArrayList<int[]>(), null);
+    // put the smaller group in charge of the search, and rebuild it on the other's base
+    // so that the other can be checked a base point at a time:
+    if (h.getOrder().compareTo(g.getOrder()) < 0) {
+      StabilizerChain swap = g;
+      g = h;
+      h = swap;
+    }
+    final StabilizerChain other = new StabilizerChain(h.getDegree(), h.generatorArrays(), base(g));
+    final int[] baseIndex = baseIndex(g);
+    return search(g, new Property() {
+      public boolean prune(int j, int[] image) {
+        return partialSift(other, baseIndex, j, image);
+      }
+      public boolean test(int[] c) {
+        return other.contains(c);
+      }
+    }, null, budget);
+  }
+
+  /* The normalizer of P in G: the elements c with c P c^-1 = P.  Points are labelled by
+   * the orbits of P, and of the stabilizers P_x, which any such c must respect: it sends
+   * P-orbits to P-orbits, and the orbits of P_x to those of P_c(x).  Beyond that, for each
+   * generator x of P, c x c^-1 must be an element y of P, and y(c(b)) = c(x(b)) for every
+   * base point b; two such conditions at once can be checked against P_u's orbits. */
+  public static StabilizerChain normalizer(StabilizerChain g, StabilizerChain p, long budget) {
+    final int n = g.getDegree();
+    final List<int[]> pGens = p.generatorArrays();
+    final StabilizerChain pChain = p;
+    final int[] orbitLabel = orbitLabels(n, pGens);
+    final int[] orbitSize = classSizes(orbitLabel);
+    final int[][] pointLabel = new int[n][];
+    final int[][] pointSize = new int[n][];
+    final StabilizerChain[] pointChain = new StabilizerChain[n];
+    for (int x = 0; x < n; x++) {
+      // the stabilizer of x in P, from P's chain rebuilt with x as its first base point
+      StabilizerChain px = new StabilizerChain(n, pGens, new int[] {x});
+      boolean moved = (px.numLevels() > 0 && px.basePoint(0) == x);
+      List<int[]> stabGens = moved ? (px.numLevels() > 1 ? px.levelGenerators(1) : new ArrayList<int[]>()) : px.generatorArrays();
+      pointLabel[x] = orbitLabels(n, stabGens);
+      pointSize[x] = classSizes(pointLabel[x]);
+      pointChain[x] = moved ? px : null;
+    }
+
+    g = new StabilizerChain(n, g.generatorArrays(), orbitOrderedPoints(orbitLabel));
+    final int[] base = base(g);
+    final int[] baseIndex = baseIndex(g);
+
+    // P itself normalizes P, so its elements that lie in G are known from the start:
+    StabilizerChain known = intersectionIfNeeded(g, p, budget);
+    if (known == null)
+      return null;
+
+    return search(g, new Property() {
+      private final int[][][] inverses = new int[n][][];
+
+      public boolean prune(int j, int[] image) {
+        int b = base[j], c = image[b];
+        if (orbitSize[b] != orbitSize[c])
+          return false;
+        for (int s = 0; s < j; s++) {
+          int bs = base[s], cs = image[bs];
+          if ((orbitLabel[bs] == orbitLabel[b]) != (orbitLabel[cs] == orbitLabel[c]))
+            return false;
+          if (pointSize[bs][b] != pointSize[cs][c] || pointSize[b][bs] != pointSize[c][cs])
+            return false;
+          for (int t = 0; t < j; t++) {
+            int bt = base[t], ct = image[bt];
+            if ((pointLabel[bs][bt] == pointLabel[bs][b]) != (pointLabel[cs][ct] == pointLabel[cs][c]))
+              return false;
+          }
+        }
+        for (int[] x : pGens) {
+          if (!conjugateCanLieInP(j, image, x))
+            return false;
+        }
+        return true;
+      }
+
+      /* Is there a y in P with y(c(b_s)) = c(x(b_s)) and y(c(b_t)) = c(x(b_t)) for every
+       * pair that level j has just made known, taken together with each pair known before? */
+      private boolean conjugateCanLieInP(int j, int[] image, int[] x) {
+        for (int s = 0; s <= j; s++) {
+          int bs = base[s], xs = baseIndex[x[bs]];
+          if (xs < 0 || xs > j || (s != j && xs != j))
+            continue;
+          int u2 = image[bs], v2 = image[x[bs]];
+          for (int t = 0; t <= j; t++) {
+            int bt = base[t], xt = baseIndex[x[bt]];
+            if (t == s || xt < 0 || xt > j)
+              continue;
+            int u1 = image[bt], v1 = image[x[bt]];
+            int w = v2;
+            if (u1 != v1) {
+              int[] hInverse = inverseTransversal(u1, v1);
+              if (hInverse == null)
+                return false;
+              w = hInverse[v2];
+            }
+            if (pointLabel[u1][w] != pointLabel[u1][u2])
+              return false;
+          }
+        }
+        return true;
+      }
+
+      /* h^-1 for the element h of P taking u to v that P_u's chain keeps, or null if there
+       * isn't one; worked out once for each pair. */
+      private int[] inverseTransversal(int u, int v) {
+        if (pointChain[u] == null)
+          return null;
+        if (inverses[u] == null)
+          inverses[u] = new int[n][];
+        if (inverses[u][v] == null) {
+          int[] h = pointChain[u].transversal(0, v);
+          if (h == null)
+            return null;
+          inverses[u][v] = PermArrays.inverse(h);
+        }
+        return inverses[u][v];
+      }
+
+      public boolean test(int[] c) {
+        int[] cInverse = PermArrays.inverse(c);
+        for (int[] x : pGens) {
+          if (!pChain.contains(PermArrays.compose(c, PermArrays.compose(x, cInverse))))
+            return false;
+        }
+        return true;
+      }
+    }, known.generatorArrays(), budget);
+  }
+
+  static StabilizerChain centralizer(StabilizerChain g, final int[] z, long budget) {
+    final int n = g.getDegree();
+    // rebuild G on a base that runs along the cycles of z, longest first, so that once
+    // c(b) is chosen, c(z(b)) = z(c(b)) is forced
+    final int[] cycleLength = new int[n];
+    ArrayList<int[]> cycles = new ArrayList<int[]>();
+    boolean[] seen = new boolean[n];
+    for (int x = 0; x < n; x++) {
+      if (seen[x])
+        continue;
+      int length = 0;
+      for (int y = x; !seen[y]; y = z[y]) {
+        seen[y] = true;
+        length++;
+      }
+      int[] cycle = new int[length];
+      for (int i = 0, y = x; i < length; i++, y = z[y]) {
+        cycle[i] = y;
+        cycleLength[y] = length;
+      }
+      cycles.add(cycle);
+    }
+    Collections.sort(cycles, new Comparator<int[]>() {
+      public int compare(int[] a, int[] b) {
+        return b.length - a.length;
+      }
+    });
+    int[] preferred = new int[n];
+    int next = 0;
+    for (int[] cycle : cycles) {
+      for (int y : cycle)
+        preferred[next++] = y;
+    }
+
+    g = new StabilizerChain(n, g.generatorArrays(), preferred);
+    final int[] baseIndex = baseIndex(g);
+    final int[] zInverse = PermArrays.inverse(z);
+    ArrayList<int[]> known = new ArrayList<int[]>();
+    if (g.contains(z))
+      known.add(z);
+
+    final int[] base = base(g);
+    return search(g, new Property() {
+      private final int[][][] inverses = new int[n][][];
+
+      public boolean prune(int j, int[] image) {
+        int b = base[j], c = image[b];
+        if (cycleLength[b] != cycleLength[c])
+          return false;
+        int after = baseIndex[z[b]], before = baseIndex[zInverse[b]];
+        if (after >= 0 && after <= j && image[z[b]] != z[c])
+          return false;
+        if (before >= 0 && before <= j && z[image[zInverse[b]]] != c)
+          return false;
+        return true;
+      }
+      public boolean test(int[] c) {
+        for (int x = 0; x < n; x++) {
+          if (c[z[x]] != z[c[x]])
+            return false;
+        }
+        return true;
+      }
+    }, known, budget);
+  }
+
+  /* Finds {c in G : c has the property}, which must be a subgroup; known lists some of
+   * its elements (or is null).  Returns null if the budget runs out. */
+  static StabilizerChain search(StabilizerChain g, Property property, List<int[]> known, long budget) {
+    return new Backtrack(g, property, budget).run(known);
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* The state of one search. */
+  private static final class Backtrack {
+    private final StabilizerChain g;
+    private final Property property;
+    private final int n, k;
+    private final int[] base;
+    private final int[][] orbits;
+    private long budget;
+    private final ArrayList<ArrayList<int[]>> found = new ArrayList<ArrayList<int[]>>(); // new elements by level
+
+    private Backtrack(StabilizerChain g, Property property, long budget) {
+      this.g = g;
+      this.property = property;
+      this.budget = budget;
+      n = g.getDegree();
+      k = g.numLevels();
+      base = base(g);
+      orbits = new int[k][];
+      for (int i = 0; i < k; i++) {
+        found.add(new ArrayList<int[]>());
+        orbits[i] = g.orbit(i);
+      }
+    }
+
+    private StabilizerChain run(List<int[]> known) {
+      if (known != null) {
+        for (int[] x : known)
+          file(x);
+      }
+
+      for (int i = k-1; i >= 0; i--) {
+        BitSet dead = new BitSet(n);
+        int[] basicOrbit = orbits[i];
+        BitSet reached = orbitOf(base[i], i);
+
+        for (int gamma : basicOrbit) {
+          if (reached.get(gamma) || dead.get(gamma))
+            continue;
+          int[] c = findOne(i, gamma);
+          if (budget < 0)
+            return null;
+          if (c != null) {
+            found.get(i).add(c);
+            reached = orbitOf(base[i], i);
+          }
+          else
+            dead.or(orbitOf(gamma, i));
+        }
+      }
+
+      ArrayList<int[]> all = new ArrayList<int[]>();
+      for (ArrayList<int[]> list : found)
+        all.addAll(list);
+      return new StabilizerChain(n, all, base);
+    }
+
+    /* Puts a known element of the subgroup at the first level whose base point it moves. */
+    private void file(int[] x) {
+      for (int i = 0; i < k; i++) {
+        if (x[base[i]] != base[i]) {
+          found.get(i).add(x);
+          return;
+        }
+      }
+    }
+
+    /* The orbit of a point under the elements found at level i and below (which all fix
+     * b_0, ..., b_(i-1)). */
+    private BitSet orbitOf(int point, int i) {
+      BitSet orbit = new BitSet(n);
+      int[] queue = new int[n];
+      int tail = 0;
+      orbit.set(point);
+      queue[tail++] = point;
+      for (int head = 0; head < tail; head++) {
+        int x = queue[head];
+        for (int level = i; level < k; level++) {
+          for (int[] h : found.get(level)) {
+            int y = h[x];
+            if (!orbit.get(y)) {
+              orbit.set(y);
+              queue[tail++] = y;
+            }
+          }
+        }
+      }
+      return orbit;
+    }
+
+    /* Looks for one element of G^(i) with the property sending b_i to gamma. */
+    private int[] findOne(int i, int gamma) {
+      int[] image = new int[n];
+      for (int t = 0; t < i; t++)
+        image[base[t]] = base[t];
+      int[] c = g.transversal(i, gamma);
+      image[base[i]] = gamma;
+      budget--;
+      if (!property.prune(i, image))
+        return null;
+      return extend(i+1, c, image);
+    }
+
+    /* Tries every choice of transversal element at level j below the partial product p. */
+    private int[] extend(int j, int[] p, int[] image) {
+      if (j == k)
+        return property.test(p) ? p : null;
+
+      int[] basicOrbit = orbits[j];
+      for (int x : basicOrbit) {
+        if (--budget < 0)
+          return null;
+        image[base[j]] = p[x];
+        if (!property.prune(j, image))
+          continue;
+        int[] result = extend(j+1, PermArrays.compose(p, g.transversal(j, x)), image);
+        if (result != null || budget < 0)
+          return result;
+      }
+      return null;
+    }
+  }
+
+  /* Can the images of the base points of G up to level j be matched by an element of H?
+   * Walks down H's chain (built on G's base) for as long as its base points have known
+   * images, keeping track of the inverse of the transversal elements used so far. */
+  private static boolean partialSift(StabilizerChain h, int[] gBaseIndex, int j, int[] image) {
+    int[] w = null;
+    for (int i = 0; i < h.numLevels(); i++) {
+      int beta = h.basePoint(i);
+      int index = gBaseIndex[beta];
+      if (index < 0 || index > j)
+        return true;
+      int y = (w == null) ? image[beta] : w[image[beta]];
+      int[] u = h.transversal(i, y);
+      if (u == null)
+        return false;
+      int[] uInverse = PermArrays.inverse(u);
+      w = (w == null) ? uInverse : PermArrays.compose(uInverse, w);
+    }
+    return true;
+  }
+
+  private static StabilizerChain intersectionIfNeeded(StabilizerChain g, StabilizerChain p, long budget) {
+    for (int[] x : p.generatorArrays()) {
+      if (!g.contains(x))
+        return intersection(g, p, budget);
+    }
+    return p;
+  }
+
+  private static int[] base(StabilizerChain g) {
+    int[] base = new int[g.numLevels()];
+    for (int i = 0; i < base.length; i++)
+      base[i] = g.basePoint(i);
+    return base;
+  }
+
+  /* Where each point sits in the base, or -1. */
+  private static int[] baseIndex(StabilizerChain g) {
+    int[] index = new int[g.getDegree()];
+    Arrays.fill(index, -1);
+    for (int i = 0; i < g.numLevels(); i++)
+      index[g.basePoint(i)] = i;
+    return index;
+  }
+
+  /* The orbits of a group given by generators, labelled by their smallest points. */
+  private static int[] orbitLabels(int n, List<int[]> gens) {
+    int[] label = new int[n];
+    Arrays.fill(label, -1);
+    int[] queue = new int[n];
+    for (int x = 0; x < n; x++) {
+      if (label[x] >= 0)
+        continue;
+      int tail = 0;
+      label[x] = x;
+      queue[tail++] = x;
+      for (int head = 0; head < tail; head++) {
+        for (int[] h : gens) {
+          int y = h[queue[head]];
+          if (label[y] < 0) {
+            label[y] = x;
+            queue[tail++] = y;
+          }
+        }
+      }
+    }
+    return label;
+  }
+
+  /* For each point, the size of its class. */
+  private static int[] classSizes(int[] label) {
+    int[] count = new int[label.length];
+    for (int x = 0; x < label.length; x++)
+      count[label[x]]++;
+    int[] size = new int[label.length];
+    for (int x = 0; x < label.length; x++)
+      size[x] = count[label[x]];
+    return size;
+  }
+
+  /* All points, smallest orbits first (the most constrained base points come first). */
+  private static int[] orbitOrderedPoints(final int[] label) {
+    final int[] size = classSizes(label);
+    Integer[] points = new Integer[label.length];
+    for (int x = 0; x < points.length; x++)
+      points[x] = x;
+    Arrays.sort(points, new Comparator<Integer>() {
+      public int compare(Integer a, Integer b) {
+        if (size[a] != size[b])
+          return size[a] - size[b];
+        if (label[a] != label[b])
+          return label[a] - label[b];
+        return a - b;
+      }
+    });
+    int[] order = new int[points.length];
+    for (int x = 0; x < order.length; x++)
+      order[x] = points[x];
+    return order;
+  }
+
+  public static void main(String[] args) {
+//    LinkedList<Permutation> s8 = PermutationGroup.standardGenerators(8);
+//    StabilizerChain g = new StabilizerChain(s8);
+//    System.out.println(centralizer(g, new Permutation(true, 8, 1, 2, 3), DEFAULT_BUDGET).getOrder()); // 3 * 5! = 360
+  }
+}
@@ -0,0 +1,327 @@
+package abstract_alg;
+/* NAME: SylowSubgroups.java
+ * DATE: October 2026
+ * COMMENTS: Sylow p-subgroups of a permutation group given by generators, for making
+ * Sylow-theorem exercises about groups far too big to list (S_30 has 2.6 * 10^32
+ * elements).  If |G| = p^a m with p not dividing m, a Sylow p-subgroup is a subgroup of
+ * order p^a; they are all conjugate, their number n_p = |G : N_G(P)| is 1 mod p, and their
+ * intersection is the p-core O_p(G), the largest normal p-subgroup.
+ *
+ * One Sylow subgroup is found by a Las Vegas method (random, but never wrong): take the
+ * p-part z of a random element, and look at its centralizer C = C_G(z).  If |C| is
+ * still divisible by p^a then a Sylow subgroup of C is one of G, and C is smaller, so we
+ * carry on in C; this usually gets down to a p-group in a few steps.  When it stops
+ * helping (every suitable z is central, or the centralizers are slow to find) the
+ * subgroup is grown instead: a p-subgroup P that isn't yet Sylow is normalized by some
+ * p-element outside it, so p-parts of random elements are added to P whenever they keep
+ * it a p-group, which is fast once the Sylow subgroups are normal or nearly so.  For
+ * S_n and A_n themselves - which come up most - the Sylow subgroups are written down
+ * directly.  Centralizers, normalizers and
+ * intersections are found by backtracking (see SubgroupSearch), and orders come from
+ * stabilizer chains; all of it is quick up to degree ~30.  Groups are passed around as
+ * StabilizerChains, whose getGenerators() gives generating Permutations. */
+
+import java.math.BigInteger;
+import java.util.*;
+
+public class SylowSubgroups {
+  private static final int CENTRALIZER_TRIES = 20; // random p-elements to try at each step
+  private static final long CENTRALIZER_BUDGET = 50000; // give up on a centralizer (and try another) after this many nodes
+  private static final int GROW_TRIES = 100; // random p-parts in a row that may fail to enlarge P before growing gives up
+
+  private final StabilizerChain group;
+  private final int p;
+  private final BigInteger sylowOrder; // p^a
+  private final long budget;
+  private final Random random = new Random();
+  private final boolean symmetric, alternating; // is the group all of S_n, or A_n?
+  private StabilizerChain sylow; // found on first use
+  private BigInteger count;
+
+  /* Sylow p-subgroups of the group generated by the given permutations. */
+  public SylowSubgroups(LinkedList<Permutation> generators, int p) {
+    this(new StabilizerChain(generators), p, SubgroupSearch.DEFAULT_BUDGET);
+  }
+
+  /* Sylow p-subgroups of G; budget limits the size of each backtrack search (see
+   * SubgroupSearch). */
+  public SylowSubgroups(StabilizerChain group, int p, long budget) {
+    if (p < 2 || !BigInteger.valueOf(p).isProbablePrime(30))
+      throw new IllegalArgumentException(p + " is not a prime.");
+    this.group = group;
+    this.p = p;
+    this.budget = budget;
+    sylowOrder = pPart(group.getOrder());
+
+    int n = group.getDegree();
+    BigInteger factorial = BigInteger.ONE;
+    for (int i = 2; i <= n; i++)
+      factorial = factorial.multiply(BigInteger.valueOf(i));
+    symmetric = group.getOrder().equals(factorial);
+    alternating = n > 2 && group.getOrder().shiftLeft(1).equals(factorial); // A_n is S_n's only subgroup of index 2
+  }
+
+  public StabilizerChain getGroup() {
+    return group;
+  }
+
+  /* p^a, the order of a Sylow p-subgroup. */
+  public BigInteger getSylowOrder() {
+    return sylowOrder;
+  }
+
+  /* One Sylow p-subgroup. */
+  public StabilizerChain getSylowSubgroup() {
+    if (sylow == null) {
+      sylow = symmetricSylow();
+      if (sylow == null)
+        sylow = sylowSubgroup(group);
+    }
+    return sylow;
+  }
+
+  /* n_p, the number of Sylow p-subgroups, as the index of the normalizer of one of them;
+   * null if the normalizer search runs over budget. */
+  public BigInteger countSylowSubgroups() {
+    if (count == null) {
+      BigInteger normalizerOrder = symmetricNormalizerOrder();
+      if (normalizerOrder == null) {
+        StabilizerChain normalizer = SubgroupSearch.normalizer(group, getSylowSubgroup(), budget);
+        if (normalizer != null)
+          normalizerOrder = normalizer.getOrder();
+      }
+      if (normalizerOrder != null)
+        count = group.getOrder().divide(normalizerOrder);
+    }
+    return count;
+  }
+
+  /* The p-core O_p(G): the intersection of all the Sylow p-subgroups, found as the
+   * largest subgroup of P that every generator of G conjugates to itself, by cutting P
+   * down to P cap P^g until nothing changes.  Null if a search runs over budget. */
+  public StabilizerChain getPCore() {
+    if ((symmetric || alternating) && group.getDegree() >= 5)
+      return trivial(); // A_n is simple, and the only normal subgroups of S_n are 1, A_n and S_n
+    StabilizerChain core = getSylowSubgroup();
+    boolean changed = true;
+    while (changed && core.numLevels() > 0) {
+      changed = false;
+      for (int[] g : group.generatorArrays()) {
+        StabilizerChain conjugate = conjugate(core, g);
+        if (!containsAll(core, conjugate.generatorArrays())) {
+          core = SubgroupSearch.intersection(core, conjugate, budget);
+          if (core == null)
+            return null;
+          changed = true;
+        }
+      }
+    }
+    return core;
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  /* If G is all of S_n (or A_n), its Sylow p-subgroups are known: write n in base p,
+   * split {1, ..., n} into blocks of sizes p^k to match, and on each block take the
+   * iterated wreath product Z_p wr ... wr Z_p, generated by the permutations that cycle
+   * the first p sub-blocks of size p^l round within the first sub-block of size p^(l+1).
+   * For p odd these are all even; in A_n with p = 2, the even elements of that group
+   * are taken (by the Schreier generators of the index 2 subgroup).  Returns null for
+   * any other group. */
+  private StabilizerChain symmetricSylow() {
+    int n = group.getDegree();
+    if (!symmetric && !alternating)
+      return null;
+
+    ArrayList<int[]> gens = new ArrayList<int[]>();
+    ArrayList<Integer> blockSizes = new ArrayList<Integer>();
+    int power = 1;
+    for (int rest = n; rest > 0; rest /= p, power *= p) {
+      for (int copies = 0; copies < rest % p; copies++)
+        blockSizes.add(0, power);
+    }
+    int offset = 0;
+    for (int size : blockSizes) {
+      for (int sub = 1; sub < size; sub *= p) {
+        int[] g = PermArrays.identity(n);
+        for (int x = 0; x < sub*p; x++)
+          g[offset + x] = offset + ((x/sub + 1) % p)*sub + x%sub;
+        gens.add(g);
+      }
+      offset += size;
+    }
+
+    if (alternating && p == 2) {
+      int[] odd = null;
+      for (int[] g : gens) {
+        if (!PermArrays.isEven(g))
+          odd = g;
+      }
+      if (odd != null) {
+        int[] oddInverse = PermArrays.inverse(odd);
+        ArrayList<int[]> even = new ArrayList<int[]>();
+        for (int[] g : gens) {
+          if (PermArrays.isEven(g)) {
+            even.add(g);
+            even.add(PermArrays.compose(odd, PermArrays.compose(g, oddInverse)));
+          }
+          else {
+            even.add(PermArrays.compose(g, oddInverse));
+            even.add(PermArrays.compose(odd, g));
+          }
+        }
+        gens = even;
+      }
+    }
+    return new StabilizerChain(n, gens, null);
+  }
+
+  /* The order of N_G(P) when G is S_n, or A_n with p odd, from the construction in
+   * symmetricSylow: on a block of size p^k, P is normalized by P itself and by a Z_(p-1)
+   * scaling each of the k "digits" of the points, and blocks of equal size can be
+   * permuted; for p odd some of that is odd, so A_n has half as much.  Null otherwise. */
+  private BigInteger symmetricNormalizerOrder() {
+    if (sylowOrder.equals(BigInteger.ONE))
+      return group.getOrder();
+    int n = group.getDegree();
+    if (!symmetric && !(alternating && p > 2))
+      return null;
+
+    BigInteger order = BigInteger.ONE;
+    BigInteger prime = BigInteger.valueOf(p);
+    int k = 0;
+    for (int rest = n; rest > 0; rest /= p, k++) {
+      int copies = rest % p;
+      // |Z_p wr ... wr Z_p| = p^(1 + p + ... + p^(k-1)), times (p-1)^k
+      int exponent = 0;
+      for (int i = 0, power = 1; i < k; i++, power *= p)
+        exponent += power;
+      BigInteger block = prime.pow(exponent).multiply(BigInteger.valueOf(p-1).pow(k));
+      order = order.multiply(block.pow(copies));
+      for (int i = 2; i <= copies; i++)
+        order = order.multiply(BigInteger.valueOf(i));
+    }
+    return symmetric ? order : order.shiftRight(1);
+  }
+
+  /* Goes down through centralizers.  Each centralizer search is given a small budget at
+   * first, since another p-element may well have a much easier centralizer; the budget is
+   * only raised if every try ran out. */
+  private StabilizerChain sylowSubgroup(StabilizerChain g) {
+    long searchBudget = Math.min(budget, CENTRALIZER_BUDGET);
+    while (true) {
+      BigInteger order = g.getOrder();
+      if (sylowOrder.equals(BigInteger.ONE))
+        return trivial();
+      if (order.equals(sylowOrder))
+        return g;
+
+      StabilizerChain smaller = null;
+      boolean overBudget = false;
+      for (int tries = 0; tries < CENTRALIZER_TRIES && smaller == null; tries++) {
+        int[] z = pPartOf(g.randomArray(random));
+        if (z == null)
+          continue;
+        // try the p-part itself, then its power of order p
+        for (int[] candidate : new int[][] {z, PermArrays.power(z, PermArrays.order(z)/p)}) {
+          StabilizerChain c = SubgroupSearch.centralizer(g, candidate, searchBudget);
+          if (c == null)
+            overBudget = true;
+          else if (c.getOrder().compareTo(order) < 0 && pPart(c.getOrder()).equals(sylowOrder)) {
+            smaller = c;
+            break;
+          }
+        }
+      }
+
+      if (smaller != null) {
+        g = smaller;
+        continue;
+      }
+      // if P is normal in g, or nearly so, it is quicker to build it up directly:
+      StabilizerChain grown = grow(g, GROW_TRIES);
+      if (grown != null)
+        return grown;
+      if (overBudget && searchBudget < budget)
+        searchBudget = Math.min(budget, 4*searchBudget);
+      else
+        return grow(g, Long.MAX_VALUE);
+    }
+  }
+
+  /* Builds up a p-subgroup of G out of p-parts of random elements until it is big
+   * enough; gives up (returning null) after maxMisses p-parts in a row that don't help. */
+  private StabilizerChain grow(StabilizerChain g, long maxMisses) {
+    ArrayList<int[]> gens = new ArrayList<int[]>();
+    StabilizerChain current = trivial();
+    long misses = 0;
+    while (!current.getOrder().equals(sylowOrder)) {
+      if (misses++ >= maxMisses)
+        return null;
+      int[] z = pPartOf(g.randomArray(random));
+      if (z == null || current.contains(z))
+        continue;
+      gens.add(z);
+      StabilizerChain bigger = new StabilizerChain(g.getDegree(), gens, null);
+      if (pPart(bigger.getOrder()).equals(bigger.getOrder())) {
+        current = bigger;
+        misses = 0;
+      }
+      else
+        gens.remove(gens.size()-1);
+    }
+    return current;
+  }
+
+  /* The p-part of g (the power of g whose order is the largest power of p dividing g's
+   * order), or null if p doesn't divide g's order. */
+  private int[] pPartOf(int[] g) {
+    long order = PermArrays.order(g);
+    long pPower = 1;
+    while (order % p == 0) {
+      order /= p;
+      pPower *= p;
+    }
+    return (pPower == 1) ? null : PermArrays.power(g, order);
+  }
+
+  private BigInteger pPart(BigInteger n) {
+    BigInteger prime = BigInteger.valueOf(p);
+    BigInteger part = BigInteger.ONE;
+    while (n.signum() > 0 && n.mod(prime).signum() == 0) {
+      n = n.divide(prime);
+      part = part.multiply(prime);
+    }
+    return part;
+  }
+
+  private StabilizerChain trivial() {
+    return new StabilizerChain(group.getDegree(), new ArrayList<int[]>(), null);
+  }
+
+  /* g P g^-1. */
+  private static StabilizerChain conjugate(StabilizerChain chain, int[] g) {
+    int[] gInverse = PermArrays.inverse(g);
+    ArrayList<int[]> gens = new ArrayList<int[]>();
+    for (int[] x : chain.generatorArrays())
+      gens.add(PermArrays.compose(g, PermArrays.compose(x, gInverse)));
+    return new StabilizerChain(chain.getDegree(), gens, null);
+  }
+
+  private static boolean containsAll(StabilizerChain chain, List<int[]> elements) {
+    for (int[] x : elements) {
+      if (!chain.contains(x))
+        return false;
+    }
+    return true;
+  }
+
+  public static void main(String[] args) {
+//    SylowSubgroups s = new SylowSubgroups(PermutationGroup.standardGenerators(6), 3);
+//    System.out.println(s.getSylowSubgroup()); // order 9
+//    System.out.println(s.countSylowSubgroups()); // 10
+//    System.out.println(new SylowSubgroups(PermutationGroup.standardGenerators(30), 2).getSylowSubgroup().getOrder()); // 2^26
+  }
+}
@@ -0,0 +1,28 @@
+package abstract_alg;
+/* NAME: TableElement.java
+ * DATE: October 2026
+ * COMMENTS: An element of a TableGroup: just a position (0, ..., n-1) in the group's
+ * multiplication table, plus the name it is printed with.  Two TableElements are equal
+ * if they sit at the same position. */
+
+public class TableElement extends GroupElement {
+  private final int index;
+  private final String name;
+
+  public TableElement(int index, String name) {
+    this.index = index;
+    this.name = name;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String toString() {
+    return name;
+  }
+
+  public boolean equals(GroupElement e) {
+    return (e instanceof TableElement) && ((TableElement)e).getIndex() == index;
+  }
+}
@@ -0,0 +1,416 @@
+package abstract_alg;
+/* NAME: TableGroup.java
+ * DATE: October 2026
+ * COMMENTS: A finite group given by nothing more than its multiplication table, so that
+ * any group - from a small-groups library, a quotient worked out elsewhere, or a table a
+ * student has filled in - can be loaded without writing a new Group subclass.  The
+ * elements are the numbers 0, ..., n-1 (wrapped in TableElements, which are all made up
+ * front, so operate never allocates anything), and the table itself is one flat array of
+ * chars, two bytes an entry: the product of i and j is table[i*n + j].  The identity and
+ * the table of inverses are worked out when the table is loaded, which also checks that
+ * every row and column is an arrangement of 0, ..., n-1 (associativity is left to
+ * GroupVerifier - see verify()).  Everything inherited from Group then works on it at the
+ * speed of an array lookup.
+ *
+ * Tables can be read from two formats.  The text format is a few "key: value" header
+ * lines followed by the table, with # starting a comment:
+ *     name: S3
+ *     order: 6
+ *     elements: e a b c d f          (optional; otherwise the names are 0, 1, ...)
+ *     table:
+ *     0 1 2 3 4 5
+ *     1 2 0 ...
+ * The binary format (see writeBinary) is the int 0x475A5442 ("GZTB"), the name as written
+ * by DataOutputStream.writeUTF, the order n as an int, and then the n*n entries as
+ * unsigned 16-bit numbers, row by row.  Both are read a number at a time, never
+ * holding more than the table itself. */
+
+import java.io.*;
+import java.util.*;
+
+public class TableGroup extends Group {
+  public static final int MAX_ORDER = 46340; // the largest n with n*n still fitting in an array
+  private static final int BINARY_MAGIC = 0x475A5442;
+
+  private final String name;
+  private final int order;
+  private final char[] table;
+  private final char[] inverses;
+  private final TableElement[] elements;
+
+  /* Builds the group from a square table of products, table[i][j] = i*j. */
+  public TableGroup(String name, int[][] table) {
+    this(name, table.length, flatten(table), null);
+  }
+
+  /* Builds the group of order n from a flat table (the product of i and j at
+   * table[i*n + j]), with the given element names (or null for 0, 1, ...). */
+  public TableGroup(String name, int n, int[] table, String[] names) {
+    this(name, n, toChars(table, n), names);
+  }
+
+  private TableGroup(String name, int n, char[] table, String[] names) {
+    super(n);
+    GroupEvents.Construction event = new GroupEvents.Construction();
+    long operatesBefore = beginEvent(event);
+
+    if (n < 1 || n > MAX_ORDER)
+      throw new IllegalArgumentException("A table group must have between 1 and " + MAX_ORDER + " elements, not " + n + ".");
+    if (names != null && names.length != n)
+      throw new IllegalArgumentException("There are " + names.length + " element names for " + n + " elements.");
+
+    this.name = name;
+    this.order = n;
+    this.table = table;
+
+    checkLatinSquare();
+    int e = findIdentity();
+    inverses = new char[n];
+    for (int x = 0; x < n; x++) {
+      int row = x*n;
+      for (int y = 0; y < n; y++) {
+        if (table[row + y] == e) {
+          inverses[x] = (char)y;
+          break;
+        }
+      }
+    }
+
+    elements = new TableElement[n];
+    for (int i = 0; i < n; i++) {
+      elements[i] = new TableElement(i, (names == null) ? Integer.toString(i) : names[i]);
+      members.add(elements[i]);
+    }
+    identity = elements[e];
+    commitEvent(event, operatesBefore);
+  }
+
+  /* Makes a TableGroup out of any (fully built) group, e.g. to speed up repeated
+   * work on it: the members keep their positions and their names. */
+  public static TableGroup fromGroup(Group g) {
+    ArrayList<GroupElement> members = new ArrayList<GroupElement>(g.getMembers());
+    int n = members.size();
+    int[] table = new int[n*n];
+    String[] names = new String[n];
+
+    for (int i = 0; i < n; i++) {
+      names[i] = members.get(i).toString();
+      for (int j = 0; j < n; j++)
+        table[i*n + j] = g.indexOf(g.operate(members.get(i), members.get(j)));
+    }
+
+    return new TableGroup(g.groupName(), n, table, names);
+  }
+
+  /* Reads a table in the text format described at the top. */
+  public static TableGroup read(Reader in) throws IOException {
+    TextTokens tokens = new TextTokens(in);
+    String name = "G";
+    String[] names = null;
+    int n = -1;
+
+    String key;
+    while (!(key = tokens.nextKey()).equals("table")) {
+      if (key.equals("name"))
+        name = tokens.restOfLine();
+      else if (key.equals("order"))
+        n = Integer.parseInt(tokens.restOfLine());
+      else if (key.equals("elements")) {
+        String line = tokens.restOfLine();
+        names = line.isEmpty() ? new String[0] : line.split("\\s+");
+      }
+      else
+        throw new IOException("Unknown header \"" + key + "\" in table file.");
+    }
+    if (n < 0 && names != null)
+      n = names.length;
+    if (n < 1 || n > MAX_ORDER)
+      throw new IOException("The table file must give an order between 1 and " + MAX_ORDER + ".");
+
+    char[] table = new char[n*n];
+    for (int i = 0; i < table.length; i++) {
+      int entry = tokens.nextInt();
+      if (entry < 0 || entry >= n)
+        throw new IOException("Entry " + entry + " in row " + i/n + " of the table is not between 0 and " + (n-1) + ".");
+      table[i] = (char)entry;
+    }
+
+    return new TableGroup(name, n, table, names);
+  }
+
+  /* Reads a table in the binary format described at the top. */
+  public static TableGroup readBinary(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != BINARY_MAGIC)
+      throw new IOException("Not a binary group table.");
+    String name = data.readUTF();
+    int n = data.readInt();
+    if (n < 1 || n > MAX_ORDER)
+      throw new IOException("Bad group order " + n + " in binary table.");
+
+    char[] table = new char[n*n];
+    for (int i = 0; i < table.length; i++) {
+      table[i] = data.readChar();
+      if (table[i] >= n)
+        throw new IOException("Entry " + (int)table[i] + " in row " + i/n + " of the table is not between 0 and " + (n-1) + ".");
+    }
+
+    return new TableGroup(name, n, table, null);
+  }
+
+  /* Writes the table in the text format (which, unlike the binary one, keeps the names). */
+  public void write(Writer out) throws IOException {
+    StringBuilder line = new StringBuilder();
+    out.write("name: " + name + "\norder: " + order + "\nelements:");
+    for (int i = 0; i < order; i++)
+      out.write(" " + elements[i].toString().replaceAll("\\s+", "_"));
+    out.write("\ntable:\n");
+
+    for (int i = 0; i < order; i++) {
+      line.setLength(0);
+      for (int j = 0; j < order; j++) {
+        if (j > 0)
+          line.append(' ');
+        line.append((int)table[i*order + j]);
+      }
+      out.write(line.append('\n').toString());
+    }
+    out.flush();
+  }
+
+  /* Writes the table in the binary format. */
+  public void writeBinary(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(BINARY_MAGIC);
+    data.writeUTF(name);
+    data.writeInt(order);
+    for (int i = 0; i < table.length; i++)
+      data.writeChar(table[i]);
+    data.flush();
+  }
+
+  public int getGroupOrder() {
+    return order;
+  }
+
+  public String groupName() {
+    return name;
+  }
+
+  /* Multiplies two elements by looking up their product in the table. */
+  public GroupElement operate(GroupElement e1, GroupElement e2) {
+    if (!isTableElement(e1, e2)) {
+      System.out.println(NOT_A_TABLE_ELEMENT_ERROR);
+      return null;
+    }
+    countOperate();
+    return elements[table[((TableElement)e1).getIndex()*order + ((TableElement)e2).getIndex()]];
+  }
+
+  public GroupElement getInverse(GroupElement e) {
+    if (!isTableElement(e)) {
+      System.out.println(NOT_A_TABLE_ELEMENT_ERROR);
+      return null;
+    }
+    return elements[inverses[((TableElement)e).getIndex()]];
+  }
+
+  /* The product of the elements at positions i and j, as a position. */
+  public int multiply(int i, int j) {
+    return table[i*order + j];
+  }
+
+  /* The inverse of the element at position i, as a position. */
+  public int inverse(int i) {
+    return inverses[i];
+  }
+
+  /* Returns the element at position i. */
+  public TableElement getElement(int i) {
+    return elements[i];
+  }
+
+  public boolean equals(GroupElement one, GroupElement two) {
+    countEquals();
+    return one.equals(two);
+  }
+
+  /* Elements already know their own position, so there is nothing to look up. */
+  public int indexOf(GroupElement e) {
+    return (e instanceof TableElement) ? ((TableElement)e).getIndex() : -1;
+  }
+
+  protected Object hashKey(GroupElement e) {
+    return ((TableElement)e).getIndex();
+  }
+
+  protected long estimateElementBytes() {
+    return 32 + 2*order; // the element object, plus its share of the table
+  }
+
+  /* Runs the full set of group axiom checks (see GroupVerifier) on the table. */
+  public GroupVerifier.Result verify() {
+    int[] copy = new int[table.length];
+    for (int i = 0; i < copy.length; i++)
+      copy[i] = table[i];
+    return GroupVerifier.verifyTable(copy, order, ((TableElement)identity).getIndex(), null);
+  }
+
+  public String toString() {
+    StringBuilder s = new StringBuilder("The group " + name + " contains " + order + " elements: ");
+    for (int i = 0; i < order; i++) {
+      if (i > 0)
+        s.append(", ");
+      s.append(elements[i].toString());
+    }
+    return s.toString();
+  }
+
+  // -------------------------------------------------------------------------------------------------- //
+  // --------------------------------------------- HELPERS -------------------------------------------- //
+  // -------------------------------------------------------------------------------------------------- //
+
+  private final String NOT_A_TABLE_ELEMENT_ERROR = "ERROR: Please input only elements of this table group.";
+
+  /* In a group every row and column of the table is an arrangement of all the
+   * elements (since ax = b always has exactly one solution x). */
+  private void checkLatinSquare() {
+    BitSet seenInRow = new BitSet(order);
+    BitSet[] seenInColumn = new BitSet[order];
+    for (int j = 0; j < order; j++)
+      seenInColumn[j] = new BitSet(order);
+
+    for (int i = 0; i < order; i++) {
+      seenInRow.clear();
+      for (int j = 0; j < order; j++) {
+        int entry = table[i*order + j];
+        if (entry >= order)
+          throw new IllegalArgumentException("Entry " + entry + " in row " + i + " is not an element.");
+        if (seenInRow.get(entry) || seenInColumn[j].get(entry))
+          throw new IllegalArgumentException("Element " + entry + " appears twice in row " + i + " or column " + j
+                                               + ", so this is not a group table.");
+        seenInRow.set(entry);
+        seenInColumn[j].set(entry);
+      }
+    }
+  }
+
+  /* The identity is the element whose row leaves everything in place (in a Latin
+   * square with such a row, the matching column then does too). */
+  private int findIdentity() {
+    for (int e = 0; e < order; e++) {
+      boolean works = true;
+      for (int x = 0; x < order && works; x++)
+        works = (table[e*order + x] == x && table[x*order + e] == x);
+      if (works)
+        return e;
+    }
+    throw new IllegalArgumentException("The table has no identity element, so it is not a group table.");
+  }
+
+  private boolean isTableElement(GroupElement ... args) {
+    for (int i = 0; i < args.length; i++) {
+      if (!(args[i] instanceof TableElement) || ((TableElement)args[i]).getIndex() >= order)
+        return false;
+    }
+    return true;
+  }
+
+  private static int[] flatten(int[][] table) {
+    int n = table.length;
+    int[] flat = new int[n*n];
+    for (int i = 0; i < n; i++) {
+      if (table[i].length != n)
+        throw new IllegalArgumentException("Row " + i + " of the table has " + table[i].length + " entries, not " + n + ".");
+      System.arraycopy(table[i], 0, flat, i*n, n);
+    }
+    return flat;
+  }
+
+  private static char[] toChars(int[] table, int n) {
+    if (n < 1 || n > MAX_ORDER || table.length != n*n)
+      throw new IllegalArgumentException("A table for " + n + " elements needs " + n + "*" + n + " entries.");
+    char[] chars = new char[table.length];
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] < 0 || table[i] >= n)
+        throw new IllegalArgumentException("Entry " + table[i] + " in row " + i/n + " is not between 0 and " + (n-1) + ".");
+      chars[i] = (char)table[i];
+    }
+    return chars;
+  }
+
+  /* Reads the text format one token at a time, straight off the Reader. */
+  private static class TextTokens {
+    private final Reader in;
+    private int c;
+
+    TextTokens(Reader in) throws IOException {
+      this.in = (in instanceof BufferedReader) ? in : new BufferedReader(in);
+      c = this.in.read();
+    }
+
+    /* Skips blanks, line breaks and comments. */
+    private void skip() throws IOException {
+      while (c != -1) {
+        if (c == '#') {
+          while (c != -1 && c != '\n')
+            c = in.read();
+        }
+        else if (Character.isWhitespace(c))
+          c = in.read();
+        else
+          return;
+      }
+    }
+
+    /* Reads a "key:" and returns the key. */
+    String nextKey() throws IOException {
+      skip();
+      StringBuilder key = new StringBuilder();
+      while (c != -1 && c != ':' && c != '\n') {
+        key.append((char)c);
+        c = in.read();
+      }
+      if (c != ':')
+        throw new IOException("Expected \"key:\" in table header, found \"" + key + "\".");
+      c = in.read();
+      return key.toString().trim().toLowerCase();
+    }
+
+    /* Reads the rest of the current line (minus any comment), trimmed. */
+    String restOfLine() throws IOException {
+      StringBuilder line = new StringBuilder();
+      while (c != -1 && c != '\n' && c != '#') {
+        line.append((char)c);
+        c = in.read();
+      }
+      return line.toString().trim();
+    }
+
+    int nextInt() throws IOException {
+      skip();
+      if (c < '0' || c > '9')
+        throw new IOException((c == -1) ? "The table ends too soon." : "Unexpected '" + (char)c + "' in table.");
+      int value = 0;
+      while (c >= '0' && c <= '9') {
+        value = 10*value + (c - '0');
+        if (value > MAX_ORDER)
+          throw new IOException("Table entry " + value + "... is too big.");
+        c = in.read();
+      }
+      return value;
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+//    String s3 = "name: S3\n# the symmetric group on three letters\nelements: e r r2 f fr fr2\ntable:\n"
+//      + "0 1 2 3 4 5\n1 2 0 5 3 4\n2 0 1 4 5 3\n3 4 5 0 1 2\n4 5 3 2 0 1\n5 3 4 1 2 0\n";
+//    TableGroup g = read(new StringReader(s3));
+//    System.out.println(g);
+//    System.out.println(g.verify());
+//    g.storeElementsByOrder();
+//    System.out.println(g.orderedElementsToString());
+//    System.out.println(g.isNormal(g.generateSubgroup(g.getElement(1)))); // true
+//    System.out.println(g.factorGroup(g.generateSubgroup(g.getElement(1))));
+  }
+}
@@ -13,15 +13,32 @@ public class ZmodN extends Group {
   // instance variables inherited from Group:
   // LL<GroupElement> members, int dimension, Hashtable<Integer, LL<GroupElement>> membersByOrder, LL<int> allOrders
   // methods inherited from Group:
-  // - equals (OVERWRITTEN), getIdentity, computeElementOrder, generateSubgroup, StoreElementsByOrder, getElementsByOrder,
-  //   orderedElementsToString, isNormal, getMembers, and protected helpers:
+  // - equals (OVERWRITTEN), getIdentity, computeElementOrder, power (OVERWRITTEN), generateSubgroup, StoreElementsByOrder, getElementsByOrder,
+  //   orderedElementsToString, isNormal, factorGroup, getMembers, and protected helpers:
   //     - findIndex, subgroupEquals, contains, isPrime, and two versions of addInOrder (overwritten here)
   
   private final String NOT_AN_INT_ERROR = "ERROR: Please enter only modular integer inputs.";
   
   public ZmodN(int n) {
+    this(n, true);
+  }
+  
+  /* Z mod N with its members listed only when something needs them (see
+   * Group.leaveMembersImplicit), so that adding, inverting and finding orders cost
+   * nothing up front even for N in the billions. */
+  public static ZmodN implicit(int n) {
+    return new ZmodN(n, false);
+  }
+  
+  private ZmodN(int n, boolean listMembers) {
     super(n);
     identity = new ModularInt(0);
+    if (!listMembers) {
+      leaveMembersImplicit();
+      return;
+    }
+    GroupEvents.Construction event = new GroupEvents.Construction();
+    long operatesBefore = beginEvent(event);
     
     // populate Z mod N with all the integers from 0 to n-1,
     // with their orders pre-assigned:
@@ -30,6 +47,7 @@ public class ZmodN extends Group {
       next.setOrder(computeElementOrder(next));
       members.add(next);
     }
+    commitEvent(event, operatesBefore);
   }
   
   /* In the case of Z mod N, the "group order" (number of elements in the
@@ -49,6 +67,8 @@ public class ZmodN extends Group {
       return identity;
     }
     
+    countOperate();
+    countAllocated(1);
     ModularInt nprime = (ModularInt)n;
     ModularInt mprime = (ModularInt)m;
     return (new ModularInt((nprime.getIntValue()+mprime.getIntValue())%dimension));
@@ -61,6 +81,7 @@ public class ZmodN extends Group {
       System.out.println(NOT_AN_INT_ERROR);
       return false;
     }
+    countEquals();
     ModularInt nprime = (ModularInt)n;
     ModularInt mprime = (ModularInt)m;
     return (nprime.getIntValue()%dimension == mprime.getIntValue()%dimension);
@@ -77,31 +98,83 @@ public class ZmodN extends Group {
     ModularInt residueValueOfN = getResidueValue(n);
     if (residueValueOfN.getIntValue() == 0)
       return (ModularInt)identity;
-    else return new ModularInt(dimension-residueValueOfN.getIntValue());
+    countAllocated(1);
+    return new ModularInt(dimension-residueValueOfN.getIntValue());
+  }
+  
+  /* In Z mod N, "operating n with itself k times" is just multiplying by k. */
+  public GroupElement power(GroupElement n, long k) {
+    if (!isModularInt(n)) {
+      System.out.println(NOT_AN_INT_ERROR);
+      return identity;
+    }
+    
+    long residue = getResidueValue(n).getIntValue();
+    long kModN = ((k % dimension) + dimension) % dimension;
+    countAllocated(1);
+    return new ModularInt((int)((residue*kModN) % dimension));
   }
   
-  /* ToString: */
+  /* ToString: (the members are the residues in order, so this writes them out
+   * without needing the list) */
   public String toString() {
     String s = "The integers mod " + dimension + ":\n";
     
     if (dimension <= 20) {
       for (int i = 0; i < dimension; i++) {
-        s+=members.get(i).toString()+", ";
+        s+=new ModularInt(i).toString()+", ";
       }
       return s.substring(0,s.length()-2); // remove trailing ", "
     }
     
     else {
-      s+="\n"+members.get(0).toString()+", "+members.get(1).toString()+
-        ", ... , "+members.get(dimension-2).toString()+", "+members.get(dimension-1).toString();
+      s+="\n"+new ModularInt(0).toString()+", "+new ModularInt(1).toString()+
+        ", ... , "+new ModularInt(dimension-2).toString()+", "+new ModularInt(dimension-1).toString();
       return s;
     }
   }
   
+  /* [1] generates everything; for an implicit group that saves listing the members to
+   * find out. */
+  public LinkedList<GroupElement> getGenerators() {
+    if (!isImplicit())
+      return super.getGenerators();
+    LinkedList<GroupElement> gens = new LinkedList<GroupElement>();
+    if (dimension > 1)
+      gens.add(new ModularInt(1));
+    return gens;
+  }
+  
+  /* For an implicit group, [0], [1], ..., [N-1], each made as it is reached. */
+  public Iterator<GroupElement> elementIterator() {
+    if (!isImplicit())
+      return super.elementIterator();
+    return new Iterator<GroupElement>() {
+      private int next = 0;
+      
+      public boolean hasNext() {
+        return next < dimension;
+      }
+      
+      public GroupElement next() {
+        if (next >= dimension)
+          throw new NoSuchElementException();
+        ModularInt i = new ModularInt(next++);
+        i.setOrder(computeElementOrder(i));
+        return i;
+      }
+    };
+  }
+  
   public String groupName() {
     return "Z" + dimension;
   }
   
+  /* Integers are hashed by their residue, so that e.g. [2] and [6] in Z4 collide. */
+  protected Object hashKey(GroupElement n) {
+    return getResidueValue(n).getIntValue();
+  }
+  
   /* Returns true if all the given GroupElements are ModularInts,
    * false otherwise. */
   private boolean isModularInt(GroupElement ... args) {
@@ -118,16 +191,23 @@ public class ZmodN extends Group {
    * the list.  Here, the "appropriate position" is determined by the residue
    * value of the integer mod N, so the integer with the least residue value comes
    * first and the integer with the highest residue value comes last.  If two
-   * integers have the same residue value, they are placed side by side. */
+   * integers have the same residue value, they are placed side by side.
+   * The last member is checked first, since the multiples of a generator often come
+   * in increasing order; otherwise the list is walked with an iterator rather than
+   * calling get(i) on every step. */
   protected LinkedList<GroupElement> addInOrder(LinkedList<GroupElement> listSoFar, GroupElement toAdd) {
-    for (int i = 0; i < listSoFar.size(); i++) {
-      if (getResidueValue(toAdd).getIntValue() <=
-    		  getResidueValue(listSoFar.get(i)).getIntValue()) {
-        listSoFar.add(i, toAdd);
-        return listSoFar;
+    int value = getResidueValue(toAdd).getIntValue();
+    if (!listSoFar.isEmpty() && value <= getResidueValue(listSoFar.getLast()).getIntValue()) {
+      ListIterator<GroupElement> it = listSoFar.listIterator();
+      while (it.hasNext()) {
+        if (value <= getResidueValue(it.next()).getIntValue()) {
+          it.previous();
+          it.add(toAdd);
+          return listSoFar;
+        }
       }
     }
-    // otherwise, the toAdd element has the highest order so far and we just add it at the end:
+    // otherwise, the toAdd element has the highest residue value so far and we just add it at the end:
     listSoFar.add(toAdd);
     return listSoFar;
   }